@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+#
+# Compara vazão e latência da API em cada modo de execução
+#
+# Sobe a API uma vez por modo contra o mesmo banco, roda o CargaHttp em cada
+# uma e imprime os resultados lado a lado:
+#   plataforma  Tomcat com threads de plataforma (padrão)
+#   virtuais    Tomcat com threads virtuais (spring.threads.virtual.enabled=true)
+#   reativo     perfil "reativo": WebFlux + R2DBC para livros e usuários
+# Com threads virtuais a JVM registra, no log da API, cada vez que uma thread
+# virtual prende a thread de plataforma esperando um monitor (synchronized);
+# o total aparece no resultado como "fixacoes".
+#
+# Antes de rodar:
+#   mvn package -Preativo -DskipTests   (na raiz: gera target/biblioteca-api-1.0.0-exec.jar;
+#                                        sem -Preativo o jar não tem o modo reativo)
+#   cd benchmarks && mvn package   (gera target/benchmarks.jar)
+#
+# Variáveis (opcionais):
+#   MODOS="plataforma virtuais reativo"
+#   CLIENTES=400 DURACAO=60 AQUECIMENTO=15 MAXIMO=1000 PORTA=8080
+#   PAUSA=0      pausa de cada cliente entre requisições, em ms; com milhares
+#                de clientes e pausa alta simula muitos clientes lentos/ociosos
+#   ARGS_APLICACAO="--spring.datasource.url=..."   argumentos extras da API
+
+set -euo pipefail
+cd "$(dirname "$0")"
+
+MODOS=${MODOS:-plataforma virtuais reativo}
+CLIENTES=${CLIENTES:-400}
+DURACAO=${DURACAO:-60}
+AQUECIMENTO=${AQUECIMENTO:-15}
+MAXIMO=${MAXIMO:-1000}
+PAUSA=${PAUSA:-0}
+PORTA=${PORTA:-8080}
+ARGS_APLICACAO=${ARGS_APLICACAO:-}
+
+API=../target/biblioteca-api-1.0.0-exec.jar
+BASE=http://localhost:$PORTA/api
+
+# Busca em cache, função do banco e consulta com JOIN
+URLS=(
+    "url=$BASE/livros/{n}"
+    "url=$BASE/usuarios/{n}/emprestimos-ativos"
+    "url=$BASE/emprestimos/{n}"
+)
+
+# Sem as classes do perfil Maven "reativo" a API subiria no modo servlet sem livros e usuários
+if [[ " $MODOS " == *" reativo "* ]] && ! jar tf "$API" | grep -q 'com/biblioteca/config/ReativoConfig.class'; then
+    echo "$API não tem o modo reativo; gere com: mvn package -Preativo -DskipTests" >&2
+    exit 1
+fi
+
+for modo in $MODOS; do
+    case "$modo" in
+        plataforma) opcoes="--spring.threads.virtual.enabled=false" ;;
+        virtuais)   opcoes="--spring.threads.virtual.enabled=true" ;;
+        reativo)    opcoes="--spring.profiles.active=reativo" ;;
+        *) echo "Modo desconhecido: $modo" >&2; exit 1 ;;
+    esac
+
+    log=target/api-$modo.log
+    # shellcheck disable=SC2086
+    java -Djdk.tracePinnedThreads=short -jar "$API" \
+        --server.port="$PORTA" \
+        $opcoes \
+        --logging.level.com.biblioteca=INFO \
+        --logging.level.org.springframework.jdbc=INFO \
+        $ARGS_APLICACAO > "$log" 2>&1 &
+    pid=$!
+
+    until curl -sf "$BASE/actuator/health" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "A API não subiu; veja $log" >&2
+            exit 1
+        fi
+        sleep 1
+    done
+
+    java -cp target/benchmarks.jar com.biblioteca.benchmark.CargaHttp "${URLS[@]}" \
+        clientes="$CLIENTES" duracao="$DURACAO" aquecimento="$AQUECIMENTO" maximo="$MAXIMO" \
+        pausa="$PAUSA" rotulo="$modo"
+
+    kill "$pid"
+    wait "$pid" || true
+    echo "             fixacoes=$(grep -c '<== monitors' "$log" || true)"
+done
@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+#
+# Mede o tempo de inicialização da API em cada forma de execução
+#
+# Sobe a API várias vezes por modo e mede, com o TempoInicializacao, o tempo
+# do início do processo até a primeira resposta 2xx de uma URL que consulta o
+# banco; imprime mínimo, mediana, média e máximo de cada modo:
+#   exec     jar executável do Spring Boot (biblioteca-api-1.0.0-exec.jar)
+#   jar      jar comum + target/lib, sem AOT nem CDS
+#   aot      jar comum com as definições de beans geradas no build (-Dspring.aot.enabled=true)
+#   cds      jar comum com o arquivo CDS (-XX:SharedArchiveFile=target/biblioteca-api.jsa)
+#   aot-cds  os dois juntos: a forma de execução de produção
+#
+# Antes de rodar:
+#   mvn package -Pproducao -DskipTests   (na raiz: gera os jars, target/lib e target/biblioteca-api.jsa)
+#   cd benchmarks && mvn package         (gera target/benchmarks.jar)
+#
+# Variáveis (opcionais):
+#   MODOS="exec jar aot cds aot-cds"
+#   RODADAS=10 AQUECIMENTO=1 PORTA=8080
+#   URL=http://localhost:$PORTA/api/livros/1   primeira requisição medida
+#   CLASSPATH_EXTRA=...   jars extras da API (ex.: driver do H2); não vale para o modo exec
+#   ARGS_APLICACAO="--spring.datasource.url=..."   argumentos extras da API
+
+set -euo pipefail
+# Roda a partir da raiz: o arquivo CDS guarda o caminho relativo target/biblioteca-api-1.0.0.jar
+cd "$(dirname "$0")/.."
+
+MODOS=${MODOS:-exec jar aot cds aot-cds}
+RODADAS=${RODADAS:-10}
+AQUECIMENTO=${AQUECIMENTO:-1}
+PORTA=${PORTA:-8080}
+URL=${URL:-http://localhost:$PORTA/api/livros/1}
+CLASSPATH_EXTRA=${CLASSPATH_EXTRA:-}
+ARGS_APLICACAO=${ARGS_APLICACAO:-}
+
+EXEC=target/biblioteca-api-1.0.0-exec.jar
+JAR=target/biblioteca-api-1.0.0.jar
+CDS=target/biblioteca-api.jsa
+PRINCIPAL=com.biblioteca.BibliotecaAplicacao
+
+for modo in $MODOS; do
+    case "$modo" in
+        exec)    api=(java -jar "$EXEC") ;;
+        jar)     api=(java -cp "$JAR${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}" "$PRINCIPAL") ;;
+        aot)     api=(java -Dspring.aot.enabled=true -cp "$JAR${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}" "$PRINCIPAL") ;;
+        cds)     api=(java -XX:SharedArchiveFile="$CDS" -cp "$JAR${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}" "$PRINCIPAL") ;;
+        aot-cds) api=(java -XX:SharedArchiveFile="$CDS" -Dspring.aot.enabled=true
+                      -cp "$JAR${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}" "$PRINCIPAL") ;;
+        *) echo "Modo desconhecido: $modo" >&2; exit 1 ;;
+    esac
+
+    # shellcheck disable=SC2086
+    java -cp benchmarks/target/benchmarks.jar com.biblioteca.benchmark.TempoInicializacao \
+        url="$URL" rodadas="$RODADAS" aquecimento="$AQUECIMENTO" rotulo="$modo" \
+        log="benchmarks/target/api-inicializacao-$modo.log" \
+        -- "${api[@]}" --server.port="$PORTA" $ARGS_APLICACAO
+done
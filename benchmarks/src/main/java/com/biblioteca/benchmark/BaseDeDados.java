@@ -0,0 +1,324 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.controller.ExportadorNdjson;
+import com.biblioteca.controller.LivroController;
+import com.biblioteca.controller.UsuarioController;
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.monitoramento.JdbcTemplateMonitorado;
+import com.biblioteca.repositorio.CacheEntidade;
+import com.biblioteca.repositorio.ConsultaCompartilhada;
+import com.biblioteca.repositorio.LivroRepositorio;
+import com.biblioteca.repositorio.UsuarioRepositorio;
+import com.biblioteca.repositorio.VersoesEntidade;
+import com.biblioteca.service.IndiceTitulos;
+import com.biblioteca.service.LivroService;
+import com.biblioteca.service.TotaisEmprestimosAtivos;
+import com.biblioteca.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+
+/**
+ * Banco H2 em memória carregado com livros e usuários, e os objetos da API ligados a ele
+ *
+ * Os objetos são montados à mão, como o Spring faria, para que os benchmarks
+ * meçam o código da API sem o custo de subir o contexto inteiro. O H2 roda
+ * em modo MySQL com o mesmo formato das tabelas 'livro', 'usuario' e 'livro_autor'
+ * (esta com a função fn_contar_autores_livro equivalente à do MySQL).
+ */
+@State(Scope.Benchmark)
+public class BaseDeDados {
+
+    // Sementes fixas: todas as execuções usam os mesmos dados
+    static final long SEMENTE = 20251129L;
+
+    private static final String[] PALAVRAS = {
+            "banco", "dados", "sistemas", "programação", "java", "estruturas", "algoritmos",
+            "redes", "computadores", "engenharia", "software", "introdução", "fundamentos",
+            "história", "brasil", "literatura", "memórias", "póstumas", "cálculo", "física",
+            "química", "biologia", "economia", "direito", "administração", "gestão", "projetos",
+            "arquitetura", "análise", "modelagem", "teoria", "prática", "avançado", "moderna",
+            "aplicada", "segurança", "informação", "inteligência", "artificial", "aprendizado",
+            "máquina", "estatística", "probabilidade", "geometria", "álgebra", "linear",
+            "operacionais", "distribuídos", "compiladores", "linguagens", "formais", "ética"};
+
+    private static final String[] NOMES = {
+            "Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela", "Henrique",
+            "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael",
+            "Sofia", "Tiago", "Vitória", "William"};
+
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira",
+            "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Araújo", "Gusmão"};
+
+    @Param({"100000"})
+    public int quantidadeLivros;
+
+    @Param({"20000"})
+    public int quantidadeUsuarios;
+
+    HikariDataSource dataSource;
+    PrometheusMeterRegistry registry;
+    JdbcTemplate jdbcTemplate;
+    ValidatorFactory validatorFactory;
+    ObjectMapper objectMapper;
+
+    CacheEntidade<Livro> cacheLivro;
+    CacheEntidade<Usuario> cacheUsuario;
+    LivroRepositorio livroRepositorio;
+    UsuarioRepositorio usuarioRepositorio;
+    IndiceTitulos indiceTitulos;
+    LivroService livroService;
+    UsuarioService usuarioService;
+    LivroController livroController;
+    UsuarioController usuarioController;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("benchmark");
+        config.setJdbcUrl("jdbc:h2:mem:biblioteca;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(8);
+        dataSource = new HikariDataSource(config);
+        registry = criarRegistro();
+        jdbcTemplate = new JdbcTemplateMonitorado(dataSource, registry);
+
+        criarTabelas();
+        carregarLivros();
+        carregarUsuarios();
+        carregarAutores();
+
+        // Mesmas configurações de data do application.properties
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .simpleDateFormat("yyyy-MM-dd")
+                .timeZone(TimeZone.getTimeZone("America/Sao_Paulo"))
+                .build();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        Validator validator = validatorFactory.getValidator();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        cacheLivro = new CacheEntidade<>("livro", 10_000, Duration.ofMinutes(5), Livro::getIdLivro, Livro::getIsbn);
+        cacheUsuario = new CacheEntidade<>("usuario", 10_000, Duration.ofMinutes(5),
+                Usuario::getIdUsuario, Usuario::getMatricula);
+        livroRepositorio = new LivroRepositorioH2(jdbcTemplate, cacheLivro, registry);
+        usuarioRepositorio = new UsuarioRepositorio(jdbcTemplate, jdbcTemplate, cacheUsuario,
+                new VersoesEntidade<>("usuario", Duration.ofMinutes(5)),
+                new ConsultaCompartilhada<>("usuario-por-id", Duration.ofSeconds(2), registry));
+
+        indiceTitulos = new IndiceTitulos(livroRepositorio);
+        indiceTitulos.construir();
+
+        livroService = new LivroService(livroRepositorio, indiceTitulos, validator, transactionTemplate, 50_000, 1_000);
+        usuarioService = new UsuarioService(usuarioRepositorio, new TotaisEmprestimosAtivos(usuarioRepositorio));
+
+        ExportadorNdjson exportador = new ExportadorNdjson(objectMapper);
+        livroController = new LivroController(livroService, exportador);
+        usuarioController = new UsuarioController(usuarioService, exportador);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.close();
+        registry.close();
+        validatorFactory.close();
+    }
+
+    /**
+     * Repositório sem cache, para medir a ida ao banco a cada busca
+     *
+     * @param template JdbcTemplate usado pelo repositório
+     */
+    LivroRepositorio livroRepositorioSemCache(JdbcTemplate template) {
+        CacheEntidade<Livro> semCache = new CacheEntidade<>("livro-sem-cache", 0, Duration.ofMinutes(5),
+                Livro::getIdLivro, Livro::getIsbn);
+        return new LivroRepositorioH2(template, semCache, registry);
+    }
+
+    /**
+     * Registro Prometheus com os mesmos percentis do application.properties
+     */
+    static PrometheusMeterRegistry criarRegistro() {
+        PrometheusMeterRegistry registro = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registro.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals(JdbcTemplateMonitorado.METRICA)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        });
+        return registro;
+    }
+
+    static String isbn(int i) {
+        return String.format("978-%010d", i);
+    }
+
+    static String matricula(int i) {
+        return String.format("M%08d", i);
+    }
+
+    /**
+     * Gera um título de 2 a 6 palavras, sempre o mesmo para o mesmo número
+     */
+    static String titulo(Random random) {
+        int palavras = 2 + random.nextInt(5);
+        StringBuilder titulo = new StringBuilder();
+        for (int p = 0; p < palavras; p++) {
+            String palavra = PALAVRAS[random.nextInt(PALAVRAS.length)];
+            if (p > 0) {
+                titulo.append(p == 1 && random.nextBoolean() ? " de " : " ");
+            }
+            titulo.append(Character.toUpperCase(palavra.charAt(0))).append(palavra.substring(1));
+        }
+        return titulo.toString();
+    }
+
+    static String palavra(Random random) {
+        return PALAVRAS[random.nextInt(PALAVRAS.length)];
+    }
+
+    private void criarTabelas() {
+        jdbcTemplate.execute("""
+                CREATE TABLE livro (
+                    id_livro INT AUTO_INCREMENT PRIMARY KEY,
+                    isbn VARCHAR(30) NOT NULL UNIQUE,
+                    titulo VARCHAR(255) NOT NULL,
+                    ano_publicacao INT NOT NULL
+                )""");
+        jdbcTemplate.execute("CREATE INDEX idx_livro_titulo_id ON livro (titulo, id_livro)");
+
+        jdbcTemplate.execute("""
+                CREATE TABLE usuario (
+                    id_usuario INT AUTO_INCREMENT PRIMARY KEY,
+                    matricula VARCHAR(20) NOT NULL UNIQUE,
+                    nome VARCHAR(150) NOT NULL,
+                    email VARCHAR(150),
+                    telefone VARCHAR(20),
+                    cpf CHAR(11) UNIQUE
+                )""");
+        jdbcTemplate.execute("CREATE INDEX idx_usuario_nome_id ON usuario (nome, id_usuario)");
+
+        jdbcTemplate.execute("""
+                CREATE TABLE livro_autor (
+                    id_livro INT NOT NULL,
+                    id_autor INT NOT NULL,
+                    PRIMARY KEY (id_livro, id_autor)
+                )""");
+        jdbcTemplate.execute("CREATE ALIAS fn_contar_autores_livro FOR '"
+                + BaseDeDados.class.getName() + ".contarAutoresLivro'");
+    }
+
+    /**
+     * Equivalente da fn_contar_autores_livro do MySQL, registrada como ALIAS no H2
+     */
+    public static int contarAutoresLivro(Connection conexao, int idLivro) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT COUNT(*) FROM livro_autor WHERE id_livro = ?")) {
+            ps.setInt(1, idLivro);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private void carregarLivros() {
+        Random random = new Random(SEMENTE);
+        List<Object[]> linhas = new ArrayList<>(quantidadeLivros);
+        for (int i = 1; i <= quantidadeLivros; i++) {
+            linhas.add(new Object[]{isbn(i), titulo(random), 1950 + random.nextInt(75)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO livro (isbn, titulo, ano_publicacao) VALUES (?, ?, ?)", linhas);
+    }
+
+    private void carregarUsuarios() {
+        Random random = new Random(SEMENTE + 1);
+        List<Object[]> linhas = new ArrayList<>(quantidadeUsuarios);
+        for (int i = 1; i <= quantidadeUsuarios; i++) {
+            String nome = NOMES[random.nextInt(NOMES.length)] + " "
+                    + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " "
+                    + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+            String email = nome.toLowerCase().replace(' ', '.') + i + "@universidade.edu.br";
+            linhas.add(new Object[]{matricula(i), nome, email,
+                    String.format("(81) 9%04d-%04d", i % 10_000, random.nextInt(10_000)),
+                    String.format("%011d", 10_000_000_000L + i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO usuario (matricula, nome, email, telefone, cpf) VALUES (?, ?, ?, ?, ?)",
+                linhas);
+    }
+
+    // De 0 a 3 autores por livro
+    private void carregarAutores() {
+        Random random = new Random(SEMENTE + 2);
+        List<Object[]> linhas = new ArrayList<>();
+        for (int i = 1; i <= quantidadeLivros; i++) {
+            int autores = random.nextInt(4);
+            for (int a = 1; a <= autores; a++) {
+                linhas.add(new Object[]{i, a + random.nextInt(1_000) * 4});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO livro_autor (id_livro, id_autor) VALUES (?, ?)", linhas);
+    }
+
+    /**
+     * O H2 não aceita o fetch size Integer.MIN_VALUE que o driver do MySQL usa
+     * para streaming; aqui a leitura completa é feita em páginas por chave.
+     */
+    private static class LivroRepositorioH2 extends LivroRepositorio {
+
+        LivroRepositorioH2(JdbcTemplate jdbcTemplate, CacheEntidade<Livro> cacheLivro, MeterRegistry registry) {
+            super(jdbcTemplate, jdbcTemplate, cacheLivro, new VersoesEntidade<>("livro", Duration.ofMinutes(5)),
+                    new ConsultaCompartilhada<>("livro-por-id", Duration.ofSeconds(2), registry),
+                    new ConsultaCompartilhada<>("livro-por-isbn", Duration.ofSeconds(2), registry),
+                    new ConsultaCompartilhada<>("livro-por-titulo", Duration.ofSeconds(2), registry));
+        }
+
+        @Override
+        public void percorrerTodos(Consumer<Livro> consumidor) {
+            List<Livro> pagina = buscarPagina(null, null, 5_000);
+            while (!pagina.isEmpty()) {
+                pagina.forEach(consumidor);
+                Livro ultimo = pagina.get(pagina.size() - 1);
+                pagina = buscarPagina(ultimo.getTitulo(), ultimo.getIdLivro(), 5_000);
+            }
+        }
+    }
+}
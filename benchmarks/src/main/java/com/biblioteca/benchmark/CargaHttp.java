@@ -0,0 +1,168 @@
+package com.biblioteca.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gerador de carga HTTP: vazão e latência (p50/p95/p99) de uma API em execução
+ *
+ * Cada cliente envia uma requisição por vez, alternando entre as URLs
+ * informadas; "{n}" na URL é trocado por um número sorteado de 1 a
+ * "maximo". Com "pausa" (ms) cada cliente espera entre uma requisição e
+ * outra, o que permite manter milhares de conexões abertas e pouco ativas.
+ * Usado pelo comparar-modos.sh para comparar os modos de execução da API;
+ * não é um benchmark JMH.
+ *
+ * Uso:
+ * java -cp target/benchmarks.jar com.biblioteca.benchmark.CargaHttp \
+ *     url=http://localhost:8080/api/livros/{n} clientes=400 duracao=60 aquecimento=15 maximo=100000 pausa=0
+ */
+public class CargaHttp {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        List<String> urls = new ArrayList<>();
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Parâmetro inválido (esperado chave=valor): " + arg);
+            }
+            String chave = arg.substring(0, separador);
+            String valor = arg.substring(separador + 1);
+            if (chave.equals("url")) {
+                urls.add(valor);
+            } else {
+                parametros.put(chave, valor);
+            }
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma url=...");
+        }
+
+        int clientes = Integer.parseInt(parametros.getOrDefault("clientes", "200"));
+        int duracao = Integer.parseInt(parametros.getOrDefault("duracao", "60"));
+        int aquecimento = Integer.parseInt(parametros.getOrDefault("aquecimento", "15"));
+        int maximo = Integer.parseInt(parametros.getOrDefault("maximo", "1000"));
+        long pausa = Long.parseLong(parametros.getOrDefault("pausa", "0"));
+        String rotulo = parametros.getOrDefault("rotulo", "carga");
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        executar(cliente, urls, clientes, aquecimento, maximo, pausa);
+        Resultado resultado = executar(cliente, urls, clientes, duracao, maximo, pausa);
+        resultado.imprimir(rotulo, clientes, duracao);
+    }
+
+    private static Resultado executar(HttpClient cliente, List<String> urls, int clientes,
+                                      int segundos, int maximo, long pausa) throws Exception {
+        long fim = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        List<Future<Resultado>> tarefas = new ArrayList<>(clientes);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int primeiraUrl = c % urls.size();
+                tarefas.add(executor.submit(() -> cliente(cliente, urls, primeiraUrl, fim, maximo, pausa)));
+            }
+        }
+
+        Resultado total = new Resultado();
+        for (Future<Resultado> tarefa : tarefas) {
+            total.juntar(tarefa.get());
+        }
+        return total;
+    }
+
+    private static Resultado cliente(HttpClient cliente, List<String> urls, int primeiraUrl,
+                                     long fim, int maximo, long pausa) {
+        Resultado resultado = new Resultado();
+        int indice = primeiraUrl;
+        while (System.nanoTime() < fim) {
+            String url = urls.get(indice).replace("{n}",
+                    String.valueOf(1 + ThreadLocalRandom.current().nextInt(maximo)));
+            indice = (indice + 1) % urls.size();
+
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                resultado.registrar(System.nanoTime() - inicio, resposta.statusCode() < 500);
+            } catch (Exception e) {
+                resultado.registrar(System.nanoTime() - inicio, false);
+            }
+            if (pausa > 0) {
+                try {
+                    Thread.sleep(pausa);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Latências de um ou mais clientes, em nanossegundos
+     */
+    private static class Resultado {
+
+        private long[] latencias = new long[1024];
+        private int quantidade;
+        private int erros;
+
+        void registrar(long nanos, boolean sucesso) {
+            if (quantidade == latencias.length) {
+                latencias = Arrays.copyOf(latencias, quantidade * 2);
+            }
+            latencias[quantidade++] = nanos;
+            if (!sucesso) {
+                erros++;
+            }
+        }
+
+        void juntar(Resultado outro) {
+            if (quantidade + outro.quantidade > latencias.length) {
+                latencias = Arrays.copyOf(latencias, quantidade + outro.quantidade);
+            }
+            System.arraycopy(outro.latencias, 0, latencias, quantidade, outro.quantidade);
+            quantidade += outro.quantidade;
+            erros += outro.erros;
+        }
+
+        void imprimir(String rotulo, int clientes, int segundos) {
+            long[] ordenadas = Arrays.copyOf(latencias, quantidade);
+            Arrays.sort(ordenadas);
+            System.out.printf("%-12s clientes=%d requisicoes=%d erros=%d vazao=%.1f req/s "
+                            + "p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms%n",
+                    rotulo, clientes, quantidade, erros, quantidade / (double) segundos,
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.95),
+                    percentil(ordenadas, 0.99), quantidade == 0 ? 0 : ordenadas[quantidade - 1] / 1e6);
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int posicao = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(posicao, 0)] / 1e6;
+        }
+    }
+}
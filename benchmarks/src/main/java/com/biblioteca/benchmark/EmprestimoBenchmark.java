@@ -0,0 +1,235 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.repositorio.EmprestimoRepositorio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /emprestimos/{id}: consulta do empréstimo e geração do JSON
+ *
+ * - mapaDuasConsultas: caminho anterior, queryForMap no join de 4 tabelas e
+ *   um segundo queryForMap na 'multa' (a exceção de "sem resultado" indicava
+ *   empréstimo sem multa)
+ * - joinUnico: EmprestimoRepositorio.buscarPorId, com o LEFT JOIN na 'multa'
+ *   e o resultado em Emprestimo
+ *
+ * O banco H2 é próprio (emprestimo, exemplar, livro, usuario e multa), menor
+ * que o do BaseDeDados. Um terço dos empréstimos tem multa; "comMulta" escolhe
+ * os IDs consultados. Para as alocações, rodar com -prof gc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EmprestimoBenchmark {
+
+    private static final int SORTEADOS = 4096;
+
+    // Consultas de GET /emprestimos/{id} antes do EmprestimoRepositorio
+    private static final String SQL_MAPA = """
+            SELECT
+                e.id_emprestimo,
+                u.nome as usuario,
+                l.titulo as livro,
+                e.data_emprestimo,
+                e.data_prevista_devolucao,
+                e.data_devolucao_real,
+                CASE
+                    WHEN e.data_devolucao_real IS NULL THEN 'ATIVO'
+                    ELSE 'DEVOLVIDO'
+                END as status
+            FROM emprestimo e
+            JOIN usuario u ON e.id_usuario = u.id_usuario
+            JOIN exemplar ex ON e.id_exemplar = ex.id_exemplar
+            JOIN livro l ON ex.id_livro = l.id_livro
+            WHERE e.id_emprestimo = ?
+            """;
+    private static final String SQL_MAPA_MULTA = "SELECT valor, data_pagamento FROM multa WHERE id_emprestimo = ?";
+
+    @Param({"false", "true"})
+    public boolean comMulta;
+
+    private Emprestimos base;
+    private final int[] ids = new int[SORTEADOS];
+    private int posicao;
+
+    /**
+     * Banco H2 com os empréstimos, compartilhado pelas threads do benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class Emprestimos {
+
+        @Param({"10000"})
+        public int quantidadeEmprestimos;
+
+        HikariDataSource dataSource;
+        JdbcTemplate jdbcTemplate;
+        EmprestimoRepositorio repositorio;
+        ObjectMapper objectMapper;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("benchmark-emprestimo");
+            config.setJdbcUrl("jdbc:h2:mem:emprestimo;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            config.setUsername("sa");
+            config.setMaximumPoolSize(8);
+            dataSource = new HikariDataSource(config);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            repositorio = new EmprestimoRepositorio(jdbcTemplate, jdbcTemplate);
+
+            // Mesmas configurações de data do application.properties
+            objectMapper = Jackson2ObjectMapperBuilder.json()
+                    .simpleDateFormat("yyyy-MM-dd")
+                    .timeZone(TimeZone.getTimeZone("America/Sao_Paulo"))
+                    .build();
+
+            criarTabelas();
+            carregar();
+        }
+
+        @TearDown(Level.Trial)
+        public void encerrar() {
+            jdbcTemplate.execute("DROP ALL OBJECTS");
+            dataSource.close();
+        }
+
+        private void criarTabelas() {
+            jdbcTemplate.execute("""
+                    CREATE TABLE usuario (
+                        id_usuario INT AUTO_INCREMENT PRIMARY KEY,
+                        nome VARCHAR(150) NOT NULL
+                    )""");
+            jdbcTemplate.execute("""
+                    CREATE TABLE livro (
+                        id_livro INT AUTO_INCREMENT PRIMARY KEY,
+                        titulo VARCHAR(255) NOT NULL
+                    )""");
+            jdbcTemplate.execute("""
+                    CREATE TABLE exemplar (
+                        id_exemplar INT AUTO_INCREMENT PRIMARY KEY,
+                        id_livro INT NOT NULL
+                    )""");
+            jdbcTemplate.execute("""
+                    CREATE TABLE emprestimo (
+                        id_emprestimo INT AUTO_INCREMENT PRIMARY KEY,
+                        id_usuario INT NOT NULL,
+                        id_exemplar INT NOT NULL,
+                        data_emprestimo DATE NOT NULL,
+                        data_prevista_devolucao DATE NOT NULL,
+                        data_devolucao_real DATE
+                    )""");
+            jdbcTemplate.execute("""
+                    CREATE TABLE multa (
+                        id_multa INT AUTO_INCREMENT PRIMARY KEY,
+                        id_emprestimo INT NOT NULL,
+                        valor DECIMAL(10, 2) NOT NULL,
+                        data_pagamento DATE
+                    )""");
+            jdbcTemplate.execute("CREATE INDEX idx_multa_emprestimo ON multa (id_emprestimo)");
+        }
+
+        // Um usuário e um exemplar para cada 5 empréstimos; multa no empréstimo i quando i % 3 == 0
+        private void carregar() {
+            Random random = new Random(BaseDeDados.SEMENTE);
+            int quantidade = quantidadeEmprestimos / 5;
+            List<Object[]> usuarios = new ArrayList<>(quantidade);
+            List<Object[]> livros = new ArrayList<>(quantidade);
+            List<Object[]> exemplares = new ArrayList<>(quantidade);
+            for (int i = 1; i <= quantidade; i++) {
+                usuarios.add(new Object[]{"Usuário " + i});
+                livros.add(new Object[]{BaseDeDados.titulo(random)});
+                exemplares.add(new Object[]{i});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO usuario (nome) VALUES (?)", usuarios);
+            jdbcTemplate.batchUpdate("INSERT INTO livro (titulo) VALUES (?)", livros);
+            jdbcTemplate.batchUpdate("INSERT INTO exemplar (id_livro) VALUES (?)", exemplares);
+
+            LocalDate inicio = LocalDate.of(2025, 1, 1);
+            List<Object[]> emprestimos = new ArrayList<>(quantidadeEmprestimos);
+            List<Object[]> multas = new ArrayList<>();
+            for (int i = 1; i <= quantidadeEmprestimos; i++) {
+                LocalDate data = inicio.plusDays(random.nextInt(300));
+                LocalDate devolucao = random.nextBoolean() ? data.plusDays(random.nextInt(30)) : null;
+                emprestimos.add(new Object[]{1 + random.nextInt(quantidade), 1 + random.nextInt(quantidade),
+                        Date.valueOf(data), Date.valueOf(data.plusDays(14)),
+                        devolucao == null ? null : Date.valueOf(devolucao)});
+                if (i % 3 == 0) {
+                    multas.add(new Object[]{i, BigDecimal.valueOf(200 + random.nextInt(2_000), 2),
+                            random.nextBoolean() ? Date.valueOf(data.plusDays(40)) : null});
+                }
+            }
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO emprestimo (id_usuario, id_exemplar, data_emprestimo,
+                        data_prevista_devolucao, data_devolucao_real)
+                    VALUES (?, ?, ?, ?, ?)""", emprestimos);
+            jdbcTemplate.batchUpdate("INSERT INTO multa (id_emprestimo, valor, data_pagamento) VALUES (?, ?, ?)",
+                    multas);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void preparar(Emprestimos base) {
+        this.base = base;
+        Random random = new Random(BaseDeDados.SEMENTE + 3);
+        for (int i = 0; i < SORTEADOS; i++) {
+            int id = 1 + random.nextInt(base.quantidadeEmprestimos);
+            while ((id % 3 == 0) != comMulta) {
+                id = 1 + random.nextInt(base.quantidadeEmprestimos);
+            }
+            ids[i] = id;
+        }
+    }
+
+    @Benchmark
+    public byte[] mapaDuasConsultas() throws IOException {
+        Integer id = proximo();
+        Map<String, Object> emprestimo = base.jdbcTemplate.queryForMap(SQL_MAPA, id);
+        try {
+            emprestimo.put("multa", base.jdbcTemplate.queryForMap(SQL_MAPA_MULTA, id));
+        } catch (Exception e) {
+            emprestimo.put("multa", null);
+        }
+        return base.objectMapper.writeValueAsBytes(emprestimo);
+    }
+
+    @Benchmark
+    public byte[] joinUnico() throws IOException {
+        return base.objectMapper.writeValueAsBytes(base.repositorio.buscarPorId(proximo()).orElseThrow());
+    }
+
+    private Integer proximo() {
+        int id = ids[posicao];
+        posicao = (posicao + 1) & (SORTEADOS - 1);
+        return id;
+    }
+}
@@ -0,0 +1,121 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.resposta.CampoJson;
+import com.biblioteca.resposta.RespostaLista;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialização das listagens em JSON, CBOR e Smile, com e sem gzip
+ *
+ * - livros/usuarios: resposta de GET /livros e GET /usuarios (página de "limite" itens)
+ * - catalogo: todos os livros da base em uma só resposta, como a carga
+ *   completa de um terminal de unidade
+ *
+ * O tempo é o de CPU para gerar os bytes (Jackson e, com gzip, o Deflater no
+ * nível padrão do Tomcat). O tamanho de cada resposta é impresso na preparação
+ * ("# tamanho ..."), já que o JMH só mede tempo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatoBenchmark {
+
+    private static final CampoJson LIVROS = CampoJson.de("livros");
+
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"50", "500"})
+    public int limite;
+
+    private ObjectMapper mapper;
+    private RespostaLista<Livro> respostaLivros;
+    private RespostaLista<Usuario> respostaUsuarios;
+    private RespostaLista<Livro> respostaCatalogo;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDados base) throws IOException {
+        mapper = criarMapper(formato);
+        respostaLivros = base.livroController.listarTodos(null, limite, false, false, null).getBody();
+        respostaUsuarios = base.usuarioController.listarTodos(null, limite, false, null).getBody();
+
+        List<Livro> todos = new ArrayList<>(base.quantidadeLivros);
+        base.livroRepositorio.percorrerTodos(todos::add);
+        respostaCatalogo = RespostaLista.comTotal(LIVROS, todos);
+
+        System.out.printf("# tamanho formato=%s gzip=%s limite=%d: livros=%d usuarios=%d catalogo(%d livros)=%d bytes%n",
+                formato, gzip, limite, serializar(respostaLivros).length, serializar(respostaUsuarios).length,
+                todos.size(), serializar(respostaCatalogo).length);
+    }
+
+    @Benchmark
+    public byte[] livros() throws IOException {
+        return serializar(respostaLivros);
+    }
+
+    @Benchmark
+    public byte[] usuarios() throws IOException {
+        return serializar(respostaUsuarios);
+    }
+
+    @Benchmark
+    public byte[] catalogo() throws IOException {
+        return serializar(respostaCatalogo);
+    }
+
+    private byte[] serializar(Object resposta) throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(resposta);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream saida = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(saida, resposta);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Mesmas configurações de data do application.properties, como no FormatosConfig
+    private static ObjectMapper criarMapper(String formato) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .simpleDateFormat("yyyy-MM-dd")
+                .timeZone(TimeZone.getTimeZone("America/Sao_Paulo"));
+        return switch (formato) {
+            case "json" -> builder.build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Formato desconhecido: " + formato);
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.monitoramento.ContagemSql;
+import com.biblioteca.monitoramento.JdbcTemplateMonitorado;
+import com.biblioteca.monitoramento.RastreioRepositorios;
+import com.biblioteca.repositorio.LivroRepositorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da instrumentação de SQL (timer biblioteca.sql e contagem por requisição)
+ *
+ * A mesma busca por ID, sem cache, é feita com um JdbcTemplate comum e com o
+ * JdbcTemplateMonitorado, com uma ContagemSql aberta como dentro de uma
+ * requisição. Os dois repositórios passam pelo proxy do RastreioRepositorios,
+ * como no Spring; a diferença entre os resultados é o custo por comando.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InstrumentacaoBenchmark {
+
+    private static final int SORTEADOS = 4096;
+
+    private LivroRepositorio semInstrumentacao;
+    private LivroRepositorio instrumentado;
+    private final int[] ids = new int[SORTEADOS];
+    private int posicao;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDados base) {
+        semInstrumentacao = RastreioRepositorios.rastrear(
+                base.livroRepositorioSemCache(new JdbcTemplate(base.dataSource)));
+        instrumentado = RastreioRepositorios.rastrear(
+                base.livroRepositorioSemCache(new JdbcTemplateMonitorado(base.dataSource, base.registry)));
+
+        Random random = new Random(BaseDeDados.SEMENTE);
+        for (int i = 0; i < SORTEADOS; i++) {
+            ids[i] = 1 + random.nextInt(base.quantidadeLivros);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void abrirContagem() {
+        ContagemSql.iniciar();
+    }
+
+    @TearDown(Level.Iteration)
+    public void fecharContagem() {
+        ContagemSql.encerrar();
+    }
+
+    private int proximo() {
+        posicao = (posicao + 1) & (SORTEADOS - 1);
+        return ids[posicao];
+    }
+
+    @Benchmark
+    public Optional<Livro> semInstrumentacao() {
+        return semInstrumentacao.buscarPorId(proximo());
+    }
+
+    @Benchmark
+    public Optional<Livro> instrumentado() {
+        return instrumentado.buscarPorId(proximo());
+    }
+}
@@ -0,0 +1,120 @@
+package com.biblioteca.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import com.biblioteca.model.Livro;
+import com.biblioteca.monitoramento.JdbcTemplateMonitorado;
+import com.biblioteca.monitoramento.RastreioRepositorios;
+import com.biblioteca.monitoramento.RegistroEventos;
+import com.biblioteca.repositorio.LivroRepositorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão da busca por ID sem cache com cada configuração de log de SQL
+ *
+ * - sincrono: como antes, org.springframework.jdbc em DEBUG escrevendo cada
+ *   comando na própria thread
+ * - amostrado: org.springframework.jdbc em INFO e RegistroEventos com as taxas
+ *   do application.properties (1% dos comandos, lentos sempre)
+ * - todos: RegistroEventos registrando todo comando, para medir a fila e os descartes
+ *
+ * O log vai para um arquivo temporário, no lugar do console, com o padrão do
+ * Spring Boot; quatro threads disputam o mesmo appender, como as requisições.
+ *
+ * Com um fork só, a variação entre execuções (escrita em disco, JIT) ficava
+ * maior que a diferença entre os modos; por isso cinco forks de dez iterações.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(5)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LogBenchmark {
+
+    @Param({"sincrono", "amostrado", "todos"})
+    public String modo;
+
+    private LivroRepositorio repositorio;
+    private RegistroEventos eventos;
+    private FileAppender<ILoggingEvent> arquivo;
+    private File arquivoLog;
+    private int quantidadeLivros;
+
+    @Setup
+    public void preparar(BaseDeDados base) throws IOException {
+        quantidadeLivros = base.quantidadeLivros;
+        arquivoLog = File.createTempFile("biblioteca-log", ".log");
+        configurarLog(modo.equals("sincrono") ? Level.DEBUG : Level.INFO);
+
+        JdbcTemplateMonitorado template;
+        if (modo.equals("sincrono")) {
+            template = new JdbcTemplateMonitorado(base.dataSource, base.registry);
+        } else {
+            double amostragem = modo.equals("todos") ? 1.0 : 0.01;
+            eventos = new RegistroEventos(BaseDeDados.criarRegistro(), 8192, amostragem, "", 200, 0.01, 1000);
+            template = new JdbcTemplateMonitorado(base.dataSource, base.registry, eventos);
+        }
+        repositorio = RastreioRepositorios.rastrear(base.livroRepositorioSemCache(template));
+    }
+
+    @TearDown
+    public void encerrar() throws InterruptedException {
+        if (eventos != null) {
+            eventos.close();
+            System.out.println("Eventos descartados: " + eventos.getDescartados());
+        }
+        System.out.println("Log gerado: " + arquivoLog.length() / 1024 + " KiB");
+        arquivo.stop();
+        arquivoLog.delete();
+    }
+
+    @Benchmark
+    public Optional<Livro> buscarPorId() {
+        return repositorio.buscarPorId(1 + ThreadLocalRandom.current().nextInt(quantidadeLivros));
+    }
+
+    private void configurarLog(Level nivelJdbc) {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        contexto.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(contexto);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        arquivo = new FileAppender<>();
+        arquivo.setContext(contexto);
+        arquivo.setFile(arquivoLog.getAbsolutePath());
+        arquivo.setEncoder(encoder);
+        arquivo.start();
+
+        ch.qos.logback.classic.Logger raiz = contexto.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        raiz.setLevel(Level.INFO);
+        raiz.addAppender(arquivo);
+        contexto.getLogger("org.springframework.jdbc").setLevel(nivelJdbc);
+    }
+}
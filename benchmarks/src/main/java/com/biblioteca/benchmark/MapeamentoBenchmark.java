@@ -0,0 +1,98 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.repositorio.LivroRepositorio;
+import com.biblioteca.repositorio.UsuarioRepositorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de converter linhas do banco em Livro e Usuario
+ *
+ * Usa os RowMappers dos próprios repositórios sobre um ResultSet já lido
+ * (rolável), então o tempo medido é só o do mapeamento, sem a consulta.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapeamentoBenchmark {
+
+    @Param({"500"})
+    public int linhas;
+
+    private Connection conexao;
+    private ResultSet livros;
+    private ResultSet usuarios;
+    private RowMapper<Livro> livroRowMapper;
+    private RowMapper<Usuario> usuarioRowMapper;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDados base) throws Exception {
+        livroRowMapper = rowMapper(base.livroRepositorio, LivroRepositorio.class, "livroRowMapper");
+        usuarioRowMapper = rowMapper(base.usuarioRepositorio, UsuarioRepositorio.class, "usuarioRowMapper");
+
+        conexao = base.dataSource.getConnection();
+        livros = consultar("SELECT * FROM livro ORDER BY id_livro LIMIT " + linhas);
+        usuarios = consultar("SELECT * FROM usuario ORDER BY id_usuario LIMIT " + linhas);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public void mapearLivros(Blackhole blackhole) throws SQLException {
+        mapear(livros, livroRowMapper, blackhole);
+    }
+
+    @Benchmark
+    public void mapearUsuarios(Blackhole blackhole) throws SQLException {
+        mapear(usuarios, usuarioRowMapper, blackhole);
+    }
+
+    private static <T> void mapear(ResultSet rs, RowMapper<T> rowMapper, Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        int linha = 0;
+        while (rs.next()) {
+            blackhole.consume(rowMapper.mapRow(rs, linha++));
+        }
+    }
+
+    private ResultSet consultar(String sql) throws SQLException {
+        PreparedStatement ps = conexao.prepareStatement(sql,
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        return ps.executeQuery();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RowMapper<T> rowMapper(Object repositorio, Class<?> classe, String campo) throws Exception {
+        Field field = classe.getDeclaredField(campo);
+        field.setAccessible(true);
+        return (RowMapper<T>) field.get(repositorio);
+    }
+}
@@ -0,0 +1,69 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.resposta.RespostaLista;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem e serialização em JSON das respostas de listagem
+ *
+ * - respostaLivros/respostaUsuarios: controller (consulta + RespostaLista) e Jackson,
+ *   como em GET /livros e GET /usuarios
+ * - jsonLivros/jsonUsuarios: só o Jackson, sobre uma resposta já montada
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializacaoBenchmark {
+
+    @Param({"50", "500"})
+    public int limite;
+
+    private BaseDeDados base;
+    private RespostaLista<Livro> respostaLivros;
+    private RespostaLista<Usuario> respostaUsuarios;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDados base) {
+        this.base = base;
+        respostaLivros = base.livroController.listarTodos(null, limite, false, false, null).getBody();
+        respostaUsuarios = base.usuarioController.listarTodos(null, limite, false, null).getBody();
+    }
+
+    @Benchmark
+    public byte[] respostaLivros() throws Exception {
+        return base.objectMapper.writeValueAsBytes(base.livroController.listarTodos(null, limite, false, false, null).getBody());
+    }
+
+    @Benchmark
+    public byte[] respostaUsuarios() throws Exception {
+        return base.objectMapper.writeValueAsBytes(base.usuarioController.listarTodos(null, limite, false, null).getBody());
+    }
+
+    @Benchmark
+    public byte[] jsonLivros() throws Exception {
+        return base.objectMapper.writeValueAsBytes(respostaLivros);
+    }
+
+    @Benchmark
+    public byte[] jsonUsuarios() throws Exception {
+        return base.objectMapper.writeValueAsBytes(respostaUsuarios);
+    }
+}
@@ -0,0 +1,166 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.repositorio.LivroRepositorio;
+import com.biblioteca.service.CursorPaginacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscas dos serviços sobre o banco H2 carregado pelo BaseDeDados
+ *
+ * Os IDs, ISBNs e termos de busca são sorteados uma vez, com semente fixa,
+ * e percorridos em sequência para que o sorteio não entre na medição.
+ * As buscas por ID acertam o cache depois do aquecimento; as versões
+ * "semCache" vão ao banco em toda chamada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ServicoBenchmark {
+
+    private static final int SORTEADOS = 4096;
+    private static final int PAGINAS_DE_IDS = 64;
+
+    private BaseDeDados base;
+    private LivroRepositorio livroRepositorioSemCache;
+
+    private final int[] idsLivro = new int[SORTEADOS];
+    private final String[] isbns = new String[SORTEADOS];
+    private final int[] idsUsuario = new int[SORTEADOS];
+    private final String[] consultas = new String[SORTEADOS];
+    private String cursorMeio;
+
+    // Páginas de 50 IDs de livro sorteados, para as contagens de autores
+    @SuppressWarnings("unchecked")
+    private final List<Integer>[] paginasDeIds = new List[PAGINAS_DE_IDS];
+    private int posicao;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDados base) {
+        this.base = base;
+        this.livroRepositorioSemCache = base.livroRepositorioSemCache(base.jdbcTemplate);
+
+        Random random = new Random(BaseDeDados.SEMENTE);
+        for (int i = 0; i < SORTEADOS; i++) {
+            idsLivro[i] = 1 + random.nextInt(base.quantidadeLivros);
+            isbns[i] = BaseDeDados.isbn(1 + random.nextInt(base.quantidadeLivros));
+            idsUsuario[i] = 1 + random.nextInt(base.quantidadeUsuarios);
+            consultas[i] = random.nextBoolean()
+                    ? BaseDeDados.palavra(random)
+                    : BaseDeDados.palavra(random) + " " + BaseDeDados.palavra(random).substring(0, 3);
+        }
+
+        for (int p = 0; p < PAGINAS_DE_IDS; p++) {
+            List<Integer> ids = new ArrayList<>(50);
+            for (int i = 0; i < 50; i++) {
+                ids.add(1 + random.nextInt(base.quantidadeLivros));
+            }
+            paginasDeIds[p] = ids;
+        }
+
+        // Cursor de uma página no meio da lista, para medir a paginação por chave fora do início
+        Livro meio = base.jdbcTemplate.queryForObject(
+                "SELECT id_livro, titulo FROM livro ORDER BY titulo, id_livro LIMIT 1 OFFSET ?",
+                (rs, linha) -> {
+                    Livro livro = new Livro();
+                    livro.setIdLivro(rs.getInt("id_livro"));
+                    livro.setTitulo(rs.getString("titulo"));
+                    return livro;
+                }, base.quantidadeLivros / 2);
+        cursorMeio = new CursorPaginacao(meio.getTitulo(), meio.getIdLivro()).codificar();
+    }
+
+    private int proximo() {
+        posicao = (posicao + 1) & (SORTEADOS - 1);
+        return posicao;
+    }
+
+    @Benchmark
+    public Livro livroPorId() {
+        return base.livroService.buscarPorId(idsLivro[proximo()]);
+    }
+
+    @Benchmark
+    public Optional<Livro> livroPorIdSemCache() {
+        return livroRepositorioSemCache.buscarPorId(idsLivro[proximo()]);
+    }
+
+    @Benchmark
+    public Optional<Livro> livroPorIsbn() {
+        return base.livroRepositorio.buscarPorIsbn(isbns[proximo()]);
+    }
+
+    @Benchmark
+    public Optional<Livro> livroPorIsbnSemCache() {
+        return livroRepositorioSemCache.buscarPorIsbn(isbns[proximo()]);
+    }
+
+    @Benchmark
+    public List<Livro> livrosPorTitulo() {
+        return base.livroService.buscarPorTitulo(consultas[proximo()], 50, false);
+    }
+
+    // Total de autores dos 50 livros de uma página: uma consulta agrupada (incluirAutores=true)
+    @Benchmark
+    public Map<Integer, Integer> totaisAutoresEmLote() {
+        return base.livroService.obterTotaisAutores(paginasDeIds[proximo() & (PAGINAS_DE_IDS - 1)]);
+    }
+
+    // O mesmo com uma chamada de fn_contar_autores_livro por livro
+    @Benchmark
+    public Map<Integer, Integer> totaisAutoresUmPorUm() {
+        Map<Integer, Integer> totais = new HashMap<>();
+        for (Integer id : paginasDeIds[proximo() & (PAGINAS_DE_IDS - 1)]) {
+            totais.put(id, base.livroService.obterTotalAutores(id));
+        }
+        return totais;
+    }
+
+    @Benchmark
+    public List<Livro> livrosPorTituloNoBanco() {
+        return base.livroRepositorio.buscarPorTitulo(consultas[proximo()], 50);
+    }
+
+    @Benchmark
+    public Pagina<Livro> primeiraPaginaLivros() {
+        return base.livroService.listarPagina(null, 50, false, false);
+    }
+
+    @Benchmark
+    public Pagina<Livro> paginaDoMeioLivros() {
+        return base.livroService.listarPagina(cursorMeio, 50, false, false);
+    }
+
+    @Benchmark
+    public Usuario usuarioPorId() {
+        return base.usuarioService.buscarPorId(idsUsuario[proximo()]);
+    }
+
+    @Benchmark
+    public Pagina<Usuario> primeiraPaginaUsuarios() {
+        return base.usuarioService.listarPagina(null, 50, false);
+    }
+}
@@ -0,0 +1,131 @@
+package com.biblioteca.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de inicialização da API: do início do processo até a primeira resposta 2xx
+ *
+ * Sobe a API (o comando informado depois de "--") várias vezes seguidas e,
+ * a cada rodada, consulta a URL a cada 10 ms até receber uma resposta de
+ * sucesso; o tempo medido inclui a subida da JVM, o contexto do Spring, os
+ * pools e a primeira requisição de verdade. As rodadas de aquecimento
+ * (cache de disco do sistema operacional) não entram no resultado.
+ * Usado pelo medir-inicializacao.sh; não é um benchmark JMH.
+ *
+ * Uso:
+ * java -cp target/benchmarks.jar com.biblioteca.benchmark.TempoInicializacao \
+ *     url=http://localhost:8080/api/livros/1 rodadas=10 aquecimento=1 rotulo=padrao \
+ *     -- java -jar ../target/biblioteca-api-1.0.0.jar
+ */
+public class TempoInicializacao {
+
+    private static final long INTERVALO_CONSULTA_MS = 10;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        List<String> comando = new ArrayList<>();
+        boolean lendoComando = false;
+        for (String arg : args) {
+            if (lendoComando) {
+                comando.add(arg);
+            } else if (arg.equals("--")) {
+                lendoComando = true;
+            } else {
+                int separador = arg.indexOf('=');
+                if (separador < 0) {
+                    throw new IllegalArgumentException("Parâmetro inválido (esperado chave=valor): " + arg);
+                }
+                parametros.put(arg.substring(0, separador), arg.substring(separador + 1));
+            }
+        }
+        if (comando.isEmpty()) {
+            throw new IllegalArgumentException("Informe o comando da API depois de \"--\"");
+        }
+
+        URI url = URI.create(parametros.getOrDefault("url", "http://localhost:8080/api/livros/1"));
+        int rodadas = Integer.parseInt(parametros.getOrDefault("rodadas", "10"));
+        int aquecimento = Integer.parseInt(parametros.getOrDefault("aquecimento", "1"));
+        int limite = Integer.parseInt(parametros.getOrDefault("limite", "120"));
+        String rotulo = parametros.getOrDefault("rotulo", "api");
+        File log = new File(parametros.getOrDefault("log", "target/api-inicializacao.log"));
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        for (int i = 0; i < aquecimento; i++) {
+            medir(cliente, url, comando, limite, log);
+        }
+        long[] tempos = new long[rodadas];
+        for (int i = 0; i < rodadas; i++) {
+            tempos[i] = medir(cliente, url, comando, limite, log);
+        }
+        imprimir(rotulo, tempos);
+    }
+
+    /**
+     * Sobe a API, espera a primeira resposta 2xx e encerra o processo
+     *
+     * @return milissegundos do início do processo até a resposta
+     */
+    private static long medir(HttpClient cliente, URI url, List<String> comando,
+                              int limite, File log) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        long inicio = System.nanoTime();
+        long fim = inicio + TimeUnit.SECONDS.toNanos(limite);
+        Process processo = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            while (true) {
+                try {
+                    HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                    if (resposta.statusCode() / 100 == 2) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                    }
+                } catch (IOException e) {
+                    // Porta ainda fechada: a API não terminou de subir
+                }
+                if (!processo.isAlive()) {
+                    throw new IllegalStateException("A API encerrou antes de responder; veja " + log);
+                }
+                if (System.nanoTime() > fim) {
+                    throw new IllegalStateException("A API não respondeu em " + limite + " s; veja " + log);
+                }
+                Thread.sleep(INTERVALO_CONSULTA_MS);
+            }
+        } finally {
+            processo.destroy();
+            if (!processo.waitFor(30, TimeUnit.SECONDS)) {
+                processo.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void imprimir(String rotulo, long[] tempos) {
+        long[] ordenados = tempos.clone();
+        Arrays.sort(ordenados);
+        int n = ordenados.length;
+        long mediana = n % 2 == 1 ? ordenados[n / 2] : (ordenados[n / 2 - 1] + ordenados[n / 2]) / 2;
+        System.out.printf("%-10s rodadas=%d min=%dms mediana=%dms media=%.0fms max=%dms%n",
+                rotulo, n, ordenados[0], mediana, Arrays.stream(ordenados).average().orElse(0),
+                ordenados[n - 1]);
+    }
+}
@@ -1,7 +1,10 @@
 package com.biblioteca;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principal da aplicação Biblioteca API
@@ -13,13 +16,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 1.0
  */
 @SpringBootApplication
+@EnableScheduling
 public class BibliotecaAplicacao {
 
+    private static final Logger log = LoggerFactory.getLogger(BibliotecaAplicacao.class);
+
     public static void main(String[] args) {
         SpringApplication.run(BibliotecaAplicacao.class, args);
-        System.out.println("===========================================");
-        System.out.println("Biblioteca API iniciada com sucesso!");
-        System.out.println("Acesse: http://localhost:8080/api");
-        System.out.println("===========================================");
+        log.info("Biblioteca API iniciada com sucesso! Acesse: http://localhost:8080/api");
     }
 }
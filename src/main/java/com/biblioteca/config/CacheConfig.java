@@ -0,0 +1,107 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.repositorio.CacheEntidade;
+import com.biblioteca.repositorio.ConsultaCompartilhada;
+import com.biblioteca.repositorio.VersoesEntidade;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Classe de configuração dos caches de entidades, das versões usadas nas ETags
+ * e das consultas compartilhadas (buscas iguais e simultâneas vão uma vez ao banco)
+ *
+ * Os tamanhos e o tempo de expiração vêm do application.properties.
+ * A expiração (e a validade das ETags) limita por quanto tempo uma
+ * alteração feita direto no banco (fora da API) pode ficar invisível.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Cache de livros por ID e por ISBN
+     */
+    @Bean
+    public CacheEntidade<Livro> cacheLivro(
+            @Value("${biblioteca.cache.livro.tamanho-maximo:10000}") long tamanhoMaximo,
+            @Value("${biblioteca.cache.livro.expiracao-segundos:300}") long expiracaoSegundos) {
+        return new CacheEntidade<>("livro", tamanhoMaximo, Duration.ofSeconds(expiracaoSegundos),
+                Livro::getIdLivro, Livro::getIsbn);
+    }
+
+    /**
+     * Cache de usuários por ID e por matrícula
+     */
+    @Bean
+    public CacheEntidade<Usuario> cacheUsuario(
+            @Value("${biblioteca.cache.usuario.tamanho-maximo:10000}") long tamanhoMaximo,
+            @Value("${biblioteca.cache.usuario.expiracao-segundos:300}") long expiracaoSegundos) {
+        return new CacheEntidade<>("usuario", tamanhoMaximo, Duration.ofSeconds(expiracaoSegundos),
+                Usuario::getIdUsuario, Usuario::getMatricula);
+    }
+
+    /**
+     * Versões de livros, para as ETags de GET /livros e GET /livros/{id}
+     */
+    @Bean
+    public VersoesEntidade<Livro> versoesLivro(
+            @Value("${biblioteca.etag.validade-segundos:300}") long validadeSegundos) {
+        return new VersoesEntidade<>("livro", Duration.ofSeconds(validadeSegundos));
+    }
+
+    /**
+     * Versões de usuários, para as ETags de GET /usuarios/{id}
+     */
+    @Bean
+    public VersoesEntidade<Usuario> versoesUsuario(
+            @Value("${biblioteca.etag.validade-segundos:300}") long validadeSegundos) {
+        return new VersoesEntidade<>("usuario", Duration.ofSeconds(validadeSegundos));
+    }
+
+    /**
+     * Busca de livro por ID no banco (faltas do cacheLivro)
+     */
+    @Bean
+    public ConsultaCompartilhada<Integer, Optional<Livro>> consultaLivroPorId(
+            @Value("${biblioteca.consulta-compartilhada.espera-maxima-ms:2000}") long esperaMaximaMs,
+            MeterRegistry registry) {
+        return new ConsultaCompartilhada<>("livro-por-id", Duration.ofMillis(esperaMaximaMs), registry);
+    }
+
+    /**
+     * Busca de livro por ISBN no banco (faltas do cacheLivro)
+     */
+    @Bean
+    public ConsultaCompartilhada<String, Optional<Livro>> consultaLivroPorIsbn(
+            @Value("${biblioteca.consulta-compartilhada.espera-maxima-ms:2000}") long esperaMaximaMs,
+            MeterRegistry registry) {
+        return new ConsultaCompartilhada<>("livro-por-isbn", Duration.ofMillis(esperaMaximaMs), registry);
+    }
+
+    /**
+     * Busca de livros por título no banco (enquanto o IndiceTitulos não está pronto)
+     */
+    @Bean
+    public ConsultaCompartilhada<String, List<Livro>> consultaLivroPorTitulo(
+            @Value("${biblioteca.consulta-compartilhada.espera-maxima-ms:2000}") long esperaMaximaMs,
+            MeterRegistry registry) {
+        return new ConsultaCompartilhada<>("livro-por-titulo", Duration.ofMillis(esperaMaximaMs), registry);
+    }
+
+    /**
+     * Busca de usuário por ID no banco (faltas do cacheUsuario)
+     */
+    @Bean
+    public ConsultaCompartilhada<Integer, Optional<Usuario>> consultaUsuarioPorId(
+            @Value("${biblioteca.consulta-compartilhada.espera-maxima-ms:2000}") long esperaMaximaMs,
+            MeterRegistry registry) {
+        return new ConsultaCompartilhada<>("usuario-por-id", Duration.ofMillis(esperaMaximaMs), registry);
+    }
+}
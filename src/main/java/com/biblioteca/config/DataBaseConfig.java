@@ -1,12 +1,29 @@
 package com.biblioteca.config;
 
+import com.biblioteca.monitoramento.JdbcTemplateMonitorado;
+import com.biblioteca.monitoramento.MetricasPool;
+import com.biblioteca.monitoramento.RegistroEventos;
+import com.biblioteca.repositorio.DataSourceRoteado;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Classe de configuração do banco de dados
@@ -14,11 +31,20 @@ import javax.sql.DataSource;
  * Configura a conexão com o MySQL usando as propriedades
  * definidas no application.properties
  *
+ * São criados dois pools de conexão (HikariCP):
+ * - interativo: consultas curtas dos endpoints (CRUD, buscas)
+ * - longo: operações demoradas, como a procedure prc_registrar_devolucao,
+ *   para que elas não ocupem as conexões das consultas interativas
+ * e, se configurada, um terceiro na réplica de leitura (replica), usado
+ * pelo DataSource principal nos métodos @SomenteLeitura dos serviços
+ *
  * @author Fernanda Alves, Ana Gusmão, Amanda Gabrielly
  */
 @Configuration
 public class DataBaseConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(DataBaseConfig.class);
+
     @Value("${spring.datasource.url}")
     private String url;
 
@@ -31,37 +57,239 @@ public class DataBaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
 
+    @Value("${biblioteca.pool.aquecer:true}")
+    private boolean aquecer;
+
+    // false: o pool sobe sem conectar (ex.: execução de treino do arquivo CDS no build)
+    @Value("${biblioteca.pool.exigir-banco:true}")
+    private boolean exigirBanco;
+
+    private final Environment environment;
+
+    public DataBaseConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     /**
-     * Cria o DataSource (fonte de dados) para conexão com o banco
+     * Cria o pool de conexões interativo no banco primário
      *
-     * @return DataSource configurado
+     * @param metricasPool coletor de estatísticas dos pools
+     * @return pool configurado e aquecido
      */
-    @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSourceInterativo(MetricasPool metricasPool) {
+        HikariDataSource dataSource = criarPool("interativo", url, username, password, 10, 2, metricasPool);
 
-        System.out.println("   Conexão com banco de dados configurada:");
-        System.out.println("   URL: " + url);
-        System.out.println("   Usuário: " + username);
+        log.info("Conexão com banco de dados configurada: URL {}, usuário {}", url, username);
 
         return dataSource;
     }
 
+    /**
+     * DataSource principal: pool interativo, com as leituras enviadas à réplica quando houver
+     *
+     * Com biblioteca.replica.url preenchida é criado o pool "replica"
+     * (propriedades biblioteca.pool.replica.*) e os métodos @SomenteLeitura dos
+     * serviços passam a ler dele; sem ela tudo vai ao primário. O pool de
+     * operações longas não é roteado: procedures e leituras de carga (views,
+     * índices em memória) ficam sempre no primário.
+     *
+     * @param dataSourceInterativo pool interativo do primário
+     * @param metricasPool coletor de estatísticas dos pools
+     * @param registry registro de métricas
+     * @return DataSource roteado
+     */
+    @Bean(destroyMethod = "close")
+    @Primary
+    public DataSourceRoteado dataSource(@Qualifier("dataSourceInterativo") HikariDataSource dataSourceInterativo,
+                                        MetricasPool metricasPool, MeterRegistry registry) {
+        String urlReplica = environment.getProperty("biblioteca.replica.url", "");
+        HikariDataSource replica = null;
+        if (!urlReplica.isBlank()) {
+            replica = criarPool("replica", urlReplica,
+                    environment.getProperty("biblioteca.replica.username", username),
+                    environment.getProperty("biblioteca.replica.password", password),
+                    10, 2, metricasPool);
+            log.info("Réplica de leitura configurada: URL {}", urlReplica);
+        }
+        return new DataSourceRoteado(dataSourceInterativo, replica,
+                propriedade("biblioteca.replica.atraso-maximo-ms", 1_000L),
+                environment.getProperty("biblioteca.replica.consulta-atraso", "SHOW REPLICA STATUS"),
+                registry);
+    }
+
+    /**
+     * Cria o pool de conexões para operações longas (procedures)
+     *
+     * @param metricasPool coletor de estatísticas dos pools
+     * @return pool configurado e aquecido
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSourceLongo(MetricasPool metricasPool) {
+        return criarPool("longo", url, username, password, 4, 1, metricasPool);
+    }
+
     /**
      * Cria o JdbcTemplate para executar queries SQL
      *
      * JdbcTemplate facilita a execução de comandos SQL
-     * e o mapeamento de resultados para objetos Java
+     * e o mapeamento de resultados para objetos Java.
+     * A versão monitorada mede cada comando (métrica biblioteca.sql)
+     * e conta os comandos de cada requisição.
      *
      * @param dataSource fonte de dados configurada
+     * @param registry registro de métricas
+     * @param eventos log amostrado dos comandos
      * @return JdbcTemplate pronto para uso
      */
     @Bean
-    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, MeterRegistry registry, RegistroEventos eventos) {
+        return new JdbcTemplateMonitorado(dataSource, registry, eventos);
+    }
+
+    /**
+     * Cria o JdbcTemplate ligado ao pool de operações longas
+     *
+     * @param dataSourceLongo pool de operações longas
+     * @param registry registro de métricas
+     * @param eventos log amostrado dos comandos
+     * @return JdbcTemplate pronto para uso
+     */
+    @Bean
+    public JdbcTemplate jdbcTemplateLongo(@Qualifier("dataSourceLongo") DataSource dataSourceLongo,
+                                          MeterRegistry registry, RegistroEventos eventos) {
+        return new JdbcTemplateMonitorado(dataSourceLongo, registry, eventos);
+    }
+
+    /**
+     * Gerenciador de transações do pool interativo (usado por padrão)
+     *
+     * @param dataSource pool interativo
+     * @return gerenciador de transações
+     */
+    @Bean
+    @Primary
+    public DataSourceTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * Gerenciador de transações do pool de operações longas
+     *
+     * @param dataSourceLongo pool de operações longas
+     * @return gerenciador de transações
+     */
+    @Bean
+    public DataSourceTransactionManager transactionManagerLongo(@Qualifier("dataSourceLongo") DataSource dataSourceLongo) {
+        return new DataSourceTransactionManager(dataSourceLongo);
+    }
+
+    /**
+     * TransactionTemplate para transações no pool interativo (usado por padrão)
+     *
+     * @param transactionManager gerenciador de transações do pool interativo
+     * @return template de transação
+     */
+    @Bean
+    @Primary
+    public TransactionTemplate transactionTemplate(DataSourceTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * TransactionTemplate para transações no pool de operações longas
+     *
+     * @param transactionManagerLongo gerenciador de transações do pool longo
+     * @return template de transação
+     */
+    @Bean
+    public TransactionTemplate transactionTemplateLongo(
+            @Qualifier("transactionManagerLongo") DataSourceTransactionManager transactionManagerLongo) {
+        return new TransactionTemplate(transactionManagerLongo);
+    }
+
+    /**
+     * Monta um pool HikariCP a partir das propriedades biblioteca.pool.{nome}.*
+     *
+     * @param nome nome do pool (interativo, longo, replica)
+     * @param jdbcUrl URL do banco
+     * @param usuario usuário do banco
+     * @param senha senha do banco
+     * @param tamanhoMaximoPadrao tamanho máximo usado se não configurado
+     * @param minimoOciosoPadrao mínimo de conexões ociosas se não configurado
+     * @param metricasPool coletor de estatísticas
+     * @return pool iniciado
+     */
+    private HikariDataSource criarPool(String nome, String jdbcUrl, String usuario, String senha,
+                                       int tamanhoMaximoPadrao, int minimoOciosoPadrao, MetricasPool metricasPool) {
+        String prefixo = "biblioteca.pool." + nome + ".";
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("biblioteca-" + nome);
+        config.setDriverClassName(driverClassName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(usuario);
+        config.setPassword(senha);
+
+        config.setMaximumPoolSize(propriedade(prefixo + "tamanho-maximo", tamanhoMaximoPadrao));
+        config.setMinimumIdle(propriedade(prefixo + "minimo-ocioso", minimoOciosoPadrao));
+        config.setMaxLifetime(propriedade(prefixo + "tempo-maximo-vida-ms", 1_800_000L));
+        config.setIdleTimeout(propriedade(prefixo + "tempo-ocioso-ms", 600_000L));
+        config.setConnectionTimeout(propriedade(prefixo + "tempo-limite-conexao-ms", 5_000L));
+        config.setLeakDetectionThreshold(propriedade(prefixo + "deteccao-vazamento-ms", 0L));
+        config.setMetricsTrackerFactory(metricasPool);
+        config.setInitializationFailTimeout(exigirBanco ? 1 : -1);
+
+        // Cache de prepared statements no driver do MySQL
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+
+        // Batches de INSERT viram um único INSERT com várias linhas
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        if (aquecer) {
+            aquecerPool(dataSource);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Abre de uma vez o mínimo de conexões ociosas do pool
+     *
+     * Assim a primeira leva de requisições não paga o custo
+     * de handshake e autenticação com o MySQL.
+     *
+     * @param dataSource pool a ser aquecido
+     */
+    private void aquecerPool(HikariDataSource dataSource) {
+        List<Connection> conexoes = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataSource.getMinimumIdle(); i++) {
+                conexoes.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao aquecer o pool " + dataSource.getPoolName()
+                    + ": " + e.getMessage(), e);
+        } finally {
+            for (Connection conexao : conexoes) {
+                try {
+                    conexao.close();
+                } catch (SQLException e) {
+                    // Conexão devolvida ao pool; nada a fazer
+                }
+            }
+        }
+        log.info("Pool {} aquecido com {} conexões", dataSource.getPoolName(), conexoes.size());
+    }
+
+    private int propriedade(String chave, int padrao) {
+        return environment.getProperty(chave, Integer.class, padrao);
+    }
+
+    private long propriedade(String chave, long padrao) {
+        return environment.getProperty(chave, Long.class, padrao);
     }
 }
@@ -0,0 +1,72 @@
+package com.biblioteca.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Classe de configuração dos formatos binários das respostas (CBOR e Smile)
+ *
+ * O formato é escolhido pelo cabeçalho Accept (ou pelo parâmetro "formato",
+ * ver spring.mvc.contentnegotiation.*):
+ * - application/cbor
+ * - application/x-jackson-smile
+ * - application/json (padrão)
+ *
+ * Os mappers binários partem do mesmo Jackson2ObjectMapperBuilder do JSON
+ * (spring.jackson.*), então as respostas têm os mesmos campos e datas em
+ * qualquer formato. A compressão gzip fica a cargo do servidor (server.compression.*).
+ * As respostas dos controllers levam "Vary: Accept", para que um cache no
+ * caminho (proxy da unidade) não entregue JSON a quem pediu CBOR.
+ *
+ * Vale para os controllers do Spring MVC. No perfil "reativo" os livros e
+ * usuários saem em JSON ou Smile (codecs padrão do WebFlux): o WebFlux não
+ * tem codec CBOR padrão, e um codec extra passaria a responder às
+ * requisições sem formato definido.
+ */
+@Configuration
+public class FormatosConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Conversor CBOR dos controllers (Spring MVC)
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(mapper(builder, new CBORFactory()));
+    }
+
+    /**
+     * Conversor Smile dos controllers (Spring MVC)
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(mapper(builder, new SmileFactory()));
+    }
+
+    private static ObjectMapper mapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory).build();
+    }
+}
@@ -1,12 +1,20 @@
 package com.biblioteca.controller;
 
+import com.biblioteca.model.Devolucao;
+import com.biblioteca.model.Emprestimo;
+import com.biblioteca.model.EmprestimoAtivo;
+import com.biblioteca.model.ResultadoDevolucao;
+import com.biblioteca.resposta.CampoJson;
+import com.biblioteca.resposta.RespostaLista;
+import com.biblioteca.resposta.RespostaLote;
+import com.biblioteca.resposta.RespostaSucesso;
 import com.biblioteca.service.EmprestimoService;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,7 +22,8 @@ import java.util.Map;
  *
  * Endpoints disponíveis:
  * - POST /emprestimos/{id}/devolver  - Registrar devolução (chama procedure)
- * - GET  /emprestimos/ativos         - Listar empréstimos ativos
+ * - POST /emprestimos/devolucoes/lote - Registrar várias devoluções
+ * - GET  /emprestimos/ativos?idUsuario=&idLivro=&atrasados=false - Listar empréstimos ativos
  * - GET  /emprestimos/{id}           - Buscar empréstimo por ID
  */
 @RestController
@@ -22,6 +31,10 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class EmprestimoController {
 
+    private static final CampoJson EMPRESTIMO = CampoJson.de("emprestimo");
+    private static final CampoJson EMPRESTIMOS = CampoJson.de("emprestimos");
+    private static final CampoJson REGISTRADAS = CampoJson.de("registradas");
+
     private final EmprestimoService emprestimoService;
 
     public EmprestimoController(EmprestimoService emprestimoService) {
@@ -38,49 +51,57 @@ public class EmprestimoController {
      * Se não informar data, usa a data atual
      */
     @PostMapping("/{id}/devolver")
-    public ResponseEntity<Map<String, Object>> registrarDevolucao(
+    public ResponseEntity<ResultadoDevolucao> registrarDevolucao(
             @PathVariable Integer id,
             @RequestBody(required = false) Map<String, String> body) {
-        try {
-            LocalDate dataDevolucao = null;
+        LocalDate dataDevolucao = null;
 
-            // Se informou data no body, converte
-            if (body != null && body.containsKey("dataDevolucao")) {
+        // Se informou data no body, converte
+        if (body != null && body.containsKey("dataDevolucao")) {
+            try {
                 dataDevolucao = LocalDate.parse(body.get("dataDevolucao"));
+            } catch (DateTimeParseException | NullPointerException e) {
+                throw new IllegalArgumentException("Data de devolução inválida: " + body.get("dataDevolucao"));
             }
+        }
 
-            // Chama a procedure através do service
-            Map<String, Object> resultado = emprestimoService.registrarDevolucao(id, dataDevolucao);
-
-            return ResponseEntity.ok(resultado);
+        // Chama a procedure através do service
+        return ResponseEntity.ok(emprestimoService.registrarDevolucao(id, dataDevolucao));
+    }
 
-        } catch (RuntimeException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erro);
-        }
+    /**
+     * Registra várias devoluções de uma vez (caixa de devolução automática)
+     *
+     * POST /api/emprestimos/devolucoes/lote
+     * Body: [ { "idEmprestimo": 1, "dataDevolucao": "2025-11-29" }, { "idEmprestimo": 2 } ]
+     *
+     * Retorna o resultado de cada empréstimo na ordem enviada; uma
+     * devolução com erro não impede as demais.
+     */
+    @PostMapping("/devolucoes/lote")
+    public ResponseEntity<RespostaLote<ResultadoDevolucao>> registrarDevolucoesEmLote(
+            @RequestBody List<Devolucao> devolucoes) {
+        List<ResultadoDevolucao> resultados = emprestimoService.registrarDevolucoesEmLote(devolucoes);
+        long registradas = resultados.stream().filter(ResultadoDevolucao::isSucesso).count();
+        return ResponseEntity.ok(new RespostaLote<>(
+                registradas + " de " + resultados.size() + " devoluções registradas",
+                REGISTRADAS, registradas, resultados));
     }
 
     /**
-     * Lista todos os empréstimos ativos
-     * Usa a view vw_emprestimos_ativos
+     * Lista os empréstimos ativos (linhas da view vw_emprestimos_ativos, mantidas em memória)
      *
      * GET /api/emprestimos/ativos
+     * GET /api/emprestimos/ativos?idUsuario=3
+     * GET /api/emprestimos/ativos?idLivro=12&atrasados=true
      */
     @GetMapping("/ativos")
-    public ResponseEntity<Map<String, Object>> listarEmprestimosAtivos() {
-        try {
-            Map<String, Object> resultado = emprestimoService.listarEmprestimosAtivos();
-            resultado.put("sucesso", true);
-            return ResponseEntity.ok(resultado);
-
-        } catch (Exception e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", "Erro ao buscar empréstimos ativos: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(erro);
-        }
+    public ResponseEntity<RespostaLista<EmprestimoAtivo>> listarEmprestimosAtivos(
+            @RequestParam(required = false) Integer idUsuario,
+            @RequestParam(required = false) Integer idLivro,
+            @RequestParam(defaultValue = "false") boolean atrasados) {
+        List<EmprestimoAtivo> emprestimos = emprestimoService.listarEmprestimosAtivos(idUsuario, idLivro, atrasados);
+        return ResponseEntity.ok(RespostaLista.comTotal(EMPRESTIMOS, emprestimos));
     }
 
     /**
@@ -89,21 +110,7 @@ public class EmprestimoController {
      * GET /api/emprestimos/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> buscarEmprestimo(@PathVariable Integer id) {
-        try {
-            Map<String, Object> emprestimo = emprestimoService.buscarEmprestimo(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("emprestimo", emprestimo);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (Exception e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", "Empréstimo não encontrado: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
-        }
+    public ResponseEntity<RespostaSucesso<Emprestimo>> buscarEmprestimo(@PathVariable Integer id) {
+        return ResponseEntity.ok(RespostaSucesso.de(EMPRESTIMO, emprestimoService.buscarEmprestimo(id)));
     }
 }
@@ -0,0 +1,76 @@
+package com.biblioteca.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Escreve listas grandes como NDJSON (um objeto JSON por linha)
+ * direto no corpo da resposta, sem montar a lista em memória
+ *
+ * Cada item é serializado assim que chega do banco. Se o cliente
+ * lê devagar, a escrita bloqueia e a leitura do ResultSet espera,
+ * então o uso de memória não depende do tamanho da tabela.
+ */
+@Component
+public class ExportadorNdjson {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ObjectMapper objectMapper;
+
+    public ExportadorNdjson(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Monta a resposta de exportação
+     *
+     * @param tipo classe dos itens exportados
+     * @param nomeArquivo nome sugerido para download
+     * @param fonte função que percorre os itens entregando cada um ao consumidor
+     * @param <T> tipo dos itens
+     * @return resposta com corpo em streaming
+     */
+    public <T> ResponseEntity<StreamingResponseBody> exportar(Class<T> tipo, String nomeArquivo,
+                                                              Consumer<Consumer<T>> fonte) {
+        ObjectWriter writer = objectMapper.writerFor(tipo)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody corpo = saida -> {
+            JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida);
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gerador.setRootValueSeparator(null);
+
+            try {
+                fonte.accept(item -> {
+                    try {
+                        writer.writeValue(gerador, item);
+                        gerador.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Cliente desconectou ou a escrita falhou
+                throw e.getCause();
+            }
+            gerador.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nomeArquivo + "\"")
+                .body(corpo);
+    }
+}
@@ -1,37 +1,65 @@
 package com.biblioteca.controller;
 
 import com.biblioteca.model.Livro;
+import com.biblioteca.model.ResultadoLoteLivro;
+import com.biblioteca.resposta.CampoJson;
+import com.biblioteca.resposta.RespostaLista;
+import com.biblioteca.resposta.RespostaLote;
+import com.biblioteca.resposta.RespostaSucesso;
+import com.biblioteca.resposta.RespostaTotal;
 import com.biblioteca.service.LivroService;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Controller REST para gerenciar Livros
  *
  * Endpoints disponíveis:
  * - POST   /livros          - Criar livro
- * - GET    /livros          - Listar todos
+ * - POST   /livros/lote     - Criar vários livros de uma vez
+ * - GET    /livros?cursor=...&limite=50&incluirTotal=false&incluirAutores=false - Listar (paginado)
+ * - GET    /livros?ids=1,2,3 - Buscar vários por ID (até 200)
+ * - GET    /livros/export   - Exportar todos em NDJSON (streaming)
  * - GET    /livros/{id}     - Buscar por ID
- * - GET    /livros/buscar?titulo=...  - Buscar por título
+ * - GET    /livros/buscar?titulo=...&incluirAutores=false - Buscar por título
  * - PUT    /livros/{id}     - Atualizar
  * - DELETE /livros/{id}     - Deletar
  * - GET    /livros/{id}/autores  - Total de autores do livro
+ *
+ * GET /livros e GET /livros/{id} devolvem ETag; se o cliente reenviar a
+ * ETag atual em If-None-Match, a resposta é 304 sem corpo e sem consulta ao banco.
+ * Com incluirAutores=true não há ETag: os autores não entram nas versões da ETag.
+ *
+ * Erros dos services viram { "sucesso": false, "mensagem": ... } no TratamentoErros.
  */
 @RestController
 @RequestMapping("/livros")
 @CrossOrigin(origins = "*")
+@Profile("!reativo")
 public class LivroController {
 
+    // Nomes dos campos das respostas, também usados pelo LivroControllerReativo
+    static final CampoJson LIVRO = CampoJson.de("livro");
+    static final CampoJson LIVROS = CampoJson.de("livros");
+    static final CampoJson INSERIDOS = CampoJson.de("inseridos");
+    static final CampoJson ID_LIVRO = CampoJson.de("idLivro");
+    static final CampoJson TOTAL_AUTORES = CampoJson.de("totalAutores");
+
+    static final RespostaSucesso<Void> DELETADO = RespostaSucesso.mensagem("Livro deletado com sucesso!");
+
     private final LivroService livroService;
+    private final ExportadorNdjson exportadorNdjson;
 
-    public LivroController(LivroService livroService) {
+    public LivroController(LivroService livroService, ExportadorNdjson exportadorNdjson) {
         this.livroService = livroService;
+        this.exportadorNdjson = exportadorNdjson;
     }
 
     /**
@@ -41,40 +69,89 @@ public class LivroController {
      * Body: { "isbn": "978-1234567890", "titulo": "Banco de Dados", "anoPublicacao": 2023 }
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> criar(@Valid @RequestBody Livro livro) {
-        try {
-            Livro livroCriado = livroService.criar(livro);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("mensagem", "Livro criado com sucesso!");
-            resposta.put("livro", livroCriado);
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erro);
-        }
+    public ResponseEntity<RespostaSucesso<Livro>> criar(@Valid @RequestBody Livro livro) {
+        Livro livroCriado = livroService.criar(livro);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(RespostaSucesso.de("Livro criado com sucesso!", LIVRO, livroCriado));
     }
 
     /**
-     * READ - Listar todos os livros
+     * CREATE - Criar vários livros de uma vez (cadastro em lote)
+     *
+     * POST /api/livros/lote
+     * Body: [ { "isbn": "978-1234567890", "titulo": "Banco de Dados", "anoPublicacao": 2023 }, ... ]
+     *
+     * Retorna o resultado de cada livro na ordem enviada; livros inválidos
+     * ou com ISBN já cadastrado não impedem o cadastro dos demais.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<RespostaLote<ResultadoLoteLivro>> criarEmLote(@RequestBody List<Livro> livros) {
+        return ResponseEntity.ok(respostaLote(livroService.criarEmLote(livros)));
+    }
+
+    static RespostaLote<ResultadoLoteLivro> respostaLote(List<ResultadoLoteLivro> resultados) {
+        long inseridos = resultados.stream().filter(ResultadoLoteLivro::isSucesso).count();
+        return new RespostaLote<>(inseridos + " de " + resultados.size() + " livros criados",
+                INSERIDOS, inseridos, resultados);
+    }
+
+    /**
+     * READ - Listar livros, paginado por cursor e ordenado por título
      *
      * GET /api/livros
+     * GET /api/livros?limite=100&cursor={proximoCursor da página anterior}
+     * GET /api/livros?incluirTotal=true  (conta o total de livros)
+     * GET /api/livros?incluirAutores=true  (total de autores de cada livro, uma consulta extra)
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> listarTodos() {
-        List<Livro> livros = livroService.listarTodos();
+    public ResponseEntity<RespostaLista<Livro>> listarTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirTotal,
+            @RequestParam(defaultValue = "false") boolean incluirAutores,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (incluirAutores) {
+            return ResponseEntity.ok(RespostaLista.pagina(LIVROS,
+                    livroService.listarPagina(cursor, limite, incluirTotal, true)));
+        }
+        // A ETag é lida antes do banco: com If-None-Match correspondente, responde 304 sem consultar
+        String etag = livroService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return RespostaCondicional.naoModificada(etag);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(RespostaLista.pagina(LIVROS, livroService.listarPagina(cursor, limite, incluirTotal, false)));
+    }
 
-        Map<String, Object> resposta = new HashMap<>();
-        resposta.put("sucesso", true);
-        resposta.put("total", livros.size());
-        resposta.put("livros", livros);
+    /**
+     * READ - Buscar vários livros por ID de uma vez
+     *
+     * GET /api/livros?ids=12,7,31  (até 200 IDs)
+     *
+     * Os livros vêm na ordem dos IDs enviados; os IDs sem livro vêm em "naoEncontrados".
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<RespostaLista<Livro>> buscarPorIds(
+            @RequestParam List<Integer> ids,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = livroService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return RespostaCondicional.naoModificada(etag);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(RespostaLista.porIds(LIVROS, livroService.buscarPorIds(ids)));
+    }
 
-        return ResponseEntity.ok(resposta);
+    /**
+     * READ - Exportar todos os livros em NDJSON (um objeto JSON por linha)
+     *
+     * A resposta é escrita em streaming, à medida que as linhas são lidas do banco
+     *
+     * GET /api/livros/export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return exportadorNdjson.exportar(Livro.class, "livros.ndjson", livroService::exportar);
     }
 
     /**
@@ -83,39 +160,30 @@ public class LivroController {
      * GET /api/livros/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> buscarPorId(@PathVariable Integer id) {
-        try {
-            Livro livro = livroService.buscarPorId(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("livro", livro);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
+    public ResponseEntity<RespostaSucesso<Livro>> buscarPorId(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = livroService.etag(id);
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return RespostaCondicional.naoModificada(etag);
         }
+        return ResponseEntity.ok().eTag(etag).body(RespostaSucesso.de(LIVRO, livroService.buscarPorId(id)));
     }
 
     /**
-     * READ - Buscar livros por título (busca parcial)
+     * READ - Buscar livros por título (busca parcial, ordenada por relevância)
      *
      * GET /api/livros/buscar?titulo=banco
+     * GET /api/livros/buscar?titulo=programacao&limite=20
+     * GET /api/livros/buscar?titulo=banco&incluirAutores=true  (total de autores de cada livro)
      */
     @GetMapping("/buscar")
-    public ResponseEntity<Map<String, Object>> buscarPorTitulo(@RequestParam String titulo) {
-        List<Livro> livros = livroService.buscarPorTitulo(titulo);
-
-        Map<String, Object> resposta = new HashMap<>();
-        resposta.put("sucesso", true);
-        resposta.put("total", livros.size());
-        resposta.put("livros", livros);
-
-        return ResponseEntity.ok(resposta);
+    public ResponseEntity<RespostaLista<Livro>> buscarPorTitulo(
+            @RequestParam String titulo,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirAutores) {
+        return ResponseEntity.ok(RespostaLista.comTotal(LIVROS,
+                livroService.buscarPorTitulo(titulo, limite, incluirAutores)));
     }
 
     /**
@@ -125,25 +193,11 @@ public class LivroController {
      * Body: { "isbn": "978-1234567890", "titulo": "Banco de Dados Atualizado", ... }
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> atualizar(
+    public ResponseEntity<RespostaSucesso<Livro>> atualizar(
             @PathVariable Integer id,
             @Valid @RequestBody Livro livro) {
-        try {
-            Livro livroAtualizado = livroService.atualizar(id, livro);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("mensagem", "Livro atualizado com sucesso!");
-            resposta.put("livro", livroAtualizado);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erro);
-        }
+        Livro livroAtualizado = livroService.atualizar(id, livro);
+        return ResponseEntity.ok(RespostaSucesso.de("Livro atualizado com sucesso!", LIVRO, livroAtualizado));
     }
 
     /**
@@ -152,22 +206,9 @@ public class LivroController {
      * DELETE /api/livros/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletar(@PathVariable Integer id) {
-        try {
-            livroService.deletar(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("mensagem", "Livro deletado com sucesso!");
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
-        }
+    public ResponseEntity<RespostaSucesso<Void>> deletar(@PathVariable Integer id) {
+        livroService.deletar(id);
+        return ResponseEntity.ok(DELETADO);
     }
 
     /**
@@ -177,22 +218,8 @@ public class LivroController {
      * GET /api/livros/{id}/autores
      */
     @GetMapping("/{id}/autores")
-    public ResponseEntity<Map<String, Object>> obterTotalAutores(@PathVariable Integer id) {
-        try {
-            Integer total = livroService.obterTotalAutores(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("idLivro", id);
-            resposta.put("totalAutores", total);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
-        }
+    public ResponseEntity<RespostaTotal> obterTotalAutores(@PathVariable Integer id) {
+        Integer total = livroService.obterTotalAutores(id);
+        return ResponseEntity.ok(new RespostaTotal(ID_LIVRO, id, TOTAL_AUTORES, total));
     }
 }
@@ -0,0 +1,144 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.monitoramento.FiltroAdmissao;
+import com.biblioteca.monitoramento.MetricasPool;
+import com.biblioteca.repositorio.CacheEntidade;
+import com.biblioteca.repositorio.ConsultaCompartilhada;
+import com.biblioteca.repositorio.DataSourceRoteado;
+import com.biblioteca.resposta.CampoJson;
+import com.biblioteca.resposta.RespostaSucesso;
+import com.biblioteca.service.IndiceTitulos;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller REST com estatísticas internas da API
+ *
+ * Endpoints disponíveis:
+ * - GET /monitoramento/pool  - Estatísticas dos pools de conexão
+ * - GET /monitoramento/cache - Acertos, faltas e remoções dos caches de entidades
+ * - GET /monitoramento/consultas - Buscas executadas no banco e compartilhadas entre chamadas simultâneas
+ * - GET /monitoramento/indice - Tamanho do índice de títulos
+ * - GET /monitoramento/replica - Atraso da réplica de leitura e conexões por destino
+ * - GET /monitoramento/admissao - Limite, uso e rejeições de cada classe de endpoint
+ */
+@RestController
+@RequestMapping("/monitoramento")
+@CrossOrigin(origins = "*")
+public class MonitoramentoController {
+
+    private static final CampoJson POOLS = CampoJson.de("pools");
+    private static final CampoJson CACHES = CampoJson.de("caches");
+    private static final CampoJson CONSULTAS = CampoJson.de("consultas");
+    private static final CampoJson INDICE = CampoJson.de("indice");
+    private static final CampoJson REPLICA = CampoJson.de("replica");
+    private static final CampoJson ADMISSAO = CampoJson.de("admissao");
+
+    private final MetricasPool metricasPool;
+    private final List<HikariDataSource> pools;
+    private final List<CacheEntidade<?>> caches;
+    private final List<ConsultaCompartilhada<?, ?>> consultas;
+    private final IndiceTitulos indiceTitulos;
+    private final DataSourceRoteado dataSourceRoteado;
+    private final FiltroAdmissao filtroAdmissao;
+
+    public MonitoramentoController(MetricasPool metricasPool, List<HikariDataSource> pools,
+                                   List<CacheEntidade<?>> caches, List<ConsultaCompartilhada<?, ?>> consultas,
+                                   IndiceTitulos indiceTitulos,
+                                   DataSourceRoteado dataSourceRoteado, FiltroAdmissao filtroAdmissao) {
+        this.metricasPool = metricasPool;
+        this.pools = pools;
+        this.caches = caches;
+        this.consultas = consultas;
+        this.indiceTitulos = indiceTitulos;
+        this.dataSourceRoteado = dataSourceRoteado;
+        this.filtroAdmissao = filtroAdmissao;
+    }
+
+    /**
+     * Estatísticas dos pools de conexão
+     * (ativas, ociosas, aguardando e histograma de tempo de aquisição)
+     *
+     * GET /api/monitoramento/pool
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<RespostaSucesso<List<Map<String, Object>>>> estatisticasPool() {
+        List<Map<String, Object>> estatisticas = new ArrayList<>();
+        for (HikariDataSource pool : pools) {
+            estatisticas.add(metricasPool.estatisticas(pool));
+        }
+        if (dataSourceRoteado.getReplica() != null) {
+            estatisticas.add(metricasPool.estatisticas(dataSourceRoteado.getReplica()));
+        }
+
+        return ResponseEntity.ok(RespostaSucesso.de(POOLS, estatisticas));
+    }
+
+    /**
+     * Estatísticas dos caches de livros e usuários
+     *
+     * GET /api/monitoramento/cache
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<RespostaSucesso<List<Map<String, Object>>>> estatisticasCache() {
+        List<Map<String, Object>> estatisticas = new ArrayList<>();
+        for (CacheEntidade<?> cache : caches) {
+            estatisticas.add(cache.estatisticas());
+        }
+
+        return ResponseEntity.ok(RespostaSucesso.de(CACHES, estatisticas));
+    }
+
+    /**
+     * Buscas de livros e usuários executadas no banco e compartilhadas
+     * com outra chamada igual em andamento
+     *
+     * GET /api/monitoramento/consultas
+     */
+    @GetMapping("/consultas")
+    public ResponseEntity<RespostaSucesso<List<Map<String, Object>>>> estatisticasConsultas() {
+        List<Map<String, Object>> estatisticas = new ArrayList<>();
+        for (ConsultaCompartilhada<?, ?> consulta : consultas) {
+            estatisticas.add(consulta.estatisticas());
+        }
+
+        return ResponseEntity.ok(RespostaSucesso.de(CONSULTAS, estatisticas));
+    }
+
+    /**
+     * Tamanho do índice de títulos usado em GET /livros/buscar
+     *
+     * GET /api/monitoramento/indice
+     */
+    @GetMapping("/indice")
+    public ResponseEntity<RespostaSucesso<Map<String, Object>>> estatisticasIndice() {
+        return ResponseEntity.ok(RespostaSucesso.de(INDICE, indiceTitulos.estatisticas()));
+    }
+
+    /**
+     * Situação da réplica de leitura: atraso medido, tolerância e
+     * conexões do pool interativo por destino e motivo
+     *
+     * GET /api/monitoramento/replica
+     */
+    @GetMapping("/replica")
+    public ResponseEntity<RespostaSucesso<Map<String, Object>>> estatisticasReplica() {
+        return ResponseEntity.ok(RespostaSucesso.de(REPLICA, dataSourceRoteado.estatisticas()));
+    }
+
+    /**
+     * Controle de admissão: limite atual, requisições em andamento,
+     * latência de referência e rejeições de cada classe de endpoint
+     *
+     * GET /api/monitoramento/admissao
+     */
+    @GetMapping("/admissao")
+    public ResponseEntity<RespostaSucesso<List<Map<String, Object>>>> estatisticasAdmissao() {
+        return ResponseEntity.ok(RespostaSucesso.de(ADMISSAO, filtroAdmissao.estatisticas()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.biblioteca.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * GET condicional (If-None-Match) dos controllers de livros e usuários
+ *
+ * O controller obtém a ETag do service, que não consulta o banco, e só
+ * busca os dados se a cópia do cliente estiver desatualizada; caso
+ * contrário responde 304 sem corpo.
+ */
+final class RespostaCondicional {
+
+    private RespostaCondicional() {
+    }
+
+    /**
+     * Verifica se alguma ETag enviada em If-None-Match corresponde à atual
+     *
+     * Usa a comparação fraca (ignora o prefixo W/), como pede o HTTP
+     * para If-None-Match.
+     *
+     * @param ifNoneMatch valor do cabeçalho If-None-Match (null se ausente)
+     * @param etag ETag atual (W/"...")
+     * @return true se o cliente já tem a versão atual
+     */
+    static boolean naoModificado(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String atual = semPrefixoFraco(etag);
+        for (String recebida : ifNoneMatch.split(",")) {
+            recebida = semPrefixoFraco(recebida.trim());
+            if (recebida.equals("*") || recebida.equals(atual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resposta 304 Not Modified, sem corpo
+     *
+     * @param etag ETag atual, repetida no cabeçalho da resposta
+     * @return resposta vazia
+     */
+    static <T> ResponseEntity<T> naoModificada(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static String semPrefixoFraco(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
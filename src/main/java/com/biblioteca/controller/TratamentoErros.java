@@ -0,0 +1,37 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.resposta.RespostaErro;
+import com.biblioteca.service.NaoEncontradoException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Converte as exceções dos controllers em respostas { "sucesso": false, "mensagem": "..." }
+ *
+ * Vale para os controllers MVC e para os reativos (erro no Mono):
+ * - NaoEncontradoException: 404
+ * - IllegalArgumentException (regra de negócio, dado inválido): 400
+ * - DataAccessException (falha no banco): 500
+ */
+@RestControllerAdvice
+public class TratamentoErros {
+
+    @ExceptionHandler(NaoEncontradoException.class)
+    public ResponseEntity<RespostaErro> naoEncontrado(NaoEncontradoException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new RespostaErro(e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<RespostaErro> requisicaoInvalida(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new RespostaErro(e.getMessage()));
+    }
+
+    @ExceptionHandler(DataAccessException.class)
+    public ResponseEntity<RespostaErro> erroBanco(DataAccessException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new RespostaErro("Erro ao acessar o banco de dados: " + e.getMostSpecificCause().getMessage()));
+    }
+}
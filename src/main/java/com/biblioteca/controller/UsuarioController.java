@@ -1,36 +1,57 @@
 package com.biblioteca.controller;
 
 import com.biblioteca.model.Usuario;
+import com.biblioteca.resposta.CampoJson;
+import com.biblioteca.resposta.RespostaLista;
+import com.biblioteca.resposta.RespostaSucesso;
+import com.biblioteca.resposta.RespostaTotal;
 import com.biblioteca.service.UsuarioService;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Controller REST para gerenciar Usuários
  *
  * Endpoints disponíveis:
  * - POST   /usuarios          - Criar usuário
- * - GET    /usuarios          - Listar todos
+ * - GET    /usuarios?cursor=...&limite=50&incluirTotal=false - Listar (paginado)
+ * - GET    /usuarios?ids=1,2,3 - Buscar vários por ID (até 200)
+ * - GET    /usuarios/export   - Exportar todos em NDJSON (streaming)
  * - GET    /usuarios/{id}     - Buscar por ID
  * - PUT    /usuarios/{id}     - Atualizar
  * - DELETE /usuarios/{id}     - Deletar
  * - GET    /usuarios/{id}/emprestimos-ativos - Total de empréstimos ativos
+ *
+ * GET /usuarios e GET /usuarios/{id} devolvem ETag; se o cliente reenviar a
+ * ETag atual em If-None-Match, a resposta é 304 sem corpo e sem consulta ao banco.
  */
 @RestController
 @RequestMapping("/usuarios")
 @CrossOrigin(origins = "*") // Permite requisições de qualquer origem (para desenvolvimento)
+@Profile("!reativo")
 public class UsuarioController {
 
+    // Nomes dos campos das respostas, também usados pelo UsuarioControllerReativo
+    static final CampoJson USUARIO = CampoJson.de("usuario");
+    static final CampoJson USUARIOS = CampoJson.de("usuarios");
+    static final CampoJson ID_USUARIO = CampoJson.de("idUsuario");
+    static final CampoJson TOTAL_EMPRESTIMOS_ATIVOS = CampoJson.de("totalEmprestimosAtivos");
+
+    static final RespostaSucesso<Void> DELETADO = RespostaSucesso.mensagem("Usuário deletado com sucesso!");
+
     private final UsuarioService usuarioService;
+    private final ExportadorNdjson exportadorNdjson;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, ExportadorNdjson exportadorNdjson) {
         this.usuarioService = usuarioService;
+        this.exportadorNdjson = exportadorNdjson;
     }
 
     /**
@@ -40,40 +61,63 @@ public class UsuarioController {
      * Body: { "matricula": "2023001", "nome": "João Silva", ... }
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> criar(@Valid @RequestBody Usuario usuario) {
-        try {
-            Usuario usuarioCriado = usuarioService.criar(usuario);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("mensagem", "Usuário criado com sucesso!");
-            resposta.put("usuario", usuarioCriado);
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erro);
-        }
+    public ResponseEntity<RespostaSucesso<Usuario>> criar(@Valid @RequestBody Usuario usuario) {
+        Usuario usuarioCriado = usuarioService.criar(usuario);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(RespostaSucesso.de("Usuário criado com sucesso!", USUARIO, usuarioCriado));
     }
 
     /**
-     * READ - Listar todos os usuários
+     * READ - Listar usuários, paginado por cursor e ordenado por nome
      *
      * GET /api/usuarios
+     * GET /api/usuarios?limite=100&cursor={proximoCursor da página anterior}
+     * GET /api/usuarios?incluirTotal=true  (conta o total de usuários)
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> listarTodos() {
-        List<Usuario> usuarios = usuarioService.listarTodos();
+    public ResponseEntity<RespostaLista<Usuario>> listarTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // A ETag é lida antes do banco: com If-None-Match correspondente, responde 304 sem consultar
+        String etag = usuarioService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return RespostaCondicional.naoModificada(etag);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(RespostaLista.pagina(USUARIOS, usuarioService.listarPagina(cursor, limite, incluirTotal)));
+    }
 
-        Map<String, Object> resposta = new HashMap<>();
-        resposta.put("sucesso", true);
-        resposta.put("total", usuarios.size());
-        resposta.put("usuarios", usuarios);
+    /**
+     * READ - Buscar vários usuários por ID de uma vez
+     *
+     * GET /api/usuarios?ids=12,7,31  (até 200 IDs)
+     *
+     * Os usuários vêm na ordem dos IDs enviados; os IDs sem usuário vêm em "naoEncontrados".
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<RespostaLista<Usuario>> buscarPorIds(
+            @RequestParam List<Integer> ids,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = usuarioService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return RespostaCondicional.naoModificada(etag);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(RespostaLista.porIds(USUARIOS, usuarioService.buscarPorIds(ids)));
+    }
 
-        return ResponseEntity.ok(resposta);
+    /**
+     * READ - Exportar todos os usuários em NDJSON (um objeto JSON por linha)
+     *
+     * A resposta é escrita em streaming, à medida que as linhas são lidas do banco
+     *
+     * GET /api/usuarios/export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return exportadorNdjson.exportar(Usuario.class, "usuarios.ndjson", usuarioService::exportar);
     }
 
     /**
@@ -82,22 +126,14 @@ public class UsuarioController {
      * GET /api/usuarios/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> buscarPorId(@PathVariable Integer id) {
-        try {
-            Usuario usuario = usuarioService.buscarPorId(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("usuario", usuario);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
+    public ResponseEntity<RespostaSucesso<Usuario>> buscarPorId(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = usuarioService.etag(id);
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return RespostaCondicional.naoModificada(etag);
         }
+        return ResponseEntity.ok().eTag(etag).body(RespostaSucesso.de(USUARIO, usuarioService.buscarPorId(id)));
     }
 
     /**
@@ -107,25 +143,11 @@ public class UsuarioController {
      * Body: { "matricula": "2023001", "nome": "João Silva Atualizado", ... }
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> atualizar(
+    public ResponseEntity<RespostaSucesso<Usuario>> atualizar(
             @PathVariable Integer id,
             @Valid @RequestBody Usuario usuario) {
-        try {
-            Usuario usuarioAtualizado = usuarioService.atualizar(id, usuario);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("mensagem", "Usuário atualizado com sucesso!");
-            resposta.put("usuario", usuarioAtualizado);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erro);
-        }
+        Usuario usuarioAtualizado = usuarioService.atualizar(id, usuario);
+        return ResponseEntity.ok(RespostaSucesso.de("Usuário atualizado com sucesso!", USUARIO, usuarioAtualizado));
     }
 
     /**
@@ -134,22 +156,9 @@ public class UsuarioController {
      * DELETE /api/usuarios/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletar(@PathVariable Integer id) {
-        try {
-            usuarioService.deletar(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("mensagem", "Usuário deletado com sucesso!");
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
-        }
+    public ResponseEntity<RespostaSucesso<Void>> deletar(@PathVariable Integer id) {
+        usuarioService.deletar(id);
+        return ResponseEntity.ok(DELETADO);
     }
 
     /**
@@ -159,22 +168,8 @@ public class UsuarioController {
      * GET /api/usuarios/{id}/emprestimos-ativos
      */
     @GetMapping("/{id}/emprestimos-ativos")
-    public ResponseEntity<Map<String, Object>> obterEmprestimosAtivos(@PathVariable Integer id) {
-        try {
-            Integer total = usuarioService.obterTotalEmprestimosAtivos(id);
-
-            Map<String, Object> resposta = new HashMap<>();
-            resposta.put("sucesso", true);
-            resposta.put("idUsuario", id);
-            resposta.put("totalEmprestimosAtivos", total);
-
-            return ResponseEntity.ok(resposta);
-
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> erro = new HashMap<>();
-            erro.put("sucesso", false);
-            erro.put("mensagem", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
-        }
+    public ResponseEntity<RespostaTotal> obterEmprestimosAtivos(@PathVariable Integer id) {
+        Integer total = usuarioService.obterTotalEmprestimosAtivos(id);
+        return ResponseEntity.ok(new RespostaTotal(ID_USUARIO, id, TOTAL_EMPRESTIMOS_ATIVOS, total));
     }
 }
@@ -0,0 +1,53 @@
+package com.biblioteca.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Classe que representa um item do pedido de devolução em lote
+ *
+ * Usada em POST /emprestimos/devolucoes/lote
+ */
+public class Devolucao {
+
+    @NotNull(message = "ID do empréstimo é obrigatório")
+    private Integer idEmprestimo;
+
+    // Opcional: se não informada, usa a data atual
+    private LocalDate dataDevolucao;
+
+    // Construtores
+    public Devolucao() {
+    }
+
+    public Devolucao(Integer idEmprestimo, LocalDate dataDevolucao) {
+        this.idEmprestimo = idEmprestimo;
+        this.dataDevolucao = dataDevolucao;
+    }
+
+    // Getters e Setters
+    public Integer getIdEmprestimo() {
+        return idEmprestimo;
+    }
+
+    public void setIdEmprestimo(Integer idEmprestimo) {
+        this.idEmprestimo = idEmprestimo;
+    }
+
+    public LocalDate getDataDevolucao() {
+        return dataDevolucao;
+    }
+
+    public void setDataDevolucao(LocalDate dataDevolucao) {
+        this.dataDevolucao = dataDevolucao;
+    }
+
+    @Override
+    public String toString() {
+        return "Devolucao{" +
+                "idEmprestimo=" + idEmprestimo +
+                ", dataDevolucao=" + dataDevolucao +
+                '}';
+    }
+}
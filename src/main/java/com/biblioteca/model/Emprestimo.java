@@ -0,0 +1,125 @@
+package com.biblioteca.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe que representa um Empréstimo com seus dados de exibição
+ *
+ * Reúne dados das tabelas 'emprestimo', 'usuario', 'exemplar', 'livro'
+ * e 'multa'. Os nomes no JSON seguem as colunas do banco, como na
+ * resposta original de GET /emprestimos/{id}.
+ */
+public class Emprestimo {
+
+    @JsonProperty("id_emprestimo")
+    private Integer idEmprestimo;
+
+    // Nome do usuário
+    private String usuario;
+
+    // Título do livro
+    private String livro;
+
+    @JsonProperty("data_emprestimo")
+    private LocalDate dataEmprestimo;
+
+    @JsonProperty("data_prevista_devolucao")
+    private LocalDate dataPrevistaDevolucao;
+
+    @JsonProperty("data_devolucao_real")
+    private LocalDate dataDevolucaoReal;
+
+    private List<Multa> multas = new ArrayList<>();
+
+    // Construtores
+    public Emprestimo() {
+    }
+
+    // Getters e Setters
+    public Integer getIdEmprestimo() {
+        return idEmprestimo;
+    }
+
+    public void setIdEmprestimo(Integer idEmprestimo) {
+        this.idEmprestimo = idEmprestimo;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getLivro() {
+        return livro;
+    }
+
+    public void setLivro(String livro) {
+        this.livro = livro;
+    }
+
+    public LocalDate getDataEmprestimo() {
+        return dataEmprestimo;
+    }
+
+    public void setDataEmprestimo(LocalDate dataEmprestimo) {
+        this.dataEmprestimo = dataEmprestimo;
+    }
+
+    public LocalDate getDataPrevistaDevolucao() {
+        return dataPrevistaDevolucao;
+    }
+
+    public void setDataPrevistaDevolucao(LocalDate dataPrevistaDevolucao) {
+        this.dataPrevistaDevolucao = dataPrevistaDevolucao;
+    }
+
+    public LocalDate getDataDevolucaoReal() {
+        return dataDevolucaoReal;
+    }
+
+    public void setDataDevolucaoReal(LocalDate dataDevolucaoReal) {
+        this.dataDevolucaoReal = dataDevolucaoReal;
+    }
+
+    /**
+     * @return ATIVO enquanto o livro não foi devolvido, DEVOLVIDO depois
+     */
+    public String getStatus() {
+        return dataDevolucaoReal == null ? "ATIVO" : "DEVOLVIDO";
+    }
+
+    public List<Multa> getMultas() {
+        return multas;
+    }
+
+    public void setMultas(List<Multa> multas) {
+        this.multas = multas;
+    }
+
+    /**
+     * @return multa mais recente do empréstimo, ou null se não houve multa
+     */
+    public Multa getMulta() {
+        return multas.isEmpty() ? null : multas.get(multas.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Emprestimo{" +
+                "idEmprestimo=" + idEmprestimo +
+                ", usuario='" + usuario + '\'' +
+                ", livro='" + livro + '\'' +
+                ", dataEmprestimo=" + dataEmprestimo +
+                ", dataPrevistaDevolucao=" + dataPrevistaDevolucao +
+                ", dataDevolucaoReal=" + dataDevolucaoReal +
+                ", multas=" + multas +
+                '}';
+    }
+}
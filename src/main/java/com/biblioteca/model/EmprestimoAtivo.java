@@ -0,0 +1,59 @@
+package com.biblioteca.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Classe que representa um empréstimo ativo (linha da view vw_emprestimos_ativos)
+ *
+ * Guarda a linha da view, que é o que a API devolve em GET /emprestimos/ativos,
+ * e as chaves usadas para filtrar: usuário, livro e data prevista de devolução.
+ */
+public class EmprestimoAtivo {
+
+    private final Integer idEmprestimo;
+    private final Integer idUsuario;
+    private final Integer idLivro;
+    private final LocalDate dataPrevistaDevolucao;
+    private final Map<String, Object> linha;
+
+    public EmprestimoAtivo(Integer idEmprestimo, Integer idUsuario, Integer idLivro,
+                           LocalDate dataPrevistaDevolucao, Map<String, Object> linha) {
+        this.idEmprestimo = idEmprestimo;
+        this.idUsuario = idUsuario;
+        this.idLivro = idLivro;
+        this.dataPrevistaDevolucao = dataPrevistaDevolucao;
+        this.linha = linha;
+    }
+
+    public Integer getIdEmprestimo() {
+        return idEmprestimo;
+    }
+
+    public Integer getIdUsuario() {
+        return idUsuario;
+    }
+
+    public Integer getIdLivro() {
+        return idLivro;
+    }
+
+    public LocalDate getDataPrevistaDevolucao() {
+        return dataPrevistaDevolucao;
+    }
+
+    /**
+     * @return true se a data prevista de devolução já passou
+     */
+    public boolean isAtrasado(LocalDate hoje) {
+        return dataPrevistaDevolucao != null && dataPrevistaDevolucao.isBefore(hoje);
+    }
+
+    // No JSON, o empréstimo é a própria linha da view (colunas → valores)
+    @JsonValue
+    public Map<String, Object> getLinha() {
+        return linha;
+    }
+}
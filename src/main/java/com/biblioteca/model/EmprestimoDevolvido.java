@@ -0,0 +1,37 @@
+package com.biblioteca.model;
+
+/**
+ * Classe que representa um empréstimo logo após a devolução
+ *
+ * Lida depois da procedure de devolução: o usuário, para descontar do seu
+ * total de empréstimos ativos, e a multa gerada, para a resposta.
+ */
+public class EmprestimoDevolvido {
+
+    private final Integer idEmprestimo;
+    private final Integer idUsuario;
+    private final Double valorMulta;
+
+    /**
+     * @param idEmprestimo ID do empréstimo
+     * @param idUsuario usuário do empréstimo
+     * @param valorMulta multa mais recente do empréstimo, ou null se não houve
+     */
+    public EmprestimoDevolvido(Integer idEmprestimo, Integer idUsuario, Double valorMulta) {
+        this.idEmprestimo = idEmprestimo;
+        this.idUsuario = idUsuario;
+        this.valorMulta = valorMulta;
+    }
+
+    public Integer getIdEmprestimo() {
+        return idEmprestimo;
+    }
+
+    public Integer getIdUsuario() {
+        return idUsuario;
+    }
+
+    public Double getValorMulta() {
+        return valorMulta;
+    }
+}
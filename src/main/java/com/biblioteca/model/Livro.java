@@ -1,5 +1,7 @@
 package com.biblioteca.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -26,6 +28,11 @@ public class Livro {
     @Positive(message = "Ano de publicação deve ser positivo")
     private Integer anoPublicacao;
 
+    // Preenchido só nas listagens com incluirAutores=true; fora delas não aparece no JSON
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer totalAutores;
+
     // Construtores
     public Livro() {
     }
@@ -69,6 +76,30 @@ public class Livro {
         this.anoPublicacao = anoPublicacao;
     }
 
+    public Integer getTotalAutores() {
+        return totalAutores;
+    }
+
+    public void setTotalAutores(Integer totalAutores) {
+        this.totalAutores = totalAutores;
+    }
+
+    /**
+     * Cópia do livro com o total de autores preenchido
+     *
+     * Os livros do cache e do IndiceTitulos são compartilhados entre
+     * requisições, por isso o total vai em uma cópia.
+     *
+     * @param totalAutores quantidade de autores do livro
+     * @return novo livro com os mesmos dados e o total de autores
+     */
+    public Livro comTotalAutores(Integer totalAutores) {
+        Livro copia = new Livro(isbn, titulo, anoPublicacao);
+        copia.setIdLivro(idLivro);
+        copia.setTotalAutores(totalAutores);
+        return copia;
+    }
+
     @Override
     public String toString() {
         return "Livro{" +
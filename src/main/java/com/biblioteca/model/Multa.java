@@ -0,0 +1,66 @@
+package com.biblioteca.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Classe que representa uma Multa por atraso na devolução
+ *
+ * Mapeia a tabela 'multa' do banco de dados
+ */
+public class Multa {
+
+    @JsonProperty("id_multa")
+    private Integer idMulta;
+
+    private BigDecimal valor;
+
+    @JsonProperty("data_pagamento")
+    private LocalDate dataPagamento;
+
+    // Construtores
+    public Multa() {
+    }
+
+    public Multa(Integer idMulta, BigDecimal valor, LocalDate dataPagamento) {
+        this.idMulta = idMulta;
+        this.valor = valor;
+        this.dataPagamento = dataPagamento;
+    }
+
+    // Getters e Setters
+    public Integer getIdMulta() {
+        return idMulta;
+    }
+
+    public void setIdMulta(Integer idMulta) {
+        this.idMulta = idMulta;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public LocalDate getDataPagamento() {
+        return dataPagamento;
+    }
+
+    public void setDataPagamento(LocalDate dataPagamento) {
+        this.dataPagamento = dataPagamento;
+    }
+
+    @Override
+    public String toString() {
+        return "Multa{" +
+                "idMulta=" + idMulta +
+                ", valor=" + valor +
+                ", dataPagamento=" + dataPagamento +
+                '}';
+    }
+}
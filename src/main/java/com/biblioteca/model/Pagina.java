@@ -0,0 +1,40 @@
+package com.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Classe que representa uma página de resultados (paginação por cursor)
+ *
+ * O cursor da próxima página é opaco para o cliente: basta reenviá-lo
+ * no parâmetro "cursor" para continuar a listagem. Quando não há mais
+ * resultados, proximoCursor é null.
+ *
+ * @param <T> tipo dos itens da página
+ */
+public class Pagina<T> {
+
+    private final List<T> itens;
+    private final String proximoCursor;
+    private final Long total;
+
+    public Pagina(List<T> itens, String proximoCursor, Long total) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.total = total;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    /**
+     * @return total de registros da tabela, ou null se não foi solicitado
+     */
+    public Long getTotal() {
+        return total;
+    }
+}
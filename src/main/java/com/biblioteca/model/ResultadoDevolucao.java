@@ -0,0 +1,81 @@
+package com.biblioteca.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * Classe que representa o resultado da devolução de um empréstimo
+ *
+ * Usada em POST /emprestimos/{id}/devolver e em cada item de
+ * POST /emprestimos/devolucoes/lote. Numa falha só vêm sucesso,
+ * idEmprestimo e mensagem.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoDevolucao {
+
+    private final boolean sucesso;
+    private final String mensagem;
+    private final Integer idEmprestimo;
+    private final LocalDate dataDevolucao;
+    private final Boolean multaGerada;
+    private final Double valorMulta;
+    private final String mensagemMulta;
+
+    private ResultadoDevolucao(boolean sucesso, String mensagem, Integer idEmprestimo, LocalDate dataDevolucao,
+                               Boolean multaGerada, Double valorMulta, String mensagemMulta) {
+        this.sucesso = sucesso;
+        this.mensagem = mensagem;
+        this.idEmprestimo = idEmprestimo;
+        this.dataDevolucao = dataDevolucao;
+        this.multaGerada = multaGerada;
+        this.valorMulta = valorMulta;
+        this.mensagemMulta = mensagemMulta;
+    }
+
+    /**
+     * @param idEmprestimo empréstimo devolvido
+     * @param dataDevolucao data registrada
+     * @param valorMulta multa gerada pela procedure, ou null se não houve atraso
+     */
+    public static ResultadoDevolucao registrada(Integer idEmprestimo, LocalDate dataDevolucao, Double valorMulta) {
+        if (valorMulta != null) {
+            return new ResultadoDevolucao(true, "Devolução registrada com sucesso!", idEmprestimo, dataDevolucao,
+                    true, valorMulta, "Multa de R$ " + String.format("%.2f", valorMulta) + " gerada por atraso.");
+        }
+        return new ResultadoDevolucao(true, "Devolução registrada com sucesso!", idEmprestimo, dataDevolucao,
+                false, 0.0, "Devolução sem atraso. Nenhuma multa gerada.");
+    }
+
+    public static ResultadoDevolucao falha(Integer idEmprestimo, String mensagem) {
+        return new ResultadoDevolucao(false, mensagem, idEmprestimo, null, null, null, null);
+    }
+
+    public boolean isSucesso() {
+        return sucesso;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public Integer getIdEmprestimo() {
+        return idEmprestimo;
+    }
+
+    public LocalDate getDataDevolucao() {
+        return dataDevolucao;
+    }
+
+    public Boolean getMultaGerada() {
+        return multaGerada;
+    }
+
+    public Double getValorMulta() {
+        return valorMulta;
+    }
+
+    public String getMensagemMulta() {
+        return mensagemMulta;
+    }
+}
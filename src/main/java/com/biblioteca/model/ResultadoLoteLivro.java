@@ -0,0 +1,52 @@
+package com.biblioteca.model;
+
+/**
+ * Classe que representa o resultado de um item no cadastro em lote de livros
+ *
+ * Cada livro enviado em POST /livros/lote recebe um resultado,
+ * na mesma posição em que veio na requisição.
+ */
+public class ResultadoLoteLivro {
+
+    private final int posicao;
+    private final String isbn;
+    private final boolean sucesso;
+    private final Integer idLivro;
+    private final String mensagem;
+
+    private ResultadoLoteLivro(int posicao, String isbn, boolean sucesso, Integer idLivro, String mensagem) {
+        this.posicao = posicao;
+        this.isbn = isbn;
+        this.sucesso = sucesso;
+        this.idLivro = idLivro;
+        this.mensagem = mensagem;
+    }
+
+    public static ResultadoLoteLivro inserido(int posicao, Livro livro) {
+        return new ResultadoLoteLivro(posicao, livro.getIsbn(), true, livro.getIdLivro(), "Livro criado com sucesso!");
+    }
+
+    public static ResultadoLoteLivro falha(int posicao, String isbn, String mensagem) {
+        return new ResultadoLoteLivro(posicao, isbn, false, null, mensagem);
+    }
+
+    public int getPosicao() {
+        return posicao;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public boolean isSucesso() {
+        return sucesso;
+    }
+
+    public Integer getIdLivro() {
+        return idLivro;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+}
@@ -0,0 +1,54 @@
+package com.biblioteca.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe que representa o resultado de uma busca por lista de IDs
+ *
+ * Os itens seguem a ordem em que os IDs foram pedidos; os IDs sem
+ * registro correspondente ficam em naoEncontrados, também em ordem.
+ *
+ * @param <T> tipo dos itens (Livro, Usuario)
+ */
+public class ResultadoPorIds<T> {
+
+    private final List<T> itens;
+    private final List<Integer> naoEncontrados;
+
+    public ResultadoPorIds(List<T> itens, List<Integer> naoEncontrados) {
+        this.itens = itens;
+        this.naoEncontrados = naoEncontrados;
+    }
+
+    /**
+     * Monta o resultado na ordem dos IDs pedidos
+     *
+     * @param ids IDs pedidos, sem repetição
+     * @param encontrados registros encontrados, por ID
+     * @return resultado ordenado
+     */
+    public static <T> ResultadoPorIds<T> ordenar(Collection<Integer> ids, Map<Integer, T> encontrados) {
+        List<T> itens = new ArrayList<>(encontrados.size());
+        List<Integer> naoEncontrados = new ArrayList<>();
+        for (Integer id : ids) {
+            T item = encontrados.get(id);
+            if (item != null) {
+                itens.add(item);
+            } else {
+                naoEncontrados.add(id);
+            }
+        }
+        return new ResultadoPorIds<>(itens, naoEncontrados);
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public List<Integer> getNaoEncontrados() {
+        return naoEncontrados;
+    }
+}
@@ -0,0 +1,69 @@
+package com.biblioteca.monitoramento;
+
+/**
+ * Contagem de comandos SQL e do tempo gasto no banco durante uma requisição
+ *
+ * Fica em um ThreadLocal aberto pelo FiltroContagemSql; fora de uma
+ * requisição (tarefas de inicialização, threads de streaming) não há
+ * contagem ativa e os comandos simplesmente não são contados.
+ */
+public final class ContagemSql {
+
+    private static final ThreadLocal<ContagemSql> ATUAL = new ThreadLocal<>();
+
+    private int comandos;
+    private long tempoNanos;
+
+    private ContagemSql() {
+    }
+
+    /**
+     * Abre uma contagem para a thread atual
+     *
+     * @return contagem aberta
+     */
+    public static ContagemSql iniciar() {
+        ContagemSql contagem = new ContagemSql();
+        ATUAL.set(contagem);
+        return contagem;
+    }
+
+    /**
+     * @return contagem da thread atual, ou null se não houver requisição em andamento
+     */
+    public static ContagemSql atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Fecha a contagem da thread atual
+     */
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    /**
+     * Registra um comando executado (uma ida ao banco)
+     *
+     * @param nanos duração do comando
+     */
+    void registrarComando(long nanos) {
+        comandos++;
+        tempoNanos += nanos;
+    }
+
+    public int getComandos() {
+        return comandos;
+    }
+
+    public long getTempoNanos() {
+        return tempoNanos;
+    }
+
+    /**
+     * @return tempo no banco em milissegundos, com duas casas
+     */
+    public double getTempoMs() {
+        return Math.round(tempoNanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,200 @@
+package com.biblioteca.monitoramento;
+
+import com.biblioteca.resposta.RespostaErro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controle de admissão: limita as requisições simultâneas de cada classe de endpoint
+ *
+ * Cada classe tem um LimiteAdaptativo, que acompanha a latência da própria classe.
+ * Passou do limite, a requisição é recusada na hora com 503 (ou 429, em
+ * biblioteca.admissao.status-rejeicao) e Retry-After, em vez de esperar por
+ * uma thread ou conexão e estourar o tempo junto com as demais.
+ *
+ * Classes, da maior para a menor prioridade:
+ * - devolucao: POST /emprestimos/{id}/devolver e /emprestimos/devolucoes/lote
+ * - geral: escritas de livros e usuários, demais rotas de /emprestimos e
+ *   GET /usuarios/{id}/emprestimos-ativos (consultado pelo balcão)
+ * - catalogo: demais GET de /livros e /usuarios (inclui /livros/buscar)
+ * Enquanto uma classe mais prioritária usa metade ou mais do seu limite, as
+ * menos prioritárias ficam com metade do delas: a navegação no catálogo cede
+ * threads e conexões ao balcão de devolução.
+ *
+ * Exportações (/export), monitoramento e actuator não passam pelo controle.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class FiltroAdmissao extends OncePerRequestFilter {
+
+    public static final String METRICA_LIMITE = "biblioteca.admissao.limite";
+    public static final String METRICA_EM_USO = "biblioteca.admissao.em.uso";
+    public static final String METRICA_REJEICOES = "biblioteca.admissao.rejeicoes";
+
+    private final ObjectMapper objectMapper;
+    private final boolean habilitada;
+    private final int statusRejeicao;
+    private final String retryAfter;
+
+    // Da maior para a menor prioridade
+    private final Classe devolucao;
+    private final Classe geral;
+    private final Classe catalogo;
+    private final List<Classe> classes;
+
+    public FiltroAdmissao(Environment environment, MeterRegistry registry, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.habilitada = environment.getProperty("biblioteca.admissao.habilitada", Boolean.class, true);
+        this.statusRejeicao = environment.getProperty("biblioteca.admissao.status-rejeicao", Integer.class, 503);
+        if (statusRejeicao != 503 && statusRejeicao != 429) {
+            throw new IllegalArgumentException("biblioteca.admissao.status-rejeicao deve ser 503 ou 429: " + statusRejeicao);
+        }
+        this.retryAfter = Integer.toString(
+                environment.getProperty("biblioteca.admissao.retry-after-segundos", Integer.class, 1));
+
+        this.devolucao = new Classe("devolucao", environment, registry, 10, 2, 50);
+        this.geral = new Classe("geral", environment, registry, 20, 4, 100);
+        this.catalogo = new Classe("catalogo", environment, registry, 40, 4, 200);
+        this.classes = List.of(devolucao, geral, catalogo);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Classe classe = habilitada ? classificar(request) : null;
+        if (classe == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean cedendo = maisPrioritariaPressionada(classe);
+        if (!classe.limite.adquirir(cedendo ? 0.5 : 1.0)) {
+            (cedendo ? classe.rejeicoesPrioridade : classe.rejeicoesLimite).increment();
+            recusar(response);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            classe.limite.liberar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Limite, uso e rejeições de cada classe, para GET /monitoramento/admissao
+     *
+     * @return uma entrada por classe, da maior para a menor prioridade
+     */
+    public List<Map<String, Object>> estatisticas() {
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Classe classe : classes) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("classe", classe.nome);
+            item.put("limite", classe.limite.getLimite());
+            item.put("emUso", classe.limite.getEmUso());
+            item.put("latenciaReferenciaMs", classe.limite.getReferenciaMs());
+            item.put("rejeicoesLimite", (long) classe.rejeicoesLimite.count());
+            item.put("rejeicoesPrioridade", (long) classe.rejeicoesPrioridade.count());
+            resultado.add(item);
+        }
+        return resultado;
+    }
+
+    private Classe classificar(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        boolean leitura = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+
+        if (caminho.startsWith("/emprestimos")) {
+            boolean devolvendo = "POST".equals(request.getMethod())
+                    && (caminho.endsWith("/devolver") || caminho.equals("/emprestimos/devolucoes/lote"));
+            return devolvendo ? devolucao : geral;
+        }
+        if (caminho.startsWith("/livros") || caminho.startsWith("/usuarios")) {
+            if (caminho.endsWith("/export")) {
+                return null;
+            }
+            // Total de empréstimos do usuário: consultado pelo balcão antes de cada empréstimo
+            return leitura && !caminho.endsWith("/emprestimos-ativos") ? catalogo : geral;
+        }
+        return null;
+    }
+
+    private boolean maisPrioritariaPressionada(Classe classe) {
+        for (Classe outra : classes) {
+            if (outra == classe) {
+                return false;
+            }
+            if (outra.limite.getEmUso() * 2 >= outra.limite.getLimite()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recusar(HttpServletResponse response) throws IOException {
+        response.setStatus(statusRejeicao);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new RespostaErro("Servidor sobrecarregado, tente novamente em " + retryAfter + " s"));
+    }
+
+    /**
+     * Classe de endpoint: limite (biblioteca.admissao.{nome}.*) e métricas
+     */
+    private static final class Classe {
+
+        private final String nome;
+        private final LimiteAdaptativo limite;
+        private final Counter rejeicoesLimite;
+        private final Counter rejeicoesPrioridade;
+
+        Classe(String nome, Environment environment, MeterRegistry registry,
+               int inicialPadrao, int minimoPadrao, int maximoPadrao) {
+            String prefixo = "biblioteca.admissao." + nome + ".";
+            this.nome = nome;
+            this.limite = new LimiteAdaptativo(
+                    environment.getProperty(prefixo + "limite-inicial", Integer.class, inicialPadrao),
+                    environment.getProperty(prefixo + "limite-minimo", Integer.class, minimoPadrao),
+                    environment.getProperty(prefixo + "limite-maximo", Integer.class, maximoPadrao));
+
+            Gauge.builder(METRICA_LIMITE, limite, LimiteAdaptativo::getLimite)
+                    .description("Limite atual de requisições simultâneas da classe de endpoint")
+                    .tag("classe", nome)
+                    .register(registry);
+            Gauge.builder(METRICA_EM_USO, limite, LimiteAdaptativo::getEmUso)
+                    .description("Requisições em andamento da classe de endpoint")
+                    .tag("classe", nome)
+                    .register(registry);
+            this.rejeicoesLimite = Counter.builder(METRICA_REJEICOES)
+                    .description("Requisições recusadas pelo controle de admissão")
+                    .tags("classe", nome, "motivo", "limite")
+                    .register(registry);
+            this.rejeicoesPrioridade = Counter.builder(METRICA_REJEICOES)
+                    .description("Requisições recusadas pelo controle de admissão")
+                    .tags("classe", nome, "motivo", "prioridade")
+                    .register(registry);
+        }
+    }
+}
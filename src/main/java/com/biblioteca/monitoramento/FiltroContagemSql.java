@@ -0,0 +1,103 @@
+package com.biblioteca.monitoramento;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Informa quantos comandos SQL cada requisição executou e quanto tempo passou no banco
+ *
+ * Os valores vão nos cabeçalhos X-SQL-Count e X-SQL-Time-Ms da resposta
+ * e no log de eventos (RegistroEventos, amostrado e assíncrono). Os cabeçalhos são
+ * gravados no momento em que o corpo da resposta começa a ser escrito,
+ * antes que a resposta seja enviada ao cliente.
+ */
+@Component
+public class FiltroContagemSql extends OncePerRequestFilter {
+
+    public static final String CABECALHO_COMANDOS = "X-SQL-Count";
+    public static final String CABECALHO_TEMPO = "X-SQL-Time-Ms";
+
+    private final RegistroEventos eventos;
+
+    public FiltroContagemSql(RegistroEventos eventos) {
+        this.eventos = eventos;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        ContagemSql contagem = ContagemSql.iniciar();
+        RespostaComContagem resposta = new RespostaComContagem(response, contagem);
+        try {
+            filterChain.doFilter(request, resposta);
+        } finally {
+            resposta.gravarCabecalhos();
+            ContagemSql.encerrar();
+            eventos.requisicao(request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    System.nanoTime() - inicio, contagem);
+        }
+    }
+
+    /**
+     * Resposta que grava os cabeçalhos da contagem antes do primeiro byte do corpo
+     */
+    private static class RespostaComContagem extends HttpServletResponseWrapper {
+
+        private final ContagemSql contagem;
+        private boolean cabecalhosGravados;
+
+        RespostaComContagem(HttpServletResponse response, ContagemSql contagem) {
+            super(response);
+            this.contagem = contagem;
+        }
+
+        void gravarCabecalhos() {
+            if (cabecalhosGravados || isCommitted()) {
+                return;
+            }
+            cabecalhosGravados = true;
+            setHeader(CABECALHO_COMANDOS, Integer.toString(contagem.getComandos()));
+            setHeader(CABECALHO_TEMPO, Double.toString(contagem.getTempoMs()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            gravarCabecalhos();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            gravarCabecalhos();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            gravarCabecalhos();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            gravarCabecalhos();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            gravarCabecalhos();
+            super.sendError(sc);
+        }
+    }
+}
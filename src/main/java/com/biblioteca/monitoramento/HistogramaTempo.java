@@ -0,0 +1,75 @@
+package com.biblioteca.monitoramento;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de tempos com faixas fixas (em microssegundos)
+ *
+ * Registro sem bloqueio: cada amostra incrementa apenas um contador
+ * atômico, então pode ser usado no caminho quente de aquisição de conexões.
+ */
+public class HistogramaTempo {
+
+    // Limites superiores das faixas em microssegundos (a última faixa é +Inf)
+    private static final long[] LIMITES_MICROS = {
+            50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000,
+            25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+    };
+
+    private final AtomicLongArray contagens = new AtomicLongArray(LIMITES_MICROS.length + 1);
+    private final LongAdder somaMicros = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Registra uma amostra
+     *
+     * @param nanos duração em nanossegundos
+     */
+    public void registrarNanos(long nanos) {
+        long micros = nanos / 1_000;
+        int faixa = 0;
+        while (faixa < LIMITES_MICROS.length && micros > LIMITES_MICROS[faixa]) {
+            faixa++;
+        }
+        contagens.incrementAndGet(faixa);
+        somaMicros.add(micros);
+        total.increment();
+    }
+
+    /**
+     * Registra uma amostra
+     *
+     * @param millis duração em milissegundos
+     */
+    public void registrarMillis(long millis) {
+        registrarNanos(millis * 1_000_000);
+    }
+
+    /**
+     * Retorna uma cópia do estado atual do histograma
+     *
+     * As faixas são acumuladas (formato "le" do Prometheus),
+     * com chaves em milissegundos.
+     *
+     * @return mapa com contagem, soma e faixas acumuladas
+     */
+    public Map<String, Object> instantaneo() {
+        Map<String, Long> faixas = new LinkedHashMap<>();
+        long acumulado = 0;
+        for (int i = 0; i < LIMITES_MICROS.length; i++) {
+            acumulado += contagens.get(i);
+            faixas.put(String.valueOf(LIMITES_MICROS[i] / 1_000.0), acumulado);
+        }
+        acumulado += contagens.get(LIMITES_MICROS.length);
+        faixas.put("+Inf", acumulado);
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("contagem", total.sum());
+        resultado.put("somaMs", somaMicros.sum() / 1_000.0);
+        resultado.put("faixasMs", faixas);
+        return resultado;
+    }
+}
@@ -0,0 +1,206 @@
+package com.biblioteca.monitoramento;
+
+import com.biblioteca.monitoramento.RastreioRepositorios.MetodoRepositorio;
+import com.biblioteca.repositorio.RoteamentoLeitura;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcTemplate que mede cada comando SQL
+ *
+ * O JdbcTemplate chama applyStatementSettings logo antes de executar
+ * o comando e handleWarnings logo depois (com ou sem erro). O tempo
+ * medido inclui a leitura do ResultSet. Um batch conta como um comando,
+ * pois vai ao banco de uma vez.
+ *
+ * Cada comando é registrado:
+ * - na ContagemSql da requisição (cabeçalhos X-SQL-Count e X-SQL-Time-Ms)
+ * - no timer "biblioteca.sql", com as tags repositorio e metodo do
+ *   método do repositório que executou o comando (marcado pelo
+ *   RastreioRepositorios) e resultado (sucesso/erro)
+ * - no RegistroEventos, que decide se o comando entra no log (amostragem,
+ *   comandos lentos e com erro) sem bloquear a thread
+ *
+ * Os métodos de escrita (update, batchUpdate e call, nos pontos por onde as
+ * demais sobrecargas passam) avisam o RoteamentoLeitura, para que as leituras
+ * seguintes não busquem na réplica um dado anterior à escrita.
+ */
+public class JdbcTemplateMonitorado extends JdbcTemplate {
+
+    public static final String METRICA = "biblioteca.sql";
+
+    // Comandos executados fora de um repositório
+    private static final MetodoRepositorio OUTRO = new MetodoRepositorio("outro", "outro");
+
+    // Início do comando em andamento na thread (0 se nenhum)
+    private static final ThreadLocal<long[]> INICIO = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final MeterRegistry registry;
+
+    // Log dos comandos; null para só medir
+    private final RegistroEventos eventos;
+
+    // Timers por método de repositório: [sucesso, erro]
+    private final Map<MetodoRepositorio, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public JdbcTemplateMonitorado(DataSource dataSource, MeterRegistry registry) {
+        this(dataSource, registry, null);
+    }
+
+    public JdbcTemplateMonitorado(DataSource dataSource, MeterRegistry registry, RegistroEventos eventos) {
+        super(dataSource);
+        this.registry = registry;
+        this.eventos = eventos;
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        INICIO.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    protected void handleWarnings(Statement stmt) throws SQLException {
+        encerrarComando(false);
+        super.handleWarnings(stmt);
+    }
+
+    @Override
+    protected void handleWarnings(Statement stmt, SQLException ex) {
+        encerrarComando(true);
+        super.handleWarnings(stmt, ex);
+    }
+
+    @Override
+    public int update(String sql) {
+        try {
+            return super.update(sql);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    // Passagem de update(PreparedStatementCreator) e de update(String, ...)
+    @Override
+    protected int update(PreparedStatementCreator psc, PreparedStatementSetter pss) {
+        try {
+            return super.update(psc, pss);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    @Override
+    public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) {
+        try {
+            return super.update(psc, generatedKeyHolder);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    @Override
+    public int[] batchUpdate(String... sql) {
+        try {
+            return super.batchUpdate(sql);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    // Passagem de batchUpdate(String, List<Object[]>, ...)
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+        try {
+            return super.batchUpdate(sql, pss);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    @Override
+    public int[] batchUpdate(PreparedStatementCreator psc, BatchPreparedStatementSetter pss,
+                             KeyHolder generatedKeyHolder) {
+        try {
+            return super.batchUpdate(psc, pss, generatedKeyHolder);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    @Override
+    public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                   ParameterizedPreparedStatementSetter<T> pss) {
+        try {
+            return super.batchUpdate(sql, batchArgs, batchSize, pss);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    @Override
+    public Map<String, Object> call(CallableStatementCreator csc, List<SqlParameter> declaredParameters) {
+        try {
+            return super.call(csc, declaredParameters);
+        } finally {
+            RoteamentoLeitura.registrarEscrita();
+        }
+    }
+
+    private void encerrarComando(boolean erro) {
+        long[] inicio = INICIO.get();
+        if (inicio[0] == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - inicio[0];
+        inicio[0] = 0;
+
+        ContagemSql contagem = ContagemSql.atual();
+        if (contagem != null) {
+            contagem.registrarComando(nanos);
+        }
+
+        MetodoRepositorio metodo = RastreioRepositorios.metodoAtual();
+        if (metodo == null) {
+            metodo = OUTRO;
+        }
+        timer(metodo, erro).record(nanos, TimeUnit.NANOSECONDS);
+        if (eventos != null) {
+            eventos.comandoSql(metodo, nanos, erro);
+        }
+    }
+
+    private Timer timer(MetodoRepositorio metodo, boolean erro) {
+        Timer[] porResultado = timers.computeIfAbsent(metodo, m -> new Timer[2]);
+
+        int indice = erro ? 1 : 0;
+        Timer timer = porResultado[indice];
+        if (timer == null) {
+            // O registro devolve o mesmo timer para as mesmas tags, então a corrida aqui é inofensiva
+            timer = Timer.builder(METRICA)
+                    .description("Tempo de cada comando SQL")
+                    .tags("repositorio", metodo.repositorio(), "metodo", metodo.metodo(),
+                            "resultado", erro ? "erro" : "sucesso")
+                    .register(registry);
+            porResultado[indice] = timer;
+        }
+        return timer;
+    }
+}
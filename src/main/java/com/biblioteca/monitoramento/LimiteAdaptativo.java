@@ -0,0 +1,158 @@
+package com.biblioteca.monitoramento;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de requisições simultâneas que se ajusta pela latência medida
+ *
+ * A cada janela compara a latência média recente com a de referência, a menor
+ * média de janela já vista (a latência "sem fila"):
+ * - recente até TOLERANCIA vezes a referência: o limite cresce (mais a raiz do
+ *   limite, a folga para a fila)
+ * - acima disso: o limite cai na proporção da piora, até a metade por janela
+ * - o limite só muda quando ao menos metade dele esteve em uso na janela;
+ *   com pouco tráfego não há o que aprender
+ * A referência sobe DERIVA_REFERENCIA por janela, para acompanhar uma mudança
+ * real (mais dados, outro plano de execução) sem seguir a fila durante a sobrecarga.
+ *
+ * Com a fila crescendo no banco ou nas threads, a latência sobe e o limite cai
+ * antes que as requisições passem a expirar; quem passa do limite é recusado na hora.
+ */
+public class LimiteAdaptativo {
+
+    // Quanto a latência recente pode passar da referência sem reduzir o limite
+    private static final double TOLERANCIA = 1.5;
+
+    // Peso de cada janela no limite
+    private static final double SUAVIZACAO_LIMITE = 0.2;
+
+    // Quanto a latência de referência sobe a cada janela
+    private static final double DERIVA_REFERENCIA = 0.01;
+
+    // Uma janela fecha depois de DURACAO_JANELA_NANOS, com ao menos AMOSTRAS_MINIMAS amostras
+    private static final int AMOSTRAS_MINIMAS = 10;
+    private static final long DURACAO_JANELA_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+
+    private final AtomicInteger emUso = new AtomicInteger();
+    private volatile int limite;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Estado protegido pelo lock
+    private double limiteEstimado;
+    private double referenciaNanos;
+    private long inicioJanela = System.nanoTime();
+    private long somaJanelaNanos;
+    private int amostrasJanela;
+    private int maiorEmUsoJanela;
+
+    /**
+     * @param limiteInicial limite antes da primeira medição
+     * @param limiteMinimo menor limite possível
+     * @param limiteMaximo maior limite possível
+     * @throws IllegalArgumentException se os limites forem incoerentes
+     */
+    public LimiteAdaptativo(int limiteInicial, int limiteMinimo, int limiteMaximo) {
+        if (limiteMinimo < 1 || limiteMinimo > limiteInicial || limiteInicial > limiteMaximo) {
+            throw new IllegalArgumentException("Limites inválidos: inicial " + limiteInicial
+                    + ", mínimo " + limiteMinimo + ", máximo " + limiteMaximo);
+        }
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.limite = limiteInicial;
+        this.limiteEstimado = limiteInicial;
+    }
+
+    /**
+     * Ocupa uma vaga se houver
+     *
+     * @param fracao parte do limite disponível (1.0 = todo o limite)
+     * @return true se a requisição pode seguir; nesse caso liberar() deve ser chamado ao final
+     */
+    public boolean adquirir(double fracao) {
+        int permitido = Math.max(1, (int) (limite * fracao));
+        while (true) {
+            int atual = emUso.get();
+            if (atual >= permitido) {
+                return false;
+            }
+            if (emUso.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devolve a vaga e registra a latência da requisição
+     *
+     * @param nanos duração da requisição
+     */
+    public void liberar(long nanos) {
+        int emUsoAntes = emUso.getAndDecrement();
+        lock.lock();
+        try {
+            somaJanelaNanos += nanos;
+            amostrasJanela++;
+            maiorEmUsoJanela = Math.max(maiorEmUsoJanela, emUsoAntes);
+
+            long agora = System.nanoTime();
+            if (amostrasJanela >= AMOSTRAS_MINIMAS && agora - inicioJanela >= DURACAO_JANELA_NANOS) {
+                ajustar(somaJanelaNanos / (double) amostrasJanela);
+                inicioJanela = agora;
+                somaJanelaNanos = 0;
+                amostrasJanela = 0;
+                maiorEmUsoJanela = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ajustar(double recenteNanos) {
+        referenciaNanos = referenciaNanos == 0
+                ? recenteNanos
+                : Math.min(recenteNanos, referenciaNanos * (1 + DERIVA_REFERENCIA));
+
+        // Pouco tráfego: a latência não diz nada sobre o limite
+        if (maiorEmUsoJanela < limiteEstimado / 2) {
+            return;
+        }
+
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * referenciaNanos / recenteNanos));
+        double novo = limiteEstimado * gradiente + Math.sqrt(limiteEstimado);
+        limiteEstimado = limiteEstimado * (1 - SUAVIZACAO_LIMITE) + novo * SUAVIZACAO_LIMITE;
+        limiteEstimado = Math.max(limiteMinimo, Math.min(limiteMaximo, limiteEstimado));
+        limite = (int) limiteEstimado;
+    }
+
+    /**
+     * @return limite atual
+     */
+    public int getLimite() {
+        return limite;
+    }
+
+    /**
+     * @return requisições em andamento
+     */
+    public int getEmUso() {
+        return emUso.get();
+    }
+
+    /**
+     * @return latência de referência em ms (0 antes da primeira janela)
+     */
+    public double getReferenciaMs() {
+        lock.lock();
+        try {
+            return Math.round(referenciaNanos / 10_000.0) / 100.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.biblioteca.monitoramento;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coleta estatísticas dos pools de conexão (HikariCP)
+ *
+ * É registrada como MetricsTrackerFactory em cada pool criado
+ * pelo DataBaseConfig e guarda, por pool, os histogramas de tempo
+ * de aquisição e de uso das conexões.
+ *
+ * O HikariCP aceita uma única MetricsTrackerFactory por pool, então os
+ * eventos também são repassados às métricas hikaricp.* do Micrometer
+ * (exportadas em /actuator/prometheus).
+ */
+@Component
+public class MetricasPool implements MetricsTrackerFactory {
+
+    private final Map<String, Rastreador> rastreadores = new ConcurrentHashMap<>();
+
+    private final MicrometerMetricsTrackerFactory micrometer;
+
+    public MetricasPool(MeterRegistry registry) {
+        this.micrometer = new MicrometerMetricsTrackerFactory(registry);
+    }
+
+    @Override
+    public IMetricsTracker create(String nomePool, PoolStats poolStats) {
+        Rastreador rastreador = rastreadores.computeIfAbsent(nomePool, nome -> new Rastreador());
+        return new RastreadorComposto(rastreador, micrometer.create(nomePool, poolStats));
+    }
+
+    /**
+     * Monta o retrato atual de um pool
+     *
+     * @param dataSource pool a ser inspecionado
+     * @return mapa com conexões ativas, ociosas, aguardando e histogramas
+     */
+    public Map<String, Object> estatisticas(HikariDataSource dataSource) {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("pool", dataSource.getPoolName());
+        resultado.put("tamanhoMaximo", dataSource.getMaximumPoolSize());
+        resultado.put("minimoOcioso", dataSource.getMinimumIdle());
+
+        HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+        if (mxBean != null) {
+            resultado.put("ativas", mxBean.getActiveConnections());
+            resultado.put("ociosas", mxBean.getIdleConnections());
+            resultado.put("total", mxBean.getTotalConnections());
+            resultado.put("aguardando", mxBean.getThreadsAwaitingConnection());
+        }
+
+        Rastreador rastreador = rastreadores.get(dataSource.getPoolName());
+        if (rastreador != null) {
+            resultado.put("timeouts", rastreador.timeouts.sum());
+            resultado.put("tempoAquisicao", rastreador.aquisicao.instantaneo());
+            resultado.put("tempoUso", rastreador.uso.instantaneo());
+            resultado.put("tempoCriacao", rastreador.criacao.instantaneo());
+        }
+        return resultado;
+    }
+
+    /**
+     * Rastreador de um pool: recebe os eventos do HikariCP
+     */
+    private static class Rastreador implements IMetricsTracker {
+
+        private final HistogramaTempo aquisicao = new HistogramaTempo();
+        private final HistogramaTempo uso = new HistogramaTempo();
+        private final HistogramaTempo criacao = new HistogramaTempo();
+        private final LongAdder timeouts = new LongAdder();
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            aquisicao.registrarNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            uso.registrarMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            criacao.registrarMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+
+    /**
+     * Repassa cada evento do HikariCP ao Rastreador e ao Micrometer
+     */
+    private record RastreadorComposto(IMetricsTracker rastreador, IMetricsTracker micrometer)
+            implements IMetricsTracker {
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            rastreador.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            micrometer.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            rastreador.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            micrometer.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            rastreador.recordConnectionCreatedMillis(connectionCreatedMillis);
+            micrometer.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            rastreador.recordConnectionTimeout();
+            micrometer.recordConnectionTimeout();
+        }
+
+        @Override
+        public void close() {
+            micrometer.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.biblioteca.monitoramento;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Marca, durante cada chamada a um @Repository, qual método de repositório está executando
+ *
+ * O JdbcTemplateMonitorado usa essa marca como tag do timer biblioteca.sql.
+ * É o mesmo mecanismo da tradução de exceções do Spring para @Repository:
+ * o interceptador entra no proxy que os repositórios já têm, e custa
+ * apenas uma leitura e uma escrita de ThreadLocal por chamada.
+ */
+@Component
+public class RastreioRepositorios extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final ThreadLocal<MetodoRepositorio> ATUAL = new ThreadLocal<>();
+
+    private static final DefaultPointcutAdvisor ADVISOR = new DefaultPointcutAdvisor(
+            new AnnotationMatchingPointcut(Repository.class, true), new Interceptador());
+
+    public RastreioRepositorios() {
+        this.advisor = ADVISOR;
+        setBeforeExistingAdvisors(true);
+    }
+
+    /**
+     * @return método de repositório em execução na thread, ou null fora de um repositório
+     */
+    public static MetodoRepositorio metodoAtual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Aplica o rastreio a um repositório criado fora do Spring (benchmarks)
+     *
+     * @param repositorio instância do repositório
+     * @return proxy do repositório com o rastreio
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T rastrear(T repositorio) {
+        ProxyFactory proxyFactory = new ProxyFactory(repositorio);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(ADVISOR);
+        return (T) proxyFactory.getProxy();
+    }
+
+    /**
+     * Repositório (nome simples da classe) e método
+     */
+    public record MetodoRepositorio(String repositorio, String metodo) {
+    }
+
+    private static class Interceptador implements MethodInterceptor {
+
+        private final Map<Method, MetodoRepositorio> metodos = new ConcurrentHashMap<>();
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MetodoRepositorio metodo = metodos.computeIfAbsent(invocation.getMethod(), m -> new MetodoRepositorio(
+                    invocation.getThis() != null
+                            ? invocation.getThis().getClass().getSimpleName()
+                            : m.getDeclaringClass().getSimpleName(),
+                    m.getName()));
+
+            MetodoRepositorio anterior = ATUAL.get();
+            ATUAL.set(metodo);
+            try {
+                return invocation.proceed();
+            } finally {
+                ATUAL.set(anterior);
+            }
+        }
+    }
+}
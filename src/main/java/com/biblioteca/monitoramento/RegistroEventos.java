@@ -0,0 +1,259 @@
+package com.biblioteca.monitoramento;
+
+import com.biblioteca.monitoramento.RastreioRepositorios.MetodoRepositorio;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log assíncrono e amostrado dos eventos de requisição e de SQL
+ *
+ * Quem gera o evento (a thread da requisição) só decide se ele entra no log
+ * e o coloca em uma fila circular de tamanho fixo; uma única thread
+ * ("biblioteca-eventos") formata as linhas e escreve no logger
+ * com.biblioteca.eventos, no formato chave=valor.
+ *
+ * - fila cheia: o evento é descartado e contado (métrica biblioteca.log.eventos.descartados),
+ *   nunca bloqueia a requisição; a thread de escrita avisa no log quantos foram descartados
+ * - SQL: cada repositório pode ter sua taxa de amostragem; comandos lentos
+ *   (acima de biblioteca.log.sql.lento-ms) e com erro sempre entram, em WARN
+ * - requisições: uma taxa de amostragem; lentas e com status 5xx sempre entram, em WARN
+ */
+@Component
+public class RegistroEventos implements AutoCloseable {
+
+    public static final String METRICA_DESCARTADOS = "biblioteca.log.eventos.descartados";
+    public static final String METRICA_FILA = "biblioteca.log.eventos.fila";
+
+    private static final Logger log = LoggerFactory.getLogger("com.biblioteca.eventos");
+
+    // Quantidade máxima de eventos escritos de uma vez pela thread de escrita
+    private static final int LOTE_ESCRITA = 256;
+
+    private final ArrayBlockingQueue<Evento> fila;
+    private final LongAdder descartados = new LongAdder();
+    private final Thread escritor;
+    private volatile boolean encerrado;
+
+    private final double amostragemSqlPadrao;
+    private final Map<String, Double> amostragemSqlPorRepositorio;
+    private final long sqlLentoNanos;
+    private final double amostragemRequisicoes;
+    private final long requisicaoLentaNanos;
+
+    public RegistroEventos(MeterRegistry registry,
+                           @Value("${biblioteca.log.eventos.capacidade:8192}") int capacidade,
+                           @Value("${biblioteca.log.sql.amostragem:0.01}") double amostragemSqlPadrao,
+                           @Value("${biblioteca.log.sql.amostragem-por-repositorio:}") String amostragemSqlPorRepositorio,
+                           @Value("${biblioteca.log.sql.lento-ms:200}") long sqlLentoMs,
+                           @Value("${biblioteca.log.requisicoes.amostragem:0.01}") double amostragemRequisicoes,
+                           @Value("${biblioteca.log.requisicoes.lenta-ms:1000}") long requisicaoLentaMs) {
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.amostragemSqlPadrao = amostragemSqlPadrao;
+        this.amostragemSqlPorRepositorio = taxasPorRepositorio(amostragemSqlPorRepositorio);
+        this.sqlLentoNanos = TimeUnit.MILLISECONDS.toNanos(sqlLentoMs);
+        this.amostragemRequisicoes = amostragemRequisicoes;
+        this.requisicaoLentaNanos = TimeUnit.MILLISECONDS.toNanos(requisicaoLentaMs);
+
+        FunctionCounter.builder(METRICA_DESCARTADOS, descartados, LongAdder::sum)
+                .description("Eventos de log descartados com a fila cheia")
+                .register(registry);
+        Gauge.builder(METRICA_FILA, fila, ArrayBlockingQueue::size)
+                .description("Eventos de log aguardando escrita")
+                .register(registry);
+
+        escritor = new Thread(this::escrever, "biblioteca-eventos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Registra um comando SQL executado (chamado pelo JdbcTemplateMonitorado)
+     *
+     * @param metodo método de repositório que executou o comando
+     * @param nanos duração do comando
+     * @param erro true se o comando falhou
+     */
+    public void comandoSql(MetodoRepositorio metodo, long nanos, boolean erro) {
+        String motivo;
+        if (erro) {
+            motivo = "erro";
+        } else if (nanos >= sqlLentoNanos) {
+            motivo = "lento";
+        } else if (sorteado(amostragemSqlPorRepositorio.getOrDefault(metodo.repositorio(), amostragemSqlPadrao))) {
+            motivo = "amostra";
+        } else {
+            return;
+        }
+        publicar(new EventoSql(metodo, nanos, erro, motivo));
+    }
+
+    /**
+     * Registra uma requisição atendida (chamado pelo FiltroContagemSql)
+     *
+     * @param metodo método HTTP
+     * @param uri caminho da requisição
+     * @param status status da resposta
+     * @param nanos duração da requisição
+     * @param contagem comandos SQL e tempo no banco da requisição
+     */
+    public void requisicao(String metodo, String uri, int status, long nanos, ContagemSql contagem) {
+        String motivo;
+        if (status >= 500) {
+            motivo = "erro";
+        } else if (nanos >= requisicaoLentaNanos) {
+            motivo = "lenta";
+        } else if (sorteado(amostragemRequisicoes)) {
+            motivo = "amostra";
+        } else {
+            return;
+        }
+        publicar(new EventoRequisicao(metodo, uri, status, nanos,
+                contagem.getComandos(), contagem.getTempoMs(), motivo));
+    }
+
+    /**
+     * @return eventos descartados desde a inicialização
+     */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Para a thread de escrita depois de escrever o que ainda está na fila
+     */
+    @Override
+    public void close() throws InterruptedException {
+        encerrado = true;
+        escritor.interrupt();
+        escritor.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void publicar(Evento evento) {
+        if (!fila.offer(evento)) {
+            descartados.increment();
+        }
+    }
+
+    private static boolean sorteado(double taxa) {
+        return taxa >= 1.0 || (taxa > 0.0 && ThreadLocalRandom.current().nextDouble() < taxa);
+    }
+
+    // Laço da thread de escrita: espera o primeiro evento e escreve os que chegaram junto
+    private void escrever() {
+        List<Evento> lote = new ArrayList<>(LOTE_ESCRITA);
+        StringBuilder linha = new StringBuilder(256);
+        long descartadosInformados = 0;
+        while (!encerrado || !fila.isEmpty()) {
+            try {
+                Evento primeiro = fila.poll(1, TimeUnit.SECONDS);
+                if (primeiro != null) {
+                    lote.add(primeiro);
+                    fila.drainTo(lote, LOTE_ESCRITA - 1);
+                }
+            } catch (InterruptedException e) {
+                fila.drainTo(lote);
+            }
+
+            for (Evento evento : lote) {
+                linha.setLength(0);
+                evento.formatar(linha);
+                if (evento.alerta()) {
+                    log.warn(linha.toString());
+                } else {
+                    log.info(linha.toString());
+                }
+            }
+            lote.clear();
+
+            long totalDescartados = descartados.sum();
+            if (totalDescartados > descartadosInformados) {
+                log.warn("evento=descarte descartados={} totalDescartados={}",
+                        totalDescartados - descartadosInformados, totalDescartados);
+                descartadosInformados = totalDescartados;
+            }
+        }
+    }
+
+    /**
+     * Lê "Repositorio:taxa,Repositorio:taxa" (ex.: "EmprestimoRepositorio:0.1,LivroRepositorio:0")
+     */
+    static Map<String, Double> taxasPorRepositorio(String texto) {
+        Map<String, Double> taxas = new HashMap<>();
+        if (texto == null || texto.isBlank()) {
+            return taxas;
+        }
+        for (String item : texto.split(",")) {
+            String[] partes = item.split(":");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Amostragem por repositório inválida: " + item.trim());
+            }
+            taxas.put(partes[0].trim(), Double.parseDouble(partes[1].trim()));
+        }
+        return taxas;
+    }
+
+    private static void duracao(StringBuilder linha, String campo, long nanos) {
+        linha.append(' ').append(campo).append('=').append(Math.round(nanos / 10_000.0) / 100.0);
+    }
+
+    /**
+     * Evento na fila; formatado só na thread de escrita
+     */
+    private interface Evento {
+
+        void formatar(StringBuilder linha);
+
+        boolean alerta();
+    }
+
+    private record EventoSql(MetodoRepositorio metodo, long nanos, boolean erro, String motivo) implements Evento {
+
+        @Override
+        public void formatar(StringBuilder linha) {
+            linha.append("evento=sql repositorio=").append(metodo.repositorio())
+                    .append(" metodo=").append(metodo.metodo());
+            duracao(linha, "duracaoMs", nanos);
+            linha.append(" resultado=").append(erro ? "erro" : "sucesso")
+                    .append(" motivo=").append(motivo);
+        }
+
+        @Override
+        public boolean alerta() {
+            return !"amostra".equals(motivo);
+        }
+    }
+
+    private record EventoRequisicao(String metodo, String uri, int status, long nanos,
+                                    int comandosSql, double tempoSqlMs, String motivo) implements Evento {
+
+        @Override
+        public void formatar(StringBuilder linha) {
+            linha.append("evento=requisicao metodo=").append(metodo)
+                    .append(" uri=").append(uri)
+                    .append(" status=").append(status);
+            duracao(linha, "duracaoMs", nanos);
+            linha.append(" sql=").append(comandosSql)
+                    .append(" tempoSqlMs=").append(tempoSqlMs)
+                    .append(" motivo=").append(motivo);
+        }
+
+        @Override
+        public boolean alerta() {
+            return !"amostra".equals(motivo);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.biblioteca.repositorio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache em memória de entidades, com tamanho limitado
+ *
+ * Mantém dois índices:
+ * - por ID (id_livro, id_usuario), guardando a entidade
+ * - por chave única (isbn, matricula), guardando apenas o ID
+ *
+ * Usa o Caffeine, cuja política de admissão (W-TinyLFU) mantém no cache
+ * os registros mais acessados, como os títulos consultados o dia todo
+ * nos terminais do balcão. Só resultados encontrados são guardados;
+ * buscas sem resultado sempre vão ao banco.
+ *
+ * @param <T> tipo da entidade (Livro, Usuario)
+ */
+public class CacheEntidade<T> {
+
+    private final String nome;
+    private final Cache<Integer, T> porId;
+    private final Cache<String, Integer> idPorChave;
+    private final Function<T, Integer> extrairId;
+    private final Function<T, String> extrairChave;
+
+    // Incrementada a cada invalidação; evita guardar um valor lido antes de uma escrita
+    private final AtomicLong geracao = new AtomicLong();
+
+    public CacheEntidade(String nome, long tamanhoMaximo, Duration expiracao,
+                         Function<T, Integer> extrairId, Function<T, String> extrairChave) {
+        this.nome = nome;
+        this.extrairId = extrairId;
+        this.extrairChave = extrairChave;
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.idPorChave = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Busca pelo ID, consultando o banco apenas em caso de falta
+     *
+     * @param id ID da entidade
+     * @param carregar consulta ao banco usada quando não está no cache
+     * @return Optional com a entidade ou vazio se não existe
+     */
+    public Optional<T> buscarPorId(Integer id, Function<Integer, Optional<T>> carregar) {
+        T entidade = porId.getIfPresent(id);
+        if (entidade != null) {
+            return Optional.of(entidade);
+        }
+
+        long geracaoInicial = geracao.get();
+        Optional<T> carregada = carregar.apply(id);
+        carregada.ifPresent(e -> registrar(e, geracaoInicial));
+        return carregada;
+    }
+
+    /**
+     * Busca pela chave única (isbn, matricula), consultando o banco apenas em caso de falta
+     *
+     * @param chave valor da chave única
+     * @param carregar consulta ao banco usada quando não está no cache
+     * @return Optional com a entidade ou vazio se não existe
+     */
+    public Optional<T> buscarPorChave(String chave, Function<String, Optional<T>> carregar) {
+        T entidade = buscarNoCachePorChave(chave);
+        if (entidade != null) {
+            return Optional.of(entidade);
+        }
+
+        long geracaoInicial = geracao.get();
+        Optional<T> carregada = carregar.apply(chave);
+        carregada.ifPresent(e -> registrar(e, geracaoInicial));
+        return carregada;
+    }
+
+    /**
+     * Busca vários IDs, consultando o banco apenas para os que faltam no cache
+     *
+     * @param ids IDs das entidades, sem repetição
+     * @param carregar consulta ao banco que recebe só os IDs em falta
+     * @return entidades encontradas, por ID (IDs inexistentes ficam de fora)
+     */
+    public Map<Integer, T> buscarPorIds(Collection<Integer> ids, Function<List<Integer>, List<T>> carregar) {
+        Map<Integer, T> encontradas = new HashMap<>(porId.getAllPresent(ids));
+        if (encontradas.size() == ids.size()) {
+            return encontradas;
+        }
+
+        List<Integer> faltas = new ArrayList<>(ids.size() - encontradas.size());
+        for (Integer id : ids) {
+            if (!encontradas.containsKey(id)) {
+                faltas.add(id);
+            }
+        }
+
+        long geracaoInicial = geracao.get();
+        for (T entidade : carregar.apply(faltas)) {
+            registrar(entidade, geracaoInicial);
+            encontradas.put(extrairId.apply(entidade), entidade);
+        }
+        return encontradas;
+    }
+
+    /**
+     * Busca pelo ID apenas no cache, sem consultar o banco
+     *
+     * Usada pelo acesso reativo, que consulta o banco sem bloquear e
+     * depois entrega o resultado ao cache com guardar.
+     *
+     * @param id ID da entidade
+     * @return entidade em cache, ou null em caso de falta
+     */
+    public T buscarNoCache(Integer id) {
+        return porId.getIfPresent(id);
+    }
+
+    /**
+     * Busca pela chave única apenas no cache, sem consultar o banco
+     *
+     * @param chave valor da chave única
+     * @return entidade em cache, ou null em caso de falta
+     */
+    public T buscarNoCachePorChave(String chave) {
+        Integer id = idPorChave.getIfPresent(chave);
+        if (id == null) {
+            return null;
+        }
+        T entidade = porId.getIfPresent(id);
+        // A chave pode ter mudado num UPDATE; só vale se ainda bate
+        if (entidade != null && chave.equals(extrairChave.apply(entidade))) {
+            return entidade;
+        }
+        idPorChave.invalidate(chave);
+        return null;
+    }
+
+    /**
+     * @return geração atual, lida antes de uma consulta ao banco e repassada a guardar
+     */
+    public long geracaoAtual() {
+        return geracao.get();
+    }
+
+    /**
+     * Guarda uma entidade lida do banco, salvo se houve escrita desde o início da consulta
+     *
+     * @param entidade entidade lida
+     * @param geracaoInicial valor de geracaoAtual() antes da consulta
+     */
+    public void guardar(T entidade, long geracaoInicial) {
+        registrar(entidade, geracaoInicial);
+    }
+
+    /**
+     * Remove uma entidade do cache (chamado após UPDATE e DELETE)
+     *
+     * @param id ID da entidade alterada
+     */
+    public void invalidar(Integer id) {
+        geracao.incrementAndGet();
+        T entidade = porId.getIfPresent(id);
+        if (entidade != null) {
+            idPorChave.invalidate(extrairChave.apply(entidade));
+        }
+        porId.invalidate(id);
+    }
+
+    /**
+     * Remove uma chave única do índice secundário (chamado após INSERT)
+     *
+     * @param chave valor da chave única
+     */
+    public void invalidarChave(String chave) {
+        geracao.incrementAndGet();
+        idPorChave.invalidate(chave);
+    }
+
+    /**
+     * Estatísticas de acertos, faltas e remoções dos dois índices
+     *
+     * @return mapa com os contadores
+     */
+    public Map<String, Object> estatisticas() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("cache", nome);
+        resultado.put("tamanho", porId.estimatedSize());
+        resultado.put("porId", contadores(porId.stats()));
+        resultado.put("porChave", contadores(idPorChave.stats()));
+        return resultado;
+    }
+
+    private void registrar(T entidade, long geracaoInicial) {
+        Integer id = extrairId.apply(entidade);
+        porId.put(id, entidade);
+        idPorChave.put(extrairChave.apply(entidade), id);
+
+        // Houve escrita durante a consulta: o valor lido pode estar desatualizado
+        if (geracao.get() != geracaoInicial) {
+            invalidar(id);
+        }
+    }
+
+    private static Map<String, Object> contadores(CacheStats stats) {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("acertos", stats.hitCount());
+        resultado.put("faltas", stats.missCount());
+        resultado.put("taxaAcerto", stats.hitRate());
+        resultado.put("remocoes", stats.evictionCount());
+        return resultado;
+    }
+}
@@ -0,0 +1,182 @@
+package com.biblioteca.repositorio;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Junta consultas iguais e simultâneas em uma só ida ao banco
+ *
+ * A primeira chamada com uma chave executa a consulta na própria thread; as
+ * que chegam com a mesma chave enquanto ela está em andamento esperam e
+ * recebem o mesmo resultado (ou a mesma exceção). Nada fica guardado depois
+ * que a consulta termina: isso é papel do CacheEntidade.
+ *
+ * Uma chamada só aproveita a consulta em andamento quando:
+ * - nenhuma escrita passou por invalidar() desde que ela começou, para que
+ *   uma leitura iniciada depois de um UPDATE não receba o valor anterior
+ * - as duas estão no mesmo tipo de acesso (dentro ou fora de @SomenteLeitura),
+ *   já que isso decide entre réplica e primário
+ * - a requisição de quem chega ainda não gravou nada (lê o que acabou de escrever)
+ * Nos outros casos a consulta é executada à parte, como se não houvesse junção.
+ *
+ * A espera é limitada (biblioteca.consulta-compartilhada.espera-maxima-ms);
+ * passado esse tempo, quem espera desiste e consulta por conta própria.
+ *
+ * Usada só pelos repositórios JDBC (modo servlet): a espera bloqueia a
+ * thread, o que não cabe nos repositórios reativos (R2DBC).
+ *
+ * @param <K> tipo da chave da consulta
+ * @param <V> tipo do resultado
+ */
+public class ConsultaCompartilhada<K, V> {
+
+    public static final String METRICA_CHAMADAS = "biblioteca.consulta.compartilhada";
+
+    private final String nome;
+    private final long esperaMaximaNanos;
+    private final ConcurrentHashMap<K, Consulta<V>> emAndamento = new ConcurrentHashMap<>();
+
+    // Incrementada a cada escrita; consultas de uma geração anterior não são aproveitadas
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final Counter executadas;
+    private final Counter compartilhadas;
+    private final Counter esperasEsgotadas;
+
+    /**
+     * @param nome nome da consulta (tag "consulta" das métricas)
+     * @param esperaMaxima tempo máximo de espera pela consulta em andamento
+     * @param registry registro de métricas
+     */
+    public ConsultaCompartilhada(String nome, Duration esperaMaxima, MeterRegistry registry) {
+        this.nome = nome;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.executadas = contador(registry, nome, "executada");
+        this.compartilhadas = contador(registry, nome, "compartilhada");
+        this.esperasEsgotadas = contador(registry, nome, "espera-esgotada");
+    }
+
+    /**
+     * Executa a consulta, ou aproveita uma igual que já está em andamento
+     *
+     * @param chave chave da consulta (argumentos que definem o resultado)
+     * @param consultar consulta ao banco
+     * @return resultado da consulta
+     */
+    public V executar(K chave, Function<K, V> consultar) {
+        if (RoteamentoLeitura.escreveuNaRequisicao()) {
+            return executarSozinha(chave, consultar);
+        }
+
+        Consulta<V> nova = new Consulta<>(geracao.get(), RoteamentoLeitura.emLeitura());
+        Consulta<V> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente == null) {
+            return executarCompartilhando(chave, nova, consultar);
+        }
+        // Consulta anterior a uma escrita: a nova passa a ser a compartilhada
+        if (existente.geracao < nova.geracao && emAndamento.replace(chave, existente, nova)) {
+            return executarCompartilhando(chave, nova, consultar);
+        }
+        if (existente.geracao != nova.geracao || existente.leitura != nova.leitura) {
+            return executarSozinha(chave, consultar);
+        }
+        return aguardar(chave, existente, consultar);
+    }
+
+    /**
+     * Descarta as consultas em andamento para novas chamadas (chamado após INSERT, UPDATE e DELETE)
+     */
+    public void invalidar() {
+        geracao.incrementAndGet();
+    }
+
+    /**
+     * Consultas executadas, compartilhadas e com espera esgotada
+     *
+     * @return mapa com os contadores
+     */
+    public Map<String, Object> estatisticas() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("consulta", nome);
+        resultado.put("emAndamento", emAndamento.size());
+        resultado.put("executadas", (long) executadas.count());
+        resultado.put("compartilhadas", (long) compartilhadas.count());
+        resultado.put("esperasEsgotadas", (long) esperasEsgotadas.count());
+        return resultado;
+    }
+
+    private V executarCompartilhando(K chave, Consulta<V> consulta, Function<K, V> consultar) {
+        executadas.increment();
+        try {
+            V valor = consultar.apply(chave);
+            consulta.resultado.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            consulta.resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, consulta);
+        }
+    }
+
+    private V executarSozinha(K chave, Function<K, V> consultar) {
+        executadas.increment();
+        return consultar.apply(chave);
+    }
+
+    private V aguardar(K chave, Consulta<V> consulta, Function<K, V> consultar) {
+        try {
+            V valor = consulta.resultado.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+            compartilhadas.increment();
+            return valor;
+        } catch (TimeoutException e) {
+            esperasEsgotadas.increment();
+            return executarSozinha(chave, consultar);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a consulta " + nome, e);
+        } catch (ExecutionException e) {
+            compartilhadas.increment();
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Counter contador(MeterRegistry registry, String nome, String resultado) {
+        return Counter.builder(METRICA_CHAMADAS)
+                .description("Chamadas por consulta: executadas no banco, compartilhadas com outra em andamento ou com espera esgotada")
+                .tags("consulta", nome, "resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Consulta em andamento: geração e tipo de acesso de quem a iniciou
+     */
+    private static final class Consulta<V> {
+
+        private final long geracao;
+        private final boolean leitura;
+        private final CompletableFuture<V> resultado = new CompletableFuture<>();
+
+        Consulta(long geracao, boolean leitura) {
+            this.geracao = geracao;
+            this.leitura = leitura;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.biblioteca.repositorio;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Statement de leitura em modo streaming (percorrerTodos dos repositórios)
+ *
+ * No MySQL, o fetch size Integer.MIN_VALUE faz o driver entregar uma linha
+ * por vez em vez de carregar a tabela inteira. Outros bancos (o H2 dos
+ * testes) recusam esse valor; neles o fetch size padrão do driver é mantido.
+ */
+final class ConsultaStreaming {
+
+    private ConsultaStreaming() {
+    }
+
+    /**
+     * @param connection conexão da consulta
+     * @param sql consulta a percorrer
+     * @return statement forward-only, somente leitura
+     */
+    static PreparedStatement preparar(Connection connection, String sql) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if ("MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+        }
+        return ps;
+    }
+}
@@ -0,0 +1,175 @@
+package com.biblioteca.repositorio;
+
+/**
+ * Mapa ID → contador com chaves e valores int (sem Integer nem nós de HashMap)
+ *
+ * Endereçamento aberto com sondagem linear sobre dois arrays paralelos:
+ * - a posição vazia é marcada com a chave 0 (IDs do banco começam em 1)
+ * - a tabela dobra quando passa da metade ocupada
+ * - a remoção puxa para trás as chaves seguintes do mesmo grupo, sem lápides
+ *
+ * Não é thread-safe: quem compartilha o mapa entre threads faz o controle de acesso.
+ */
+public final class ContadoresPorId {
+
+    // Valor devolvido por valor() quando o ID não está no mapa
+    public static final int AUSENTE = -1;
+
+    private int[] chaves;
+    private int[] valores;
+    private int tamanho;
+
+    public ContadoresPorId() {
+        this(64);
+    }
+
+    /**
+     * @param capacidadeEsperada quantidade de IDs prevista (evita crescer durante a carga)
+     */
+    public ContadoresPorId(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(16, capacidadeEsperada * 2 - 1)) << 1;
+        chaves = new int[capacidade];
+        valores = new int[capacidade];
+    }
+
+    /**
+     * @param id ID (maior que zero)
+     * @return contador do ID, ou AUSENTE se o ID não está no mapa
+     */
+    public int valor(int id) {
+        if (id <= 0) {
+            return AUSENTE;
+        }
+        int mascara = chaves.length - 1;
+        for (int i = posicao(id, mascara); ; i = (i + 1) & mascara) {
+            int chave = chaves[i];
+            if (chave == id) {
+                return valores[i];
+            }
+            if (chave == 0) {
+                return AUSENTE;
+            }
+        }
+    }
+
+    /**
+     * Grava o contador de um ID, incluindo o ID se ainda não estiver no mapa
+     *
+     * @param id ID (maior que zero)
+     * @param valor contador
+     */
+    public void gravar(int id, int valor) {
+        validar(id);
+        int mascara = chaves.length - 1;
+        int i = posicao(id, mascara);
+        while (chaves[i] != 0 && chaves[i] != id) {
+            i = (i + 1) & mascara;
+        }
+        if (chaves[i] == 0) {
+            chaves[i] = id;
+            if (++tamanho * 2 > chaves.length) {
+                valores[i] = valor;
+                crescer();
+                return;
+            }
+        }
+        valores[i] = valor;
+    }
+
+    /**
+     * Soma ao contador de um ID que já está no mapa, sem deixá-lo negativo
+     *
+     * @param id ID
+     * @param delta valor a somar (negativo para subtrair)
+     * @return true se o ID estava no mapa
+     */
+    public boolean somar(int id, int delta) {
+        if (id <= 0) {
+            return false;
+        }
+        int mascara = chaves.length - 1;
+        for (int i = posicao(id, mascara); ; i = (i + 1) & mascara) {
+            int chave = chaves[i];
+            if (chave == id) {
+                valores[i] = Math.max(0, valores[i] + delta);
+                return true;
+            }
+            if (chave == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Retira um ID do mapa
+     *
+     * @param id ID
+     * @return true se o ID estava no mapa
+     */
+    public boolean remover(int id) {
+        if (id <= 0) {
+            return false;
+        }
+        int mascara = chaves.length - 1;
+        int i = posicao(id, mascara);
+        while (chaves[i] != id) {
+            if (chaves[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        // Puxa para a posição liberada as chaves seguintes que não estão na posição ideal
+        int livre = i;
+        for (int j = (i + 1) & mascara; chaves[j] != 0; j = (j + 1) & mascara) {
+            int ideal = posicao(chaves[j], mascara);
+            boolean podeMover = livre <= j ? (ideal <= livre || ideal > j) : (ideal <= livre && ideal > j);
+            if (podeMover) {
+                chaves[livre] = chaves[j];
+                valores[livre] = valores[j];
+                livre = j;
+            }
+        }
+        chaves[livre] = 0;
+        valores[livre] = 0;
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * @return quantidade de IDs no mapa
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private void crescer() {
+        int[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        chaves = new int[chavesAntigas.length * 2];
+        valores = new int[valoresAntigos.length * 2];
+        int mascara = chaves.length - 1;
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            int chave = chavesAntigas[i];
+            if (chave != 0) {
+                int j = posicao(chave, mascara);
+                while (chaves[j] != 0) {
+                    j = (j + 1) & mascara;
+                }
+                chaves[j] = chave;
+                valores[j] = valoresAntigos[i];
+            }
+        }
+    }
+
+    // Espalha IDs sequenciais pela tabela (constante de Fibonacci)
+    private static int posicao(int id, int mascara) {
+        return (id * 0x9E3779B9 >>> 16 ^ id * 0x9E3779B9) & mascara;
+    }
+
+    private static void validar(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID deve ser maior que zero: " + id);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.biblioteca.repositorio;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSource que envia as leituras para a réplica e o resto para o primário
+ *
+ * A conexão vai para a réplica só quando todas as condições valem:
+ * - há réplica configurada (biblioteca.replica.url)
+ * - a thread está em um método @SomenteLeitura
+ * - a requisição em andamento ainda não gravou nada (lê o que acabou de escrever)
+ * - a instância não gravou nada dentro da tolerância de atraso (biblioteca.replica.atraso-maximo-ms)
+ * - a última verificação encontrou a réplica respondendo e com atraso dentro da tolerância
+ *
+ * Dentro de uma transação a conexão é escolhida no início, pelo estado da thread
+ * naquele momento. A métrica biblioteca.replica.conexoes conta as conexões por
+ * destino e motivo; biblioteca.replica.atraso traz o último atraso medido.
+ */
+public class DataSourceRoteado extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRoteado.class);
+
+    public static final String METRICA_CONEXOES = "biblioteca.replica.conexoes";
+    public static final String METRICA_ATRASO = "biblioteca.replica.atraso";
+
+    // Coluna do SHOW REPLICA STATUS do MySQL com o atraso em segundos
+    private static final String COLUNA_ATRASO_MYSQL = "Seconds_Behind_Source";
+
+    private enum Destino { PRIMARIO, REPLICA }
+
+    private final HikariDataSource replica;
+    private final long atrasoMaximoNanos;
+    private final String consultaAtraso;
+
+    // Atraso medido na última verificação, em ms; -1 se a réplica não respondeu
+    private volatile long atrasoMs = -1;
+
+    private final Counter leiturasReplica;
+    private final Counter leiturasEscritaRequisicao;
+    private final Counter leiturasEscritaRecente;
+    private final Counter leiturasReplicaAtrasada;
+    private final Counter conexoesForaDeLeitura;
+
+    /**
+     * @param primario pool do banco primário
+     * @param replica pool da réplica de leitura, ou null para usar só o primário
+     * @param atrasoMaximoMs atraso máximo da réplica aceito para uma leitura
+     * @param consultaAtraso consulta que devolve o atraso da réplica em segundos
+     * @param registry registro de métricas
+     */
+    public DataSourceRoteado(DataSource primario, HikariDataSource replica, long atrasoMaximoMs,
+                             String consultaAtraso, MeterRegistry registry) {
+        this.replica = replica;
+        this.atrasoMaximoNanos = TimeUnit.MILLISECONDS.toNanos(atrasoMaximoMs);
+        this.consultaAtraso = consultaAtraso;
+
+        Map<Object, Object> destinos = new LinkedHashMap<>();
+        destinos.put(Destino.PRIMARIO, primario);
+        if (replica != null) {
+            destinos.put(Destino.REPLICA, replica);
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        leiturasReplica = contador(registry, "replica", "leitura");
+        leiturasEscritaRequisicao = contador(registry, "primario", "escrita-na-requisicao");
+        leiturasEscritaRecente = contador(registry, "primario", "escrita-recente");
+        leiturasReplicaAtrasada = contador(registry, "primario", "replica-atrasada");
+        conexoesForaDeLeitura = contador(registry, "primario", "fora-de-leitura");
+        Gauge.builder(METRICA_ATRASO, this, DataSourceRoteado::getAtrasoMs)
+                .description("Atraso da réplica de leitura na última verificação, em ms (-1: indisponível)")
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        if (replica != null) {
+            verificarReplica();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replica == null) {
+            return Destino.PRIMARIO;
+        }
+        if (!RoteamentoLeitura.emLeitura()) {
+            conexoesForaDeLeitura.increment();
+            return Destino.PRIMARIO;
+        }
+        if (RoteamentoLeitura.escreveuNaRequisicao()) {
+            leiturasEscritaRequisicao.increment();
+            return Destino.PRIMARIO;
+        }
+        if (RoteamentoLeitura.escreveuHaMenosDe(atrasoMaximoNanos)) {
+            leiturasEscritaRecente.increment();
+            return Destino.PRIMARIO;
+        }
+        long atraso = atrasoMs;
+        if (atraso < 0 || TimeUnit.MILLISECONDS.toNanos(atraso) > atrasoMaximoNanos) {
+            leiturasReplicaAtrasada.increment();
+            return Destino.PRIMARIO;
+        }
+        leiturasReplica.increment();
+        return Destino.REPLICA;
+    }
+
+    /**
+     * Mede o atraso da réplica (biblioteca.replica.consulta-atraso)
+     *
+     * Aceita o SHOW REPLICA STATUS do MySQL (coluna Seconds_Behind_Source) ou
+     * qualquer consulta cuja primeira coluna seja o atraso em segundos.
+     * Sem linha, atraso nulo (replicação parada) ou erro, a réplica fica
+     * indisponível até a próxima verificação e as leituras vão ao primário.
+     */
+    @Scheduled(initialDelayString = "${biblioteca.replica.verificacao-ms:1000}",
+            fixedDelayString = "${biblioteca.replica.verificacao-ms:1000}")
+    public void verificarReplica() {
+        if (replica == null) {
+            return;
+        }
+        long anterior = atrasoMs;
+        long medido;
+        try (Connection conexao = replica.getConnection();
+             Statement statement = conexao.createStatement();
+             ResultSet rs = statement.executeQuery(consultaAtraso)) {
+            medido = -1;
+            if (rs.next()) {
+                Object segundos = possuiColuna(rs, COLUNA_ATRASO_MYSQL)
+                        ? rs.getObject(COLUNA_ATRASO_MYSQL)
+                        : rs.getObject(1);
+                if (segundos instanceof Number numero) {
+                    medido = TimeUnit.SECONDS.toMillis(numero.longValue());
+                }
+            }
+        } catch (SQLException e) {
+            medido = -1;
+            if (anterior >= 0) {
+                log.warn("Réplica de leitura indisponível: {}", e.getMessage());
+            }
+        }
+        atrasoMs = medido;
+
+        boolean emDia = medido >= 0 && TimeUnit.MILLISECONDS.toNanos(medido) <= atrasoMaximoNanos;
+        boolean estavaEmDia = anterior >= 0 && TimeUnit.MILLISECONDS.toNanos(anterior) <= atrasoMaximoNanos;
+        if (emDia != estavaEmDia) {
+            if (emDia) {
+                log.info("Réplica de leitura em uso (atraso {} ms)", medido);
+            } else {
+                log.warn("Leituras voltaram ao primário: atraso da réplica {} ms", medido);
+            }
+        }
+    }
+
+    /**
+     * @return pool da réplica, ou null se não configurada
+     */
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * @return atraso da réplica na última verificação, em ms (-1: indisponível ou não configurada)
+     */
+    public long getAtrasoMs() {
+        return atrasoMs;
+    }
+
+    /**
+     * Situação do roteamento, para GET /monitoramento/replica
+     *
+     * @return réplica configurada, atraso, tolerância e conexões por destino e motivo
+     */
+    public Map<String, Object> estatisticas() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("replicaConfigurada", replica != null);
+        resultado.put("atrasoMs", atrasoMs);
+        resultado.put("atrasoMaximoMs", TimeUnit.NANOSECONDS.toMillis(atrasoMaximoNanos));
+        resultado.put("leiturasReplica", (long) leiturasReplica.count());
+        resultado.put("leiturasPrimarioEscritaNaRequisicao", (long) leiturasEscritaRequisicao.count());
+        resultado.put("leiturasPrimarioEscritaRecente", (long) leiturasEscritaRecente.count());
+        resultado.put("leiturasPrimarioReplicaAtrasada", (long) leiturasReplicaAtrasada.count());
+        resultado.put("conexoesPrimarioForaDeLeitura", (long) conexoesForaDeLeitura.count());
+        return resultado;
+    }
+
+    /**
+     * Fecha o pool da réplica (o primário é um bean à parte)
+     */
+    @Override
+    public void close() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    private static boolean possuiColuna(ResultSet rs, String nome) throws SQLException {
+        ResultSetMetaData metadados = rs.getMetaData();
+        for (int i = 1; i <= metadados.getColumnCount(); i++) {
+            if (nome.equalsIgnoreCase(metadados.getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter contador(MeterRegistry registry, String destino, String motivo) {
+        return Counter.builder(METRICA_CONEXOES)
+                .description("Conexões do pool interativo por destino e motivo")
+                .tags("destino", destino, "motivo", motivo)
+                .register(registry);
+    }
+}
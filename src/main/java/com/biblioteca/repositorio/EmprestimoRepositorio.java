@@ -0,0 +1,204 @@
+package com.biblioteca.repositorio;
+
+import com.biblioteca.model.Emprestimo;
+import com.biblioteca.model.EmprestimoAtivo;
+import com.biblioteca.model.EmprestimoDevolvido;
+import com.biblioteca.model.Multa;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repositório para acesso aos dados de Empréstimo
+ *
+ * Consulta as tabelas 'emprestimo' e 'multa', a view
+ * 'vw_emprestimos_ativos' e chama a procedure de devolução
+ */
+@Repository
+public class EmprestimoRepositorio {
+
+    // Quantidade máxima de valores em cada "IN (...)"
+    private static final int TAMANHO_BLOCO_IN = 500;
+
+    // Empréstimo com usuário, livro e multas em uma só ida ao banco
+    private static final String SQL_BUSCAR_POR_ID = """
+            SELECT
+                e.id_emprestimo,
+                u.nome AS usuario,
+                l.titulo AS livro,
+                e.data_emprestimo,
+                e.data_prevista_devolucao,
+                e.data_devolucao_real,
+                m.id_multa,
+                m.valor,
+                m.data_pagamento
+            FROM emprestimo e
+            JOIN usuario u ON e.id_usuario = u.id_usuario
+            JOIN exemplar ex ON e.id_exemplar = ex.id_exemplar
+            JOIN livro l ON ex.id_livro = l.id_livro
+            LEFT JOIN multa m ON m.id_emprestimo = e.id_emprestimo
+            WHERE e.id_emprestimo = ?
+            ORDER BY m.id_multa
+            """;
+
+    // Linhas da view com as chaves de filtro (retiradas da linha ao mapear)
+    private static final String SQL_ATIVOS = """
+            SELECT
+                v.*,
+                e.id_usuario AS chave_id_usuario,
+                ex.id_livro AS chave_id_livro,
+                e.data_prevista_devolucao AS chave_data_prevista
+            FROM vw_emprestimos_ativos v
+            JOIN emprestimo e ON e.id_emprestimo = v.id_emprestimo
+            JOIN exemplar ex ON e.id_exemplar = ex.id_exemplar
+            WHERE v.status = 'pendente'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Pool separado para a procedure, que pode demorar
+    private final JdbcTemplate jdbcTemplateLongo;
+
+    // RowMapper: converte a parte do empréstimo da linha em objeto Emprestimo
+    private final RowMapper<Emprestimo> emprestimoRowMapper = (rs, rowNum) -> {
+        Emprestimo emprestimo = new Emprestimo();
+        emprestimo.setIdEmprestimo(rs.getInt("id_emprestimo"));
+        emprestimo.setUsuario(rs.getString("usuario"));
+        emprestimo.setLivro(rs.getString("livro"));
+        emprestimo.setDataEmprestimo(data(rs, "data_emprestimo"));
+        emprestimo.setDataPrevistaDevolucao(data(rs, "data_prevista_devolucao"));
+        emprestimo.setDataDevolucaoReal(data(rs, "data_devolucao_real"));
+        return emprestimo;
+    };
+
+    // RowMapper: converte a parte da multa da linha em objeto Multa
+    private final RowMapper<Multa> multaRowMapper = (rs, rowNum) -> new Multa(
+            rs.getInt("id_multa"),
+            rs.getBigDecimal("valor"),
+            data(rs, "data_pagamento"));
+
+    // RowMapper: separa as chaves de filtro da linha da view
+    private final RowMapper<EmprestimoAtivo> emprestimoAtivoRowMapper = new RowMapper<>() {
+        private final ColumnMapRowMapper colunas = new ColumnMapRowMapper();
+
+        @Override
+        public EmprestimoAtivo mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Map<String, Object> linha = colunas.mapRow(rs, rowNum);
+            linha.remove("chave_id_usuario");
+            linha.remove("chave_id_livro");
+            linha.remove("chave_data_prevista");
+            return new EmprestimoAtivo(
+                    rs.getInt("id_emprestimo"),
+                    rs.getInt("chave_id_usuario"),
+                    rs.getInt("chave_id_livro"),
+                    data(rs, "chave_data_prevista"),
+                    Collections.unmodifiableMap(linha));
+        }
+    };
+
+    // Junta as linhas do LEFT JOIN (uma por multa) em um único Emprestimo
+    private final ResultSetExtractor<Optional<Emprestimo>> emprestimoComMultasExtractor = rs -> {
+        Emprestimo emprestimo = null;
+        int linha = 0;
+        while (rs.next()) {
+            if (emprestimo == null) {
+                emprestimo = emprestimoRowMapper.mapRow(rs, linha);
+            }
+            rs.getInt("id_multa");
+            if (!rs.wasNull()) {
+                emprestimo.getMultas().add(multaRowMapper.mapRow(rs, linha));
+            }
+            linha++;
+        }
+        return Optional.ofNullable(emprestimo);
+    };
+
+    public EmprestimoRepositorio(JdbcTemplate jdbcTemplate,
+                                 @Qualifier("jdbcTemplateLongo") JdbcTemplate jdbcTemplateLongo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTemplateLongo = jdbcTemplateLongo;
+    }
+
+    /**
+     * READ - Busca um empréstimo com usuário, livro e multas
+     *
+     * @param idEmprestimo ID do empréstimo
+     * @return Optional contendo o empréstimo ou vazio se não encontrado
+     */
+    public Optional<Emprestimo> buscarPorId(Integer idEmprestimo) {
+        return jdbcTemplate.query(SQL_BUSCAR_POR_ID, emprestimoComMultasExtractor, idEmprestimo);
+    }
+
+    /**
+     * READ - Lista os empréstimos pendentes da view vw_emprestimos_ativos
+     *
+     * Junto com cada linha da view vêm o usuário, o livro e a data prevista
+     * do empréstimo, usados para filtrar sem consultar o banco de novo.
+     * Roda no pool de operações longas: a view tem joins e é lida inteira.
+     *
+     * @return um EmprestimoAtivo por empréstimo pendente
+     */
+    public List<EmprestimoAtivo> listarAtivos() {
+        return jdbcTemplateLongo.query(SQL_ATIVOS, emprestimoAtivoRowMapper);
+    }
+
+    /**
+     * Chama a procedure prc_registrar_devolucao no pool de operações longas
+     *
+     * @param idEmprestimo ID do empréstimo
+     * @param dataDevolucao data da devolução
+     */
+    public void registrarDevolucao(Integer idEmprestimo, LocalDate dataDevolucao) {
+        String sql = "CALL prc_registrar_devolucao(?, ?)";
+        jdbcTemplateLongo.update(sql, idEmprestimo, Date.valueOf(dataDevolucao));
+    }
+
+    /**
+     * READ - Busca o usuário e a multa mais recente de cada empréstimo, com uma consulta por bloco de IDs
+     *
+     * @param idsEmprestimo IDs dos empréstimos
+     * @return mapa ID do empréstimo → empréstimo devolvido (ausente se o empréstimo não existe)
+     */
+    public Map<Integer, EmprestimoDevolvido> buscarDevolvidos(Collection<Integer> idsEmprestimo) {
+        List<Integer> ids = new ArrayList<>(idsEmprestimo);
+        Map<Integer, EmprestimoDevolvido> devolvidos = new HashMap<>();
+
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IN) {
+            List<Integer> bloco = ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_IN, ids.size()));
+            String sql = "SELECT e.id_emprestimo, e.id_usuario, m.valor FROM emprestimo e"
+                    + " LEFT JOIN multa m ON m.id_emprestimo = e.id_emprestimo"
+                    + " WHERE e.id_emprestimo IN (" + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")"
+                    + " ORDER BY e.id_emprestimo, m.id_multa";
+
+            // Ordenado por id_multa: a última multa de cada empréstimo sobrescreve as anteriores
+            jdbcTemplate.query(sql, rs -> {
+                BigDecimal valor = rs.getBigDecimal("valor");
+                int idEmprestimo = rs.getInt("id_emprestimo");
+                devolvidos.put(idEmprestimo, new EmprestimoDevolvido(idEmprestimo, rs.getInt("id_usuario"),
+                        valor == null ? null : valor.doubleValue()));
+            }, bloco.toArray());
+        }
+        return devolvidos;
+    }
+
+    private static LocalDate data(ResultSet rs, String coluna) throws SQLException {
+        Date data = rs.getDate(coluna);
+        return data == null ? null : data.toLocalDate();
+    }
+}
@@ -1,6 +1,8 @@
 package com.biblioteca.repositorio;
 
 import com.biblioteca.model.Livro;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -8,9 +10,18 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Repositório para acesso aos dados de Livro
@@ -21,8 +32,25 @@ import java.util.Optional;
 @Repository
 public class LivroRepositorio {
 
+    // Quantidade máxima de valores em cada "IN (...)"
+    private static final int TAMANHO_BLOCO_IN = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
+    // Pool de operações longas, usado na exportação em streaming
+    private final JdbcTemplate jdbcTemplateLongo;
+
+    // Cache das buscas por ID e por ISBN
+    private final CacheEntidade<Livro> cacheLivro;
+
+    // Versões usadas nas ETags das consultas
+    private final VersoesEntidade<Livro> versoesLivro;
+
+    // Buscas iguais e simultâneas vão uma só vez ao banco
+    private final ConsultaCompartilhada<Integer, Optional<Livro>> consultaPorId;
+    private final ConsultaCompartilhada<String, Optional<Livro>> consultaPorIsbn;
+    private final ConsultaCompartilhada<String, List<Livro>> consultaPorTitulo;
+
     // RowMapper: converte ResultSet (linha do banco) em objeto Livro
     private final RowMapper<Livro> livroRowMapper = (rs, rowNum) -> {
         Livro livro = new Livro();
@@ -33,8 +61,20 @@ public class LivroRepositorio {
         return livro;
     };
 
-    public LivroRepositorio(JdbcTemplate jdbcTemplate) {
+    public LivroRepositorio(JdbcTemplate jdbcTemplate,
+                            @Qualifier("jdbcTemplateLongo") JdbcTemplate jdbcTemplateLongo,
+                            CacheEntidade<Livro> cacheLivro,
+                            VersoesEntidade<Livro> versoesLivro,
+                            ConsultaCompartilhada<Integer, Optional<Livro>> consultaPorId,
+                            ConsultaCompartilhada<String, Optional<Livro>> consultaPorIsbn,
+                            ConsultaCompartilhada<String, List<Livro>> consultaPorTitulo) {
         this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTemplateLongo = jdbcTemplateLongo;
+        this.cacheLivro = cacheLivro;
+        this.versoesLivro = versoesLivro;
+        this.consultaPorId = consultaPorId;
+        this.consultaPorIsbn = consultaPorIsbn;
+        this.consultaPorTitulo = consultaPorTitulo;
     }
 
     /**
@@ -42,6 +82,7 @@ public class LivroRepositorio {
      *
      * @param livro dados do livro a ser inserido
      * @return livro com ID gerado pelo banco
+     * @throws org.springframework.dao.DuplicateKeyException se o ISBN já estiver cadastrado
      */
     public Livro inserir(Livro livro) {
         String sql = "INSERT INTO livro (isbn, titulo, ano_publicacao) VALUES (?, ?, ?)";
@@ -57,17 +98,146 @@ public class LivroRepositorio {
         }, keyHolder);
 
         livro.setIdLivro(keyHolder.getKey().intValue());
+        cacheLivro.invalidarChave(livro.getIsbn());
+        versoesLivro.alterado(livro.getIdLivro());
+        invalidarConsultas();
         return livro;
     }
 
     /**
-     * READ - Busca todos os livros
+     * CREATE - Insere vários livros usando batch do JDBC
+     *
+     * Com rewriteBatchedStatements=true o driver do MySQL transforma o batch
+     * em INSERTs de várias linhas, e os IDs gerados continuam disponíveis.
+     * Deve ser chamado dentro de uma transação para que um erro não deixe
+     * o lote parcialmente gravado.
+     *
+     * @param livros livros a inserir (recebem o ID gerado)
+     */
+    public void inserirEmLote(List<Livro> livros) {
+        String sql = "INSERT INTO livro (isbn, titulo, ano_publicacao) VALUES (?, ?, ?)";
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Livro livro = livros.get(i);
+                        ps.setString(1, livro.getIsbn());
+                        ps.setString(2, livro.getTitulo());
+                        ps.setInt(3, livro.getAnoPublicacao());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return livros.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> chaves = keyHolder.getKeyList();
+        for (int i = 0; i < livros.size(); i++) {
+            Number id = (Number) chaves.get(i).values().iterator().next();
+            livros.get(i).setIdLivro(id.intValue());
+            cacheLivro.invalidarChave(livros.get(i).getIsbn());
+            versoesLivro.alterado(id.intValue());
+        }
+        invalidarConsultas();
+    }
+
+    /**
+     * READ - Verifica de uma vez quais ISBNs já estão cadastrados
+     *
+     * Faz uma consulta "isbn IN (...)" a cada TAMANHO_BLOCO_IN ISBNs,
+     * em vez de uma consulta por livro.
+     *
+     * @param isbns ISBNs a verificar
+     * @return conjunto com os ISBNs que já existem no banco
+     */
+    public Set<String> buscarIsbnsExistentes(Collection<String> isbns) {
+        List<String> lista = new ArrayList<>(isbns);
+        Set<String> existentes = new HashSet<>();
+
+        for (int inicio = 0; inicio < lista.size(); inicio += TAMANHO_BLOCO_IN) {
+            List<String> bloco = lista.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_IN, lista.size()));
+            String sql = "SELECT isbn FROM livro WHERE isbn IN ("
+                    + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")";
+            existentes.addAll(jdbcTemplate.queryForList(sql, String.class, bloco.toArray()));
+        }
+        return existentes;
+    }
+
+    /**
+     * READ - Busca uma página de livros ordenada por título (paginação por chave)
+     *
+     * Em vez de OFFSET, continua a partir do último (titulo, id_livro) visto,
+     * o que permite ao MySQL usar o índice (titulo, id_livro) e manter o mesmo
+     * custo em qualquer página.
+     *
+     * @param tituloApos título do último livro da página anterior (null na primeira página)
+     * @param idApos ID do último livro da página anterior (null na primeira página)
+     * @param limite quantidade máxima de livros
+     * @return lista de livros da página
+     */
+    public List<Livro> buscarPagina(String tituloApos, Integer idApos, int limite) {
+        if (tituloApos == null) {
+            String sql = "SELECT * FROM livro ORDER BY titulo, id_livro LIMIT ?";
+            return jdbcTemplate.query(sql, livroRowMapper, limite);
+        }
+
+        String sql = "SELECT * FROM livro WHERE titulo > ? OR (titulo = ? AND id_livro > ?) "
+                + "ORDER BY titulo, id_livro LIMIT ?";
+        return jdbcTemplate.query(sql, livroRowMapper, tituloApos, tituloApos, idApos, limite);
+    }
+
+    /**
+     * READ - Percorre todos os livros em modo streaming
+     *
+     * Usa um ResultSet forward-only; no MySQL, com fetch size Integer.MIN_VALUE,
+     * que faz o driver entregar uma linha por vez em vez de carregar a tabela
+     * inteira (ConsultaStreaming). Cada linha é mapeada pelo mesmo RowMapper
+     * das outras consultas.
+     *
+     * @param consumidor recebe cada livro assim que é lido
+     */
+    public void percorrerTodos(Consumer<Livro> consumidor) {
+        String sql = "SELECT * FROM livro ORDER BY id_livro";
+
+        int[] linha = {0};
+        jdbcTemplateLongo.query(connection -> ConsultaStreaming.preparar(connection, sql), rs -> {
+            consumidor.accept(livroRowMapper.mapRow(rs, linha[0]++));
+        });
+    }
+
+    /**
+     * READ - Conta o total de livros cadastrados
+     *
+     * @return quantidade de livros
+     */
+    public long contar() {
+        String sql = "SELECT COUNT(*) FROM livro";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    /**
+     * ETag do livro, lida sem ir ao banco
+     *
+     * @param id ID do livro
+     * @return ETag fraca (W/"..."), alterada a cada escrita no livro
+     */
+    public String etag(Integer id) {
+        return versoesLivro.etag(id);
+    }
+
+    /**
+     * ETag da listagem de livros, lida sem ir ao banco
      *
-     * @return lista com todos os livros cadastrados
+     * @return ETag fraca (W/"..."), alterada a cada INSERT, UPDATE ou DELETE
      */
-    public List<Livro> buscarTodos() {
-        String sql = "SELECT * FROM livro ORDER BY titulo";
-        return jdbcTemplate.query(sql, livroRowMapper);
+    public String etagColecao() {
+        return versoesLivro.etagColecao();
     }
 
     /**
@@ -77,11 +247,39 @@ public class LivroRepositorio {
      * @return Optional contendo o livro ou vazio se não encontrado
      */
     public Optional<Livro> buscarPorId(Integer id) {
+        return cacheLivro.buscarPorId(id, faltante -> consultaPorId.executar(faltante, this::consultarPorId));
+    }
+
+    private Optional<Livro> consultarPorId(Integer id) {
         String sql = "SELECT * FROM livro WHERE id_livro = ?";
         List<Livro> livros = jdbcTemplate.query(sql, livroRowMapper, id);
         return livros.isEmpty() ? Optional.empty() : Optional.of(livros.get(0));
     }
 
+    /**
+     * READ - Busca vários livros por ID de uma vez
+     *
+     * Os que estão no cache não vão ao banco; os demais são lidos com
+     * "id_livro IN (...)", uma consulta a cada TAMANHO_BLOCO_IN IDs.
+     *
+     * @param ids IDs dos livros, sem repetição
+     * @return livros encontrados, por ID (IDs inexistentes ficam de fora)
+     */
+    public Map<Integer, Livro> buscarPorIds(Collection<Integer> ids) {
+        return cacheLivro.buscarPorIds(ids, this::consultarPorIds);
+    }
+
+    private List<Livro> consultarPorIds(List<Integer> ids) {
+        List<Livro> livros = new ArrayList<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IN) {
+            List<Integer> bloco = ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_IN, ids.size()));
+            String sql = "SELECT * FROM livro WHERE id_livro IN ("
+                    + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")";
+            livros.addAll(jdbcTemplate.query(sql, livroRowMapper, bloco.toArray()));
+        }
+        return livros;
+    }
+
     /**
      * READ - Busca um livro por ISBN
      *
@@ -89,6 +287,10 @@ public class LivroRepositorio {
      * @return Optional contendo o livro ou vazio se não encontrado
      */
     public Optional<Livro> buscarPorIsbn(String isbn) {
+        return cacheLivro.buscarPorChave(isbn, faltante -> consultaPorIsbn.executar(faltante, this::consultarPorIsbn));
+    }
+
+    private Optional<Livro> consultarPorIsbn(String isbn) {
         String sql = "SELECT * FROM livro WHERE isbn = ?";
         List<Livro> livros = jdbcTemplate.query(sql, livroRowMapper, isbn);
         return livros.isEmpty() ? Optional.empty() : Optional.of(livros.get(0));
@@ -97,29 +299,47 @@ public class LivroRepositorio {
     /**
      * READ - Busca livros por título (busca parcial)
      *
+     * Usada apenas enquanto o IndiceTitulos não está pronto,
+     * pois o LIKE com curinga no início varre a tabela inteira.
+     * Buscas iguais e simultâneas compartilham a mesma varredura,
+     * por isso a lista devolvida não pode ser alterada.
+     *
      * @param titulo parte do título a ser buscado
+     * @param limite quantidade máxima de livros
      * @return lista de livros que contém o texto no título
      */
-    public List<Livro> buscarPorTitulo(String titulo) {
-        String sql = "SELECT * FROM livro WHERE titulo LIKE ? ORDER BY titulo";
-        return jdbcTemplate.query(sql, livroRowMapper, "%" + titulo + "%");
+    public List<Livro> buscarPorTitulo(String titulo, int limite) {
+        return consultaPorTitulo.executar(limite + ":" + titulo, chave -> {
+            String sql = "SELECT * FROM livro WHERE titulo LIKE ? ORDER BY titulo LIMIT ?";
+            return Collections.unmodifiableList(
+                    jdbcTemplate.query(sql, livroRowMapper, "%" + titulo + "%", limite));
+        });
     }
 
     /**
      * UPDATE - Atualiza os dados de um livro
      *
+     * O driver do MySQL informa as linhas encontradas (useAffectedRows=false),
+     * então um UPDATE que não muda nenhum valor também retorna 1.
+     *
      * @param id ID do livro a ser atualizado
      * @param livro novos dados do livro
      * @return número de linhas afetadas (1 se sucesso, 0 se não encontrado)
+     * @throws org.springframework.dao.DuplicateKeyException se o ISBN já pertence a outro livro
      */
     public int atualizar(Integer id, Livro livro) {
         String sql = "UPDATE livro SET isbn = ?, titulo = ?, ano_publicacao = ? WHERE id_livro = ?";
-        return jdbcTemplate.update(sql,
+        int linhas = jdbcTemplate.update(sql,
                 livro.getIsbn(),
                 livro.getTitulo(),
                 livro.getAnoPublicacao(),
                 id
         );
+        cacheLivro.invalidar(id);
+        cacheLivro.invalidarChave(livro.getIsbn());
+        versoesLivro.alterado(id);
+        invalidarConsultas();
+        return linhas;
     }
 
     /**
@@ -130,17 +350,55 @@ public class LivroRepositorio {
      */
     public int deletar(Integer id) {
         String sql = "DELETE FROM livro WHERE id_livro = ?";
-        return jdbcTemplate.update(sql, id);
+        int linhas = jdbcTemplate.update(sql, id);
+        cacheLivro.invalidar(id);
+        versoesLivro.alterado(id);
+        invalidarConsultas();
+        return linhas;
     }
 
     /**
      * Chama a função do banco que conta autores de um livro
      *
+     * A função é chamada a partir da própria linha do livro, então a
+     * mesma consulta também indica se o livro existe.
+     *
      * @param idLivro ID do livro
-     * @return quantidade de autores associados ao livro
+     * @return Optional com a quantidade de autores, ou vazio se o livro não existe
      */
-    public Integer contarAutores(Integer idLivro) {
-        String sql = "SELECT fn_contar_autores_livro(?)";
-        return jdbcTemplate.queryForObject(sql, Integer.class, idLivro);
+    public Optional<Integer> contarAutores(Integer idLivro) {
+        String sql = "SELECT fn_contar_autores_livro(id_livro) FROM livro WHERE id_livro = ?";
+        List<Integer> totais = jdbcTemplate.queryForList(sql, Integer.class, idLivro);
+        return totais.isEmpty() ? Optional.empty() : Optional.of(totais.get(0));
+    }
+
+    /**
+     * READ - Conta os autores de vários livros de uma vez
+     *
+     * Uma consulta agrupada em livro_autor por bloco de IDs, em vez de
+     * chamar fn_contar_autores_livro uma vez por livro.
+     *
+     * @param ids IDs dos livros
+     * @return total de autores por ID de livro (livros sem autores não aparecem)
+     */
+    public Map<Integer, Integer> contarAutoresPorLivro(Collection<Integer> ids) {
+        List<Integer> lista = new ArrayList<>(ids);
+        Map<Integer, Integer> totais = new HashMap<>();
+        for (int inicio = 0; inicio < lista.size(); inicio += TAMANHO_BLOCO_IN) {
+            List<Integer> bloco = lista.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_IN, lista.size()));
+            String sql = "SELECT id_livro, COUNT(*) AS total FROM livro_autor WHERE id_livro IN ("
+                    + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ") GROUP BY id_livro";
+            jdbcTemplate.query(sql, rs -> {
+                totais.put(rs.getInt("id_livro"), rs.getInt("total"));
+            }, bloco.toArray());
+        }
+        return totais;
+    }
+
+    // Após uma escrita, buscas novas não aproveitam as que começaram antes dela
+    private void invalidarConsultas() {
+        consultaPorId.invalidar();
+        consultaPorIsbn.invalidar();
+        consultaPorTitulo.invalidar();
     }
 }
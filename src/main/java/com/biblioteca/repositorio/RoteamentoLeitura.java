@@ -0,0 +1,89 @@
+package com.biblioteca.repositorio;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Informa ao DataSourceRoteado se a thread está em uma leitura e se houve escrita recente
+ *
+ * - leitura: um interceptador marca a thread enquanto um método @SomenteLeitura executa
+ * - escrita na requisição: o JdbcTemplateMonitorado avisa cada INSERT/UPDATE/DELETE/CALL;
+ *   a marca fica nos atributos da requisição HTTP, então as leituras seguintes da
+ *   mesma requisição vão ao primário e enxergam o que ela acabou de gravar
+ * - escrita recente: instante da última escrita da instância, para que leituras de
+ *   outras requisições (e os caches que elas preenchem) não peguem da réplica um dado
+ *   anterior à escrita enquanto a réplica ainda pode estar atrasada
+ */
+@Component
+public class RoteamentoLeitura extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final String ATRIBUTO_ESCRITA = RoteamentoLeitura.class.getName() + ".escrita";
+
+    private static final ThreadLocal<Boolean> LEITURA = new ThreadLocal<>();
+
+    // System.nanoTime() da última escrita; 0 se ainda não houve
+    private static volatile long ultimaEscrita;
+
+    public RoteamentoLeitura() {
+        this.advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(SomenteLeitura.class), new Interceptador());
+    }
+
+    /**
+     * @return true se a thread está dentro de um método @SomenteLeitura
+     */
+    public static boolean emLeitura() {
+        return LEITURA.get() != null;
+    }
+
+    /**
+     * Registra uma escrita executada na thread atual (chamado pelo JdbcTemplateMonitorado)
+     */
+    public static void registrarEscrita() {
+        ultimaEscrita = System.nanoTime();
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        if (requisicao != null) {
+            requisicao.setAttribute(ATRIBUTO_ESCRITA, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * @return true se a requisição HTTP em andamento na thread já gravou no banco
+     */
+    public static boolean escreveuNaRequisicao() {
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        return requisicao != null
+                && requisicao.getAttribute(ATRIBUTO_ESCRITA, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    /**
+     * @param janelaNanos janela após a escrita (tolerância de atraso da réplica)
+     * @return true se a instância gravou no banco há menos de janelaNanos
+     */
+    public static boolean escreveuHaMenosDe(long janelaNanos) {
+        long escrita = ultimaEscrita;
+        return escrita != 0 && System.nanoTime() - escrita < janelaNanos;
+    }
+
+    private static class Interceptador implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (LEITURA.get() != null) {
+                return invocation.proceed();
+            }
+            LEITURA.set(Boolean.TRUE);
+            try {
+                return invocation.proceed();
+            } finally {
+                LEITURA.remove();
+            }
+        }
+    }
+}
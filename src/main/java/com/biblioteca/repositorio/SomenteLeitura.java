@@ -0,0 +1,20 @@
+package com.biblioteca.repositorio;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um método de serviço que só lê do banco
+ *
+ * Durante a chamada, as conexões do pool interativo vêm da réplica de
+ * leitura (quando configurada e em dia); ver RoteamentoLeitura e
+ * DataSourceRoteado. Métodos sem a marca usam sempre o banco primário.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SomenteLeitura {
+}
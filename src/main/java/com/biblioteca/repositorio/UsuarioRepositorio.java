@@ -1,6 +1,7 @@
 package com.biblioteca.repositorio;
 
 import com.biblioteca.model.Usuario;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -9,8 +10,13 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repositório para acesso aos dados de Usuário
@@ -21,8 +27,23 @@ import java.util.Optional;
 @Repository
 public class UsuarioRepositorio {
 
+    // Quantidade máxima de valores em cada "IN (...)"
+    private static final int TAMANHO_BLOCO_IN = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
+    // Pool de operações longas, usado na exportação em streaming
+    private final JdbcTemplate jdbcTemplateLongo;
+
+    // Cache das buscas por ID e por matrícula
+    private final CacheEntidade<Usuario> cacheUsuario;
+
+    // Versões usadas nas ETags das consultas
+    private final VersoesEntidade<Usuario> versoesUsuario;
+
+    // Buscas por ID iguais e simultâneas vão uma só vez ao banco
+    private final ConsultaCompartilhada<Integer, Optional<Usuario>> consultaPorId;
+
     // RowMapper: converte ResultSet (linha do banco) em objeto Usuario
     private final RowMapper<Usuario> usuarioRowMapper = (rs, rowNum) -> {
         Usuario usuario = new Usuario();
@@ -35,8 +56,16 @@ public class UsuarioRepositorio {
         return usuario;
     };
 
-    public UsuarioRepositorio(JdbcTemplate jdbcTemplate) {
+    public UsuarioRepositorio(JdbcTemplate jdbcTemplate,
+                              @Qualifier("jdbcTemplateLongo") JdbcTemplate jdbcTemplateLongo,
+                              CacheEntidade<Usuario> cacheUsuario,
+                              VersoesEntidade<Usuario> versoesUsuario,
+                              ConsultaCompartilhada<Integer, Optional<Usuario>> consultaPorId) {
         this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTemplateLongo = jdbcTemplateLongo;
+        this.cacheUsuario = cacheUsuario;
+        this.versoesUsuario = versoesUsuario;
+        this.consultaPorId = consultaPorId;
     }
 
     /**
@@ -44,6 +73,7 @@ public class UsuarioRepositorio {
      *
      * @param usuario dados do usuário a ser inserido
      * @return usuário com ID gerado pelo banco
+     * @throws org.springframework.dao.DuplicateKeyException se a matrícula (ou outro campo único) já estiver cadastrada
      */
     public Usuario inserir(Usuario usuario) {
         String sql = "INSERT INTO usuario (matricula, nome, email, telefone, cpf) VALUES (?, ?, ?, ?, ?)";
@@ -61,17 +91,81 @@ public class UsuarioRepositorio {
         }, keyHolder);
 
         usuario.setIdUsuario(keyHolder.getKey().intValue());
+        cacheUsuario.invalidarChave(usuario.getMatricula());
+        versoesUsuario.alterado(usuario.getIdUsuario());
+        consultaPorId.invalidar();
         return usuario;
     }
 
     /**
-     * READ - Busca todos os usuários
+     * READ - Busca uma página de usuários ordenada por nome (paginação por chave)
+     *
+     * Em vez de OFFSET, continua a partir do último (nome, id_usuario) visto,
+     * o que permite ao MySQL usar o índice (nome, id_usuario) e manter o mesmo
+     * custo em qualquer página.
+     *
+     * @param nomeApos nome do último usuário da página anterior (null na primeira página)
+     * @param idApos ID do último usuário da página anterior (null na primeira página)
+     * @param limite quantidade máxima de usuários
+     * @return lista de usuários da página
+     */
+    public List<Usuario> buscarPagina(String nomeApos, Integer idApos, int limite) {
+        if (nomeApos == null) {
+            String sql = "SELECT * FROM usuario ORDER BY nome, id_usuario LIMIT ?";
+            return jdbcTemplate.query(sql, usuarioRowMapper, limite);
+        }
+
+        String sql = "SELECT * FROM usuario WHERE nome > ? OR (nome = ? AND id_usuario > ?) "
+                + "ORDER BY nome, id_usuario LIMIT ?";
+        return jdbcTemplate.query(sql, usuarioRowMapper, nomeApos, nomeApos, idApos, limite);
+    }
+
+    /**
+     * READ - Percorre todos os usuários em modo streaming
+     *
+     * Usa um ResultSet forward-only; no MySQL, com fetch size Integer.MIN_VALUE,
+     * que faz o driver entregar uma linha por vez em vez de carregar a tabela
+     * inteira (ConsultaStreaming). Cada linha é mapeada pelo mesmo RowMapper
+     * das outras consultas.
+     *
+     * @param consumidor recebe cada usuário assim que é lido
+     */
+    public void percorrerTodos(Consumer<Usuario> consumidor) {
+        String sql = "SELECT * FROM usuario ORDER BY id_usuario";
+
+        int[] linha = {0};
+        jdbcTemplateLongo.query(connection -> ConsultaStreaming.preparar(connection, sql), rs -> {
+            consumidor.accept(usuarioRowMapper.mapRow(rs, linha[0]++));
+        });
+    }
+
+    /**
+     * READ - Conta o total de usuários cadastrados
+     *
+     * @return quantidade de usuários
+     */
+    public long contar() {
+        String sql = "SELECT COUNT(*) FROM usuario";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    /**
+     * ETag do usuário, lida sem ir ao banco
+     *
+     * @param id ID do usuário
+     * @return ETag fraca (W/"..."), alterada a cada escrita no usuário
+     */
+    public String etag(Integer id) {
+        return versoesUsuario.etag(id);
+    }
+
+    /**
+     * ETag da listagem de usuários, lida sem ir ao banco
      *
-     * @return lista com todos os usuários cadastrados
+     * @return ETag fraca (W/"..."), alterada a cada INSERT, UPDATE ou DELETE
      */
-    public List<Usuario> buscarTodos() {
-        String sql = "SELECT * FROM usuario ORDER BY nome";
-        return jdbcTemplate.query(sql, usuarioRowMapper);
+    public String etagColecao() {
+        return versoesUsuario.etagColecao();
     }
 
     /**
@@ -81,11 +175,39 @@ public class UsuarioRepositorio {
      * @return Optional contendo o usuário ou vazio se não encontrado
      */
     public Optional<Usuario> buscarPorId(Integer id) {
+        return cacheUsuario.buscarPorId(id, faltante -> consultaPorId.executar(faltante, this::consultarPorId));
+    }
+
+    private Optional<Usuario> consultarPorId(Integer id) {
         String sql = "SELECT * FROM usuario WHERE id_usuario = ?";
         List<Usuario> usuarios = jdbcTemplate.query(sql, usuarioRowMapper, id);
         return usuarios.isEmpty() ? Optional.empty() : Optional.of(usuarios.get(0));
     }
 
+    /**
+     * READ - Busca vários usuários por ID de uma vez
+     *
+     * Os que estão no cache não vão ao banco; os demais são lidos com
+     * "id_usuario IN (...)", uma consulta a cada TAMANHO_BLOCO_IN IDs.
+     *
+     * @param ids IDs dos usuários, sem repetição
+     * @return usuários encontrados, por ID (IDs inexistentes ficam de fora)
+     */
+    public Map<Integer, Usuario> buscarPorIds(Collection<Integer> ids) {
+        return cacheUsuario.buscarPorIds(ids, this::consultarPorIds);
+    }
+
+    private List<Usuario> consultarPorIds(List<Integer> ids) {
+        List<Usuario> usuarios = new ArrayList<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IN) {
+            List<Integer> bloco = ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_IN, ids.size()));
+            String sql = "SELECT * FROM usuario WHERE id_usuario IN ("
+                    + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")";
+            usuarios.addAll(jdbcTemplate.query(sql, usuarioRowMapper, bloco.toArray()));
+        }
+        return usuarios;
+    }
+
     /**
      * READ - Busca um usuário por matrícula
      *
@@ -93,6 +215,10 @@ public class UsuarioRepositorio {
      * @return Optional contendo o usuário ou vazio se não encontrado
      */
     public Optional<Usuario> buscarPorMatricula(String matricula) {
+        return cacheUsuario.buscarPorChave(matricula, this::consultarPorMatricula);
+    }
+
+    private Optional<Usuario> consultarPorMatricula(String matricula) {
         String sql = "SELECT * FROM usuario WHERE matricula = ?";
         List<Usuario> usuarios = jdbcTemplate.query(sql, usuarioRowMapper, matricula);
         return usuarios.isEmpty() ? Optional.empty() : Optional.of(usuarios.get(0));
@@ -101,13 +227,17 @@ public class UsuarioRepositorio {
     /**
      * UPDATE - Atualiza os dados de um usuário
      *
+     * O driver do MySQL informa as linhas encontradas (useAffectedRows=false),
+     * então um UPDATE que não muda nenhum valor também retorna 1.
+     *
      * @param id ID do usuário a ser atualizado
      * @param usuario novos dados do usuário
      * @return número de linhas afetadas (1 se sucesso, 0 se não encontrado)
+     * @throws org.springframework.dao.DuplicateKeyException se a matrícula (ou outro campo único) já pertence a outro usuário
      */
     public int atualizar(Integer id, Usuario usuario) {
         String sql = "UPDATE usuario SET matricula = ?, nome = ?, email = ?, telefone = ?, cpf = ? WHERE id_usuario = ?";
-        return jdbcTemplate.update(sql,
+        int linhas = jdbcTemplate.update(sql,
                 usuario.getMatricula(),
                 usuario.getNome(),
                 usuario.getEmail(),
@@ -115,6 +245,11 @@ public class UsuarioRepositorio {
                 usuario.getCpf(),
                 id
         );
+        cacheUsuario.invalidar(id);
+        cacheUsuario.invalidarChave(usuario.getMatricula());
+        versoesUsuario.alterado(id);
+        consultaPorId.invalidar();
+        return linhas;
     }
 
     /**
@@ -125,17 +260,48 @@ public class UsuarioRepositorio {
      */
     public int deletar(Integer id) {
         String sql = "DELETE FROM usuario WHERE id_usuario = ?";
-        return jdbcTemplate.update(sql, id);
+        int linhas = jdbcTemplate.update(sql, id);
+        cacheUsuario.invalidar(id);
+        versoesUsuario.alterado(id);
+        consultaPorId.invalidar();
+        return linhas;
     }
 
     /**
      * Chama a função do banco que conta empréstimos ativos do usuário
      *
+     * A função é chamada a partir da própria linha do usuário, então a
+     * mesma consulta também indica se o usuário existe.
+     *
      * @param idUsuario ID do usuário
-     * @return quantidade de empréstimos ativos
+     * @return Optional com a quantidade de empréstimos ativos, ou vazio se o usuário não existe
+     */
+    public Optional<Integer> contarEmprestimosAtivos(Integer idUsuario) {
+        String sql = "SELECT fn_obter_total_emprestimos_ativos(id_usuario) FROM usuario WHERE id_usuario = ?";
+        List<Integer> totais = jdbcTemplate.queryForList(sql, Integer.class, idUsuario);
+        return totais.isEmpty() ? Optional.empty() : Optional.of(totais.get(0));
+    }
+
+    /**
+     * READ - Conta os empréstimos ativos (sem data de devolução) de todos os usuários
+     *
+     * Uma única consulta agrupada no lugar de uma chamada de
+     * fn_obter_total_emprestimos_ativos por usuário. Usuários sem
+     * empréstimo ativo entram com zero.
+     *
+     * @return mapa ID do usuário → quantidade de empréstimos ativos
      */
-    public Integer contarEmprestimosAtivos(Integer idUsuario) {
-        String sql = "SELECT fn_obter_total_emprestimos_ativos(?)";
-        return jdbcTemplate.queryForObject(sql, Integer.class, idUsuario);
+    public ContadoresPorId contarEmprestimosAtivosPorUsuario() {
+        String sql = """
+                SELECT u.id_usuario, COUNT(e.id_emprestimo) AS total
+                FROM usuario u
+                LEFT JOIN emprestimo e ON e.id_usuario = u.id_usuario AND e.data_devolucao_real IS NULL
+                GROUP BY u.id_usuario
+                """;
+        ContadoresPorId totais = new ContadoresPorId();
+        jdbcTemplateLongo.query(sql, rs -> {
+            totais.gravar(rs.getInt("id_usuario"), rs.getInt("total"));
+        });
+        return totais;
     }
 }
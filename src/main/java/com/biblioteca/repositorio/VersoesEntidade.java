@@ -0,0 +1,105 @@
+package com.biblioteca.repositorio;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de versão de uma entidade, usados para gerar ETags
+ *
+ * Há uma versão por registro e uma versão da coleção inteira; os
+ * repositórios incrementam as duas a cada INSERT, UPDATE e DELETE.
+ * Assim o controller sabe, sem ir ao banco, se a cópia que o cliente
+ * tem ainda vale.
+ *
+ * As versões por registro ficam em FAIXAS contadores (o ID escolhe a
+ * faixa), para não guardar um contador por linha da tabela. Dois IDs da
+ * mesma faixa dividem a versão: uma escrita em um faz o outro responder
+ * 200 de novo, nunca um 304 indevido.
+ *
+ * A ETag também leva o instante em que a aplicação subiu e a janela de
+ * validade atual: os contadores recomeçam a cada reinício, e uma alteração
+ * feita direto no banco (ou em outra instância) só é percebida quando a
+ * janela vira, como acontece com a expiração do CacheEntidade.
+ *
+ * As ETags são fracas (W/"..."): a mesma versão sai em JSON, CBOR ou Smile,
+ * com ou sem gzip, e o Tomcat não comprime respostas com ETag forte.
+ *
+ * @param <T> tipo da entidade (Livro, Usuario)
+ */
+public class VersoesEntidade<T> {
+
+    // Potência de 2, para escolher a faixa com uma máscara
+    private static final int FAIXAS = 4096;
+
+    private final String nome;
+    private final long validadeMillis;
+    private final String inicio = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray porFaixa = new AtomicLongArray(FAIXAS);
+    private final AtomicLong colecao = new AtomicLong();
+
+    public VersoesEntidade(String nome, Duration validade) {
+        this.nome = nome;
+        this.validadeMillis = validade.toMillis();
+    }
+
+    /**
+     * Registra a alteração de um registro (chamado após INSERT, UPDATE e DELETE)
+     *
+     * Dentro de uma transação a versão é incrementada de novo depois do
+     * commit: quem leu entre a escrita e o commit recebeu os dados antigos
+     * com a versão nova, e precisa receber 200 na próxima consulta.
+     *
+     * @param id ID do registro alterado
+     */
+    public void alterado(Integer id) {
+        incrementar(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    incrementar(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * ETag fraca de um registro
+     *
+     * Deve ser obtida antes de ler o registro: se ele mudar no meio da
+     * leitura, o cliente recebe os dados novos com a ETag antiga, e a
+     * próxima consulta devolve 200 em vez de um 304 desatualizado.
+     *
+     * @param id ID do registro
+     * @return ETag no formato W/"..."
+     */
+    public String etag(Integer id) {
+        return "W/\"" + nome + "-" + id + "-" + Long.toString(porFaixa.get(faixa(id)), 36) + "-" + sufixo() + "\"";
+    }
+
+    /**
+     * ETag fraca da coleção (listagens), com a mesma regra de etag(id)
+     *
+     * @return ETag no formato W/"..."
+     */
+    public String etagColecao() {
+        return "W/\"" + nome + "s-" + Long.toString(colecao.get(), 36) + "-" + sufixo() + "\"";
+    }
+
+    private void incrementar(Integer id) {
+        porFaixa.incrementAndGet(faixa(id));
+        colecao.incrementAndGet();
+    }
+
+    private static int faixa(Integer id) {
+        return id & (FAIXAS - 1);
+    }
+
+    private String sufixo() {
+        return inicio + "." + Long.toString(System.currentTimeMillis() / validadeMillis, 36);
+    }
+}
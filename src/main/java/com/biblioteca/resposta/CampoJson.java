@@ -0,0 +1,45 @@
+package com.biblioteca.resposta;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Nome de campo JSON já codificado
+ *
+ * Criado uma vez (constante) e reaproveitado em todas as respostas:
+ * o Jackson escreve os bytes prontos, sem codificar o nome de novo.
+ */
+public final class CampoJson {
+
+    static final CampoJson SUCESSO = new CampoJson("sucesso");
+    static final CampoJson MENSAGEM = new CampoJson("mensagem");
+    static final CampoJson QUANTIDADE = new CampoJson("quantidade");
+    static final CampoJson TOTAL = new CampoJson("total");
+    static final CampoJson PROXIMO_CURSOR = new CampoJson("proximoCursor");
+    static final CampoJson NAO_ENCONTRADOS = new CampoJson("naoEncontrados");
+    static final CampoJson FALHAS = new CampoJson("falhas");
+    static final CampoJson RESULTADOS = new CampoJson("resultados");
+
+    private final SerializedString nome;
+
+    private CampoJson(String nome) {
+        this.nome = new SerializedString(nome);
+    }
+
+    /**
+     * @param nome nome do campo ("livro", "usuarios", ...)
+     * @return campo codificado, para guardar numa constante
+     */
+    public static CampoJson de(String nome) {
+        return new CampoJson(nome);
+    }
+
+    SerializableString nome() {
+        return nome;
+    }
+
+    @Override
+    public String toString() {
+        return nome.getValue();
+    }
+}
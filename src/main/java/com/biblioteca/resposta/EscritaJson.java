@@ -0,0 +1,51 @@
+package com.biblioteca.resposta;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escrita dos valores das respostas (entidades, listas de entidades)
+ */
+final class EscritaJson {
+
+    private EscritaJson() {
+    }
+
+    /**
+     * Escreve um valor com o serializador que o Jackson usa para o tipo dele
+     */
+    static void valor(JsonGenerator gerador, SerializerProvider provider, Object valor) throws IOException {
+        if (valor == null) {
+            gerador.writeNull();
+            return;
+        }
+        provider.findTypedValueSerializer(valor.getClass(), true, null).serialize(valor, gerador, provider);
+    }
+
+    /**
+     * Escreve uma lista procurando o serializador só quando o tipo do item muda
+     * (numa página de livros, uma vez por lista em vez de uma vez por livro)
+     */
+    static void lista(JsonGenerator gerador, SerializerProvider provider, List<?> itens) throws IOException {
+        gerador.writeStartArray(itens, itens.size());
+        Class<?> tipo = null;
+        JsonSerializer<Object> serializador = null;
+        for (int i = 0; i < itens.size(); i++) {
+            Object item = itens.get(i);
+            if (item == null) {
+                gerador.writeNull();
+                continue;
+            }
+            if (item.getClass() != tipo) {
+                tipo = item.getClass();
+                serializador = provider.findTypedValueSerializer(tipo, true, null);
+            }
+            serializador.serialize(item, gerador, provider);
+        }
+        gerador.writeEndArray();
+    }
+}
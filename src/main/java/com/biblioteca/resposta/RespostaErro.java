@@ -0,0 +1,47 @@
+package com.biblioteca.resposta;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Resposta de erro: { "sucesso": false, "mensagem": "..." }
+ */
+@JsonSerialize(using = RespostaErro.Serializador.class)
+public final class RespostaErro {
+
+    private final String mensagem;
+
+    public RespostaErro(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public boolean isSucesso() {
+        return false;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    static final class Serializador extends StdSerializer<RespostaErro> {
+
+        Serializador() {
+            super(RespostaErro.class);
+        }
+
+        @Override
+        public void serialize(RespostaErro resposta, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject(resposta);
+            gerador.writeFieldName(CampoJson.SUCESSO.nome());
+            gerador.writeBoolean(false);
+            gerador.writeFieldName(CampoJson.MENSAGEM.nome());
+            gerador.writeString(resposta.mensagem);
+            gerador.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.biblioteca.resposta;
+
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ResultadoPorIds;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Resposta de sucesso com uma lista, nos formatos usados pela API:
+ * - pagina:  { "sucesso", "quantidade", "livros", "proximoCursor", "total"? }
+ * - porIds:  { "sucesso", "quantidade", "livros", "naoEncontrados" }
+ * - comTotal: { "sucesso", "total", "livros" }
+ *
+ * @param <T> tipo dos itens
+ */
+@JsonSerialize(using = RespostaLista.Serializador.class)
+public final class RespostaLista<T> {
+
+    private final CampoJson campo;
+    private final List<T> itens;
+    private final boolean comQuantidade;
+    private final Long total;
+    private final boolean comCursor;
+    private final String proximoCursor;
+    private final List<Integer> naoEncontrados;
+
+    private RespostaLista(CampoJson campo, List<T> itens, boolean comQuantidade, Long total,
+                          boolean comCursor, String proximoCursor, List<Integer> naoEncontrados) {
+        this.campo = campo;
+        this.itens = itens;
+        this.comQuantidade = comQuantidade;
+        this.total = total;
+        this.comCursor = comCursor;
+        this.proximoCursor = proximoCursor;
+        this.naoEncontrados = naoEncontrados;
+    }
+
+    /**
+     * @param campo nome do campo da lista
+     * @param pagina página de resultados (o total só é escrito se foi contado)
+     * @return resposta de listagem paginada
+     */
+    public static <T> RespostaLista<T> pagina(CampoJson campo, Pagina<T> pagina) {
+        return new RespostaLista<>(campo, pagina.getItens(), true, pagina.getTotal(),
+                true, pagina.getProximoCursor(), null);
+    }
+
+    /**
+     * @param campo nome do campo da lista
+     * @param resultado itens encontrados e IDs não encontrados
+     * @return resposta da busca por lista de IDs
+     */
+    public static <T> RespostaLista<T> porIds(CampoJson campo, ResultadoPorIds<T> resultado) {
+        return new RespostaLista<>(campo, resultado.getItens(), true, null,
+                false, null, resultado.getNaoEncontrados());
+    }
+
+    /**
+     * @param campo nome do campo da lista
+     * @param itens itens da resposta
+     * @return resposta com a lista e o total de itens
+     */
+    public static <T> RespostaLista<T> comTotal(CampoJson campo, List<T> itens) {
+        return new RespostaLista<>(campo, itens, false, (long) itens.size(), false, null, null);
+    }
+
+    public boolean isSucesso() {
+        return true;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public List<Integer> getNaoEncontrados() {
+        return naoEncontrados;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static final class Serializador extends StdSerializer<RespostaLista> {
+
+        Serializador() {
+            super(RespostaLista.class);
+        }
+
+        @Override
+        public void serialize(RespostaLista resposta, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject(resposta);
+            gerador.writeFieldName(CampoJson.SUCESSO.nome());
+            gerador.writeBoolean(true);
+            if (resposta.comQuantidade) {
+                gerador.writeFieldName(CampoJson.QUANTIDADE.nome());
+                gerador.writeNumber(resposta.itens.size());
+            }
+            if (resposta.total != null) {
+                gerador.writeFieldName(CampoJson.TOTAL.nome());
+                gerador.writeNumber(resposta.total);
+            }
+            gerador.writeFieldName(resposta.campo.nome());
+            EscritaJson.lista(gerador, provider, resposta.itens);
+            if (resposta.comCursor) {
+                gerador.writeFieldName(CampoJson.PROXIMO_CURSOR.nome());
+                gerador.writeString(resposta.proximoCursor);
+            }
+            if (resposta.naoEncontrados != null) {
+                gerador.writeFieldName(CampoJson.NAO_ENCONTRADOS.nome());
+                gerador.writeStartArray(resposta.naoEncontrados, resposta.naoEncontrados.size());
+                for (Object id : resposta.naoEncontrados) {
+                    gerador.writeNumber((Integer) id);
+                }
+                gerador.writeEndArray();
+            }
+            gerador.writeEndObject();
+        }
+    }
+}
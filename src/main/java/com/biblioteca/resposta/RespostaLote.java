@@ -0,0 +1,80 @@
+package com.biblioteca.resposta;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Resposta das operações em lote:
+ * { "sucesso": true, "mensagem", "total", "inseridos", "falhas", "resultados": [...] }
+ *
+ * @param <T> tipo do resultado de cada item (ResultadoLoteLivro, ResultadoDevolucao)
+ */
+@JsonSerialize(using = RespostaLote.Serializador.class)
+public final class RespostaLote<T> {
+
+    private final String mensagem;
+    private final CampoJson campoSucessos;
+    private final long sucessos;
+    private final List<T> resultados;
+
+    /**
+     * @param mensagem resumo para o usuário ("3 de 4 livros criados")
+     * @param campoSucessos nome do campo com a quantidade de sucessos ("inseridos", "registradas")
+     * @param sucessos quantidade de itens gravados
+     * @param resultados resultado de cada item, na ordem recebida
+     */
+    public RespostaLote(String mensagem, CampoJson campoSucessos, long sucessos, List<T> resultados) {
+        this.mensagem = mensagem;
+        this.campoSucessos = campoSucessos;
+        this.sucessos = sucessos;
+        this.resultados = resultados;
+    }
+
+    public boolean isSucesso() {
+        return true;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public long getSucessos() {
+        return sucessos;
+    }
+
+    public List<T> getResultados() {
+        return resultados;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static final class Serializador extends StdSerializer<RespostaLote> {
+
+        Serializador() {
+            super(RespostaLote.class);
+        }
+
+        @Override
+        public void serialize(RespostaLote resposta, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject(resposta);
+            gerador.writeFieldName(CampoJson.SUCESSO.nome());
+            gerador.writeBoolean(true);
+            gerador.writeFieldName(CampoJson.MENSAGEM.nome());
+            gerador.writeString(resposta.mensagem);
+            gerador.writeFieldName(CampoJson.TOTAL.nome());
+            gerador.writeNumber(resposta.resultados.size());
+            gerador.writeFieldName(resposta.campoSucessos.nome());
+            gerador.writeNumber(resposta.sucessos);
+            gerador.writeFieldName(CampoJson.FALHAS.nome());
+            gerador.writeNumber(resposta.resultados.size() - resposta.sucessos);
+            gerador.writeFieldName(CampoJson.RESULTADOS.nome());
+            EscritaJson.lista(gerador, provider, resposta.resultados);
+            gerador.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.biblioteca.resposta;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Resposta de sucesso com um valor: { "sucesso": true, "mensagem": "...", "livro": {...} }
+ *
+ * A mensagem e o valor são opcionais; campos ausentes não são escritos.
+ *
+ * @param <T> tipo do valor (Livro, Usuario, ...)
+ */
+@JsonSerialize(using = RespostaSucesso.Serializador.class)
+public final class RespostaSucesso<T> {
+
+    private final String mensagem;
+    private final CampoJson campo;
+    private final T valor;
+
+    private RespostaSucesso(String mensagem, CampoJson campo, T valor) {
+        this.mensagem = mensagem;
+        this.campo = campo;
+        this.valor = valor;
+    }
+
+    /**
+     * @param campo nome do campo do valor
+     * @param valor valor devolvido
+     * @return { "sucesso": true, campo: valor }
+     */
+    public static <T> RespostaSucesso<T> de(CampoJson campo, T valor) {
+        return new RespostaSucesso<>(null, campo, valor);
+    }
+
+    /**
+     * @param mensagem mensagem para o usuário
+     * @param campo nome do campo do valor
+     * @param valor valor devolvido
+     * @return { "sucesso": true, "mensagem": mensagem, campo: valor }
+     */
+    public static <T> RespostaSucesso<T> de(String mensagem, CampoJson campo, T valor) {
+        return new RespostaSucesso<>(mensagem, campo, valor);
+    }
+
+    /**
+     * Resposta só com mensagem; por ser imutável, pode ficar numa constante
+     *
+     * @param mensagem mensagem para o usuário
+     * @return { "sucesso": true, "mensagem": mensagem }
+     */
+    public static <T> RespostaSucesso<T> mensagem(String mensagem) {
+        return new RespostaSucesso<>(mensagem, null, null);
+    }
+
+    public boolean isSucesso() {
+        return true;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public T getValor() {
+        return valor;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static final class Serializador extends StdSerializer<RespostaSucesso> {
+
+        Serializador() {
+            super(RespostaSucesso.class);
+        }
+
+        @Override
+        public void serialize(RespostaSucesso resposta, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject(resposta);
+            gerador.writeFieldName(CampoJson.SUCESSO.nome());
+            gerador.writeBoolean(true);
+            if (resposta.mensagem != null) {
+                gerador.writeFieldName(CampoJson.MENSAGEM.nome());
+                gerador.writeString(resposta.mensagem);
+            }
+            if (resposta.campo != null) {
+                gerador.writeFieldName(resposta.campo.nome());
+                EscritaJson.valor(gerador, provider, resposta.valor);
+            }
+            gerador.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.biblioteca.resposta;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Resposta com um total de um registro: { "sucesso": true, "idLivro": 5, "totalAutores": 3 }
+ */
+@JsonSerialize(using = RespostaTotal.Serializador.class)
+public final class RespostaTotal {
+
+    private final CampoJson campoId;
+    private final int id;
+    private final CampoJson campoTotal;
+    private final long total;
+
+    /**
+     * @param campoId nome do campo do ID ("idLivro", "idUsuario")
+     * @param id ID do registro
+     * @param campoTotal nome do campo do total ("totalAutores", ...)
+     * @param total valor do total
+     */
+    public RespostaTotal(CampoJson campoId, int id, CampoJson campoTotal, long total) {
+        this.campoId = campoId;
+        this.id = id;
+        this.campoTotal = campoTotal;
+        this.total = total;
+    }
+
+    public boolean isSucesso() {
+        return true;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    static final class Serializador extends StdSerializer<RespostaTotal> {
+
+        Serializador() {
+            super(RespostaTotal.class);
+        }
+
+        @Override
+        public void serialize(RespostaTotal resposta, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject(resposta);
+            gerador.writeFieldName(CampoJson.SUCESSO.nome());
+            gerador.writeBoolean(true);
+            gerador.writeFieldName(resposta.campoId.nome());
+            gerador.writeNumber(resposta.id);
+            gerador.writeFieldName(resposta.campoTotal.nome());
+            gerador.writeNumber(resposta.total);
+            gerador.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.biblioteca.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco usado na paginação por chave (keyset)
+ *
+ * Guarda a chave de ordenação (título, nome) e o ID do último
+ * registro da página. A próxima página começa logo depois dele,
+ * então o custo é o mesmo para a primeira página e para as mais distantes.
+ */
+public class CursorPaginacao {
+
+    private final String chave;
+    private final Integer id;
+
+    public CursorPaginacao(String chave, Integer id) {
+        this.chave = chave;
+        this.id = id;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Codifica o cursor em um token Base64 seguro para URL
+     *
+     * @return token opaco
+     */
+    public String codificar() {
+        String conteudo = id + ":" + chave;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um token recebido do cliente
+     *
+     * @param token token opaco (pode ser null)
+     * @return cursor decodificado, ou null se o token for vazio (primeira página)
+     * @throws IllegalArgumentException se o token for inválido
+     */
+    public static CursorPaginacao decodificar(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = conteudo.indexOf(':');
+            Integer id = Integer.valueOf(conteudo.substring(0, separador));
+            return new CursorPaginacao(conteudo.substring(separador + 1), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido: " + token);
+        }
+    }
+
+    /**
+     * Ajusta o tamanho de página pedido pelo cliente aos limites da API
+     *
+     * @param limite tamanho pedido (pode ser null)
+     * @param padrao tamanho usado quando não informado
+     * @param maximo maior tamanho permitido
+     * @return tamanho efetivo da página
+     */
+    public static int limitar(Integer limite, int padrao, int maximo) {
+        if (limite == null) {
+            return padrao;
+        }
+        return Math.max(1, Math.min(limite, maximo));
+    }
+}
@@ -1,11 +1,22 @@
 package com.biblioteca.service;
 
-import org.springframework.jdbc.core.JdbcTemplate;
+import com.biblioteca.model.Devolucao;
+import com.biblioteca.model.Emprestimo;
+import com.biblioteca.model.EmprestimoAtivo;
+import com.biblioteca.model.EmprestimoDevolvido;
+import com.biblioteca.model.ResultadoDevolucao;
+import com.biblioteca.repositorio.EmprestimoRepositorio;
+import com.biblioteca.repositorio.SomenteLeitura;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.sql.Date;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,10 +28,35 @@ import java.util.Map;
 @Service
 public class EmprestimoService {
 
-    private final JdbcTemplate jdbcTemplate;
+    private final EmprestimoRepositorio emprestimoRepositorio;
 
-    public EmprestimoService(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    // Empréstimos ativos em memória, atualizados a cada devolução
+    private final EmprestimosAtivos emprestimosAtivos;
+
+    // Total de empréstimos ativos por usuário, descontado a cada devolução
+    private final TotaisEmprestimosAtivos totaisEmprestimosAtivos;
+
+    // Transações no pool separado da procedure, que pode demorar
+    private final TransactionTemplate transactionTemplateLongo;
+
+    // Maior quantidade de devoluções aceita em uma requisição
+    private final int tamanhoMaximoLote;
+
+    // Quantidade de devoluções gravadas em cada transação
+    private final int tamanhoBloco;
+
+    public EmprestimoService(EmprestimoRepositorio emprestimoRepositorio,
+                             EmprestimosAtivos emprestimosAtivos,
+                             TotaisEmprestimosAtivos totaisEmprestimosAtivos,
+                             @Qualifier("transactionTemplateLongo") TransactionTemplate transactionTemplateLongo,
+                             @Value("${biblioteca.devolucao.tamanho-maximo:1000}") int tamanhoMaximoLote,
+                             @Value("${biblioteca.devolucao.tamanho-bloco:50}") int tamanhoBloco) {
+        this.emprestimoRepositorio = emprestimoRepositorio;
+        this.emprestimosAtivos = emprestimosAtivos;
+        this.totaisEmprestimosAtivos = totaisEmprestimosAtivos;
+        this.transactionTemplateLongo = transactionTemplateLongo;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
+        this.tamanhoBloco = tamanhoBloco;
     }
 
     /**
@@ -34,10 +70,10 @@ public class EmprestimoService {
      *
      * @param idEmprestimo ID do empréstimo a ser devolvido
      * @param dataDevolucao data da devolução (opcional, usa hoje se null)
-     * @return mapa com informações do resultado
-     * @throws RuntimeException se houver erro na devolução
+     * @return resultado da devolução, com a multa gerada
+     * @throws IllegalArgumentException se a procedure recusar a devolução
      */
-    public Map<String, Object> registrarDevolucao(Integer idEmprestimo, LocalDate dataDevolucao) {
+    public ResultadoDevolucao registrarDevolucao(Integer idEmprestimo, LocalDate dataDevolucao) {
         try {
             // Se data não informada, usa data atual
             if (dataDevolucao == null) {
@@ -45,96 +81,149 @@ public class EmprestimoService {
             }
 
             // Chama a procedure do banco
-            String sql = "CALL prc_registrar_devolucao(?, ?)";
-            jdbcTemplate.update(sql, idEmprestimo, Date.valueOf(dataDevolucao));
+            long marca = totaisEmprestimosAtivos.marca();
+            emprestimoRepositorio.registrarDevolucao(idEmprestimo, dataDevolucao);
 
-            // Verifica se foi gerada multa
-            String sqlMulta = "SELECT valor FROM multa WHERE id_emprestimo = ? ORDER BY id_multa DESC LIMIT 1";
-            Double valorMulta = null;
-
-            try {
-                valorMulta = jdbcTemplate.queryForObject(sqlMulta, Double.class, idEmprestimo);
-            } catch (Exception e) {
-                // Não tem multa (devolução sem atraso)
-            }
-
-            // Monta resposta
-            Map<String, Object> resultado = new HashMap<>();
-            resultado.put("sucesso", true);
-            resultado.put("mensagem", "Devolução registrada com sucesso!");
-            resultado.put("idEmprestimo", idEmprestimo);
-            resultado.put("dataDevolucao", dataDevolucao);
-            resultado.put("multaGerada", valorMulta != null);
-
-            if (valorMulta != null) {
-                resultado.put("valorMulta", valorMulta);
-                resultado.put("mensagemMulta", "Multa de R$ " + String.format("%.2f", valorMulta) + " gerada por atraso.");
-            } else {
-                resultado.put("valorMulta", 0.0);
-                resultado.put("mensagemMulta", "Devolução sem atraso. Nenhuma multa gerada.");
-            }
+            // Lê o usuário e a multa gerada, se houver
+            EmprestimoDevolvido devolvido = retirarDosAtivos(List.of(idEmprestimo), marca).get(idEmprestimo);
+            Double valorMulta = devolvido != null ? devolvido.getValorMulta() : null;
 
-            return resultado;
+            return ResultadoDevolucao.registrada(idEmprestimo, dataDevolucao, valorMulta);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao registrar devolução: " + e.getMessage(), e);
+        } catch (DataAccessException e) {
+            throw new IllegalArgumentException("Erro ao registrar devolução: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Lista todos os empréstimos ativos
+     * Registra várias devoluções de uma vez (caixa de devolução automática)
      *
-     * @return lista de empréstimos que ainda não foram devolvidos
+     * As devoluções são gravadas em blocos de tamanhoBloco, um bloco por
+     * transação. Cada chamada da procedure fica num savepoint: se um
+     * empréstimo falhar, só ele é desfeito e os demais seguem. Os usuários e
+     * as multas geradas são lidos ao final com uma única consulta.
+     *
+     * @param devolucoes empréstimos a devolver (data opcional, usa hoje se null)
+     * @return resultado de cada devolução, na ordem recebida
+     * @throws IllegalArgumentException se a lista estiver vazia ou for grande demais
      */
-    public Map<String, Object> listarEmprestimosAtivos() {
-        String sql = "SELECT * FROM vw_emprestimos_ativos WHERE status = 'pendente'";
+    public List<ResultadoDevolucao> registrarDevolucoesEmLote(List<Devolucao> devolucoes) {
+        if (devolucoes == null || devolucoes.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma devolução");
+        }
+        if (devolucoes.size() > tamanhoMaximoLote) {
+            throw new IllegalArgumentException("Lote excede o máximo de " + tamanhoMaximoLote + " devoluções");
+        }
 
-        var emprestimos = jdbcTemplate.queryForList(sql);
+        LocalDate hoje = LocalDate.now();
+        String[] erros = new String[devolucoes.size()];
+        long marca = totaisEmprestimosAtivos.marca();
 
-        Map<String, Object> resultado = new HashMap<>();
-        resultado.put("total", emprestimos.size());
-        resultado.put("emprestimos", emprestimos);
+        for (int inicio = 0; inicio < devolucoes.size(); inicio += tamanhoBloco) {
+            int fim = Math.min(inicio + tamanhoBloco, devolucoes.size());
+            registrarBloco(devolucoes, inicio, fim, hoje, erros);
+        }
 
-        return resultado;
+        List<Integer> devolvidos = new ArrayList<>();
+        for (int i = 0; i < devolucoes.size(); i++) {
+            if (erros[i] == null) {
+                devolvidos.add(devolucoes.get(i).getIdEmprestimo());
+            }
+        }
+        Map<Integer, EmprestimoDevolvido> lidos = retirarDosAtivos(devolvidos, marca);
+
+        List<ResultadoDevolucao> resultados = new ArrayList<>(devolucoes.size());
+        for (int i = 0; i < devolucoes.size(); i++) {
+            Devolucao devolucao = devolucoes.get(i);
+            Integer idEmprestimo = devolucao != null ? devolucao.getIdEmprestimo() : null;
+            if (erros[i] != null) {
+                resultados.add(ResultadoDevolucao.falha(idEmprestimo, erros[i]));
+            } else {
+                LocalDate data = devolucao.getDataDevolucao() != null ? devolucao.getDataDevolucao() : hoje;
+                EmprestimoDevolvido devolvido = lidos.get(idEmprestimo);
+                resultados.add(ResultadoDevolucao.registrada(idEmprestimo, data,
+                        devolvido != null ? devolvido.getValorMulta() : null));
+            }
+        }
+        return resultados;
     }
 
     /**
-     * Busca informações detalhadas de um empréstimo
+     * Retira os empréstimos devolvidos da memória e desconta do total de cada usuário
      *
-     * @param idEmprestimo ID do empréstimo
-     * @return mapa com dados do empréstimo
+     * O usuário vem da mesma consulta que lê as multas, e não do
+     * EmprestimosAtivos: o total é descontado mesmo que o empréstimo não esteja
+     * em memória (view ainda não carregada, ou empréstimo feito depois da última
+     * releitura).
+     *
+     * @param idsEmprestimo empréstimos devolvidos
+     * @param marca TotaisEmprestimosAtivos.marca() obtida antes de gravar as devoluções
+     * @return mapa ID do empréstimo → usuário e multa
+     */
+    private Map<Integer, EmprestimoDevolvido> retirarDosAtivos(List<Integer> idsEmprestimo, long marca) {
+        idsEmprestimo.forEach(emprestimosAtivos::remover);
+        Map<Integer, EmprestimoDevolvido> devolvidos = emprestimoRepositorio.buscarDevolvidos(idsEmprestimo);
+        devolvidos.values().forEach(devolvido -> totaisEmprestimosAtivos.devolvido(devolvido.getIdUsuario(), marca));
+        return devolvidos;
+    }
+
+    /**
+     * Grava as devoluções [inicio, fim) em uma transação, com um savepoint por empréstimo
      */
-    public Map<String, Object> buscarEmprestimo(Integer idEmprestimo) {
-        String sql = """
-            SELECT 
-                e.id_emprestimo,
-                u.nome as usuario,
-                l.titulo as livro,
-                e.data_emprestimo,
-                e.data_prevista_devolucao,
-                e.data_devolucao_real,
-                CASE 
-                    WHEN e.data_devolucao_real IS NULL THEN 'ATIVO'
-                    ELSE 'DEVOLVIDO'
-                END as status
-            FROM emprestimo e
-            JOIN usuario u ON e.id_usuario = u.id_usuario
-            JOIN exemplar ex ON e.id_exemplar = ex.id_exemplar
-            JOIN livro l ON ex.id_livro = l.id_livro
-            WHERE e.id_emprestimo = ?
-        """;
-
-        var emprestimo = jdbcTemplate.queryForMap(sql, idEmprestimo);
-
-        // Verifica se tem multa
-        String sqlMulta = "SELECT valor, data_pagamento FROM multa WHERE id_emprestimo = ?";
+    private void registrarBloco(List<Devolucao> devolucoes, int inicio, int fim, LocalDate hoje, String[] erros) {
         try {
-            var multa = jdbcTemplate.queryForMap(sqlMulta, idEmprestimo);
-            emprestimo.put("multa", multa);
-        } catch (Exception e) {
-            emprestimo.put("multa", null);
+            transactionTemplateLongo.executeWithoutResult(status -> {
+                for (int i = inicio; i < fim; i++) {
+                    Devolucao devolucao = devolucoes.get(i);
+                    if (devolucao == null || devolucao.getIdEmprestimo() == null) {
+                        erros[i] = "ID do empréstimo é obrigatório";
+                        continue;
+                    }
+                    LocalDate data = devolucao.getDataDevolucao() != null ? devolucao.getDataDevolucao() : hoje;
+
+                    Object savepoint = status.createSavepoint();
+                    try {
+                        emprestimoRepositorio.registrarDevolucao(devolucao.getIdEmprestimo(), data);
+                        status.releaseSavepoint(savepoint);
+                    } catch (DataAccessException e) {
+                        status.rollbackToSavepoint(savepoint);
+                        erros[i] = "Erro ao registrar devolução: " + e.getMostSpecificCause().getMessage();
+                    }
+                }
+            });
+        } catch (TransactionException | DataAccessException e) {
+            // O commit do bloco falhou: nenhuma devolução do bloco foi gravada
+            for (int i = inicio; i < fim; i++) {
+                if (erros[i] == null) {
+                    erros[i] = "Erro ao registrar devolução: " + e.getMessage();
+                }
+            }
         }
+    }
 
-        return emprestimo;
+    /**
+     * Lista os empréstimos ativos, lidos da memória (EmprestimosAtivos)
+     *
+     * @param idUsuario só os empréstimos deste usuário (opcional)
+     * @param idLivro só os empréstimos deste livro (opcional)
+     * @param apenasAtrasados só os empréstimos com devolução prevista já vencida
+     * @return lista de empréstimos que ainda não foram devolvidos
+     */
+    @SomenteLeitura
+    public List<EmprestimoAtivo> listarEmprestimosAtivos(Integer idUsuario, Integer idLivro, boolean apenasAtrasados) {
+        return emprestimosAtivos.listar(idUsuario, idLivro, apenasAtrasados);
+    }
+
+    /**
+     * Busca informações detalhadas de um empréstimo, com suas multas
+     *
+     * @param idEmprestimo ID do empréstimo
+     * @return empréstimo encontrado
+     * @throws NaoEncontradoException se o empréstimo não existir
+     */
+    @SomenteLeitura
+    public Emprestimo buscarEmprestimo(Integer idEmprestimo) {
+        return emprestimoRepositorio.buscarPorId(idEmprestimo)
+                .orElseThrow(() -> new NaoEncontradoException("Empréstimo não encontrado com ID: " + idEmprestimo));
     }
 }
@@ -0,0 +1,267 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.EmprestimoAtivo;
+import com.biblioteca.repositorio.EmprestimoRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Empréstimos ativos em memória (modelo de leitura de GET /emprestimos/ativos)
+ *
+ * Evita reavaliar a view vw_emprestimos_ativos a cada consulta do painel:
+ * - a view é lida uma vez na inicialização
+ * - cada devolução feita pela API retira o empréstimo na hora
+ * - uma reconciliação periódica relê a view e pega o que mudou fora da API
+ *   (empréstimos novos, devoluções feitas direto no banco)
+ *
+ * Índices por usuário e por livro respondem os filtros com um acesso ao mapa;
+ * o índice por data prevista de devolução separa os atrasados sem varrer os demais.
+ */
+@Component
+public class EmprestimosAtivos {
+
+    private static final Logger log = LoggerFactory.getLogger(EmprestimosAtivos.class);
+
+    private final EmprestimoRepositorio emprestimoRepositorio;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Uma leitura da view por vez (inicialização, reconciliação ou consulta antes de pronto)
+    private final ReentrantLock carga = new ReentrantLock();
+
+    // Estrutura em uso; null até a primeira leitura da view terminar
+    private Estrutura estrutura;
+
+    // Devoluções recebidas durante uma leitura da view, reaplicadas ao final
+    private List<Integer> devolvidosDuranteCarga;
+
+    public EmprestimosAtivos(EmprestimoRepositorio emprestimoRepositorio) {
+        this.emprestimoRepositorio = emprestimoRepositorio;
+    }
+
+    /**
+     * Lê a view na inicialização
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        try {
+            int diferencas = recarregar();
+            log.info("Empréstimos ativos em memória: {}", diferencas);
+        } catch (RuntimeException e) {
+            log.warn("Empréstimos ativos não carregados: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relê a view periodicamente para pegar alterações feitas fora da API
+     */
+    @Scheduled(initialDelayString = "${biblioteca.emprestimos-ativos.reconciliacao-ms:60000}",
+            fixedDelayString = "${biblioteca.emprestimos-ativos.reconciliacao-ms:60000}")
+    public void reconciliar() {
+        try {
+            int diferencas = recarregar();
+            if (diferencas > 0) {
+                log.info("Reconciliação de empréstimos ativos: {} diferença(s) corrigida(s)", diferencas);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reconciliação de empréstimos ativos falhou: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lê a view inteira e troca a estrutura em uso pela nova
+     *
+     * @return quantidade de empréstimos que entraram ou saíram em relação à estrutura anterior
+     *         (na primeira leitura, o total de empréstimos ativos)
+     */
+    public int recarregar() {
+        carga.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                devolvidosDuranteCarga = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Estrutura nova = new Estrutura();
+            try {
+                emprestimoRepositorio.listarAtivos().forEach(nova::adicionar);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    devolvidosDuranteCarga = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                devolvidosDuranteCarga.forEach(nova::remover);
+                devolvidosDuranteCarga = null;
+                int diferencas = estrutura == null ? nova.porId.size() : estrutura.diferencas(nova);
+                estrutura = nova;
+                return diferencas;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * Retira um empréstimo devolvido
+     *
+     * @param idEmprestimo ID do empréstimo
+     * @return empréstimo retirado, ou null se não estava entre os ativos em memória
+     */
+    public EmprestimoAtivo remover(Integer idEmprestimo) {
+        lock.writeLock().lock();
+        try {
+            if (devolvidosDuranteCarga != null) {
+                devolvidosDuranteCarga.add(idEmprestimo);
+            }
+            return estrutura != null ? estrutura.remover(idEmprestimo) : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lista os empréstimos ativos, com filtros opcionais
+     *
+     * Se a view ainda não foi lida (falha na inicialização), lê agora.
+     *
+     * @param idUsuario só os empréstimos deste usuário (null = todos)
+     * @param idLivro só os empréstimos deste livro (null = todos)
+     * @param apenasAtrasados só os empréstimos com data prevista anterior a hoje
+     * @return empréstimos ativos que atendem aos filtros
+     */
+    public List<EmprestimoAtivo> listar(Integer idUsuario, Integer idLivro, boolean apenasAtrasados) {
+        if (!isPronto()) {
+            recarregar();
+        }
+        LocalDate hoje = LocalDate.now();
+
+        lock.readLock().lock();
+        try {
+            // Parte do índice mais seletivo e confere os demais filtros em cada empréstimo
+            Collection<EmprestimoAtivo> candidatos;
+            if (idUsuario != null) {
+                candidatos = estrutura.porUsuario.getOrDefault(idUsuario, Map.of()).values();
+            } else if (idLivro != null) {
+                candidatos = estrutura.porLivro.getOrDefault(idLivro, Map.of()).values();
+            } else if (apenasAtrasados) {
+                candidatos = new ArrayList<>();
+                for (Map<Integer, EmprestimoAtivo> doDia : estrutura.porVencimento.headMap(hoje, false).values()) {
+                    candidatos.addAll(doDia.values());
+                }
+            } else {
+                candidatos = estrutura.porId.values();
+            }
+
+            List<EmprestimoAtivo> resultado = new ArrayList<>(candidatos.size());
+            for (EmprestimoAtivo emprestimo : candidatos) {
+                if ((idLivro == null || idLivro.equals(emprestimo.getIdLivro()))
+                        && (!apenasAtrasados || emprestimo.isAtrasado(hoje))) {
+                    resultado.add(emprestimo);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true se a view já foi lida
+     */
+    public boolean isPronto() {
+        lock.readLock().lock();
+        try {
+            return estrutura != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Empréstimos ativos e índices por usuário, livro e data prevista
+     */
+    private static final class Estrutura {
+
+        private final Map<Integer, EmprestimoAtivo> porId = new LinkedHashMap<>();
+        private final Map<Integer, Map<Integer, EmprestimoAtivo>> porUsuario = new HashMap<>();
+        private final Map<Integer, Map<Integer, EmprestimoAtivo>> porLivro = new HashMap<>();
+        private final TreeMap<LocalDate, Map<Integer, EmprestimoAtivo>> porVencimento = new TreeMap<>();
+
+        void adicionar(EmprestimoAtivo emprestimo) {
+            Integer id = emprestimo.getIdEmprestimo();
+            porId.put(id, emprestimo);
+            porUsuario.computeIfAbsent(emprestimo.getIdUsuario(), k -> new LinkedHashMap<>()).put(id, emprestimo);
+            porLivro.computeIfAbsent(emprestimo.getIdLivro(), k -> new LinkedHashMap<>()).put(id, emprestimo);
+            if (emprestimo.getDataPrevistaDevolucao() != null) {
+                porVencimento.computeIfAbsent(emprestimo.getDataPrevistaDevolucao(), k -> new LinkedHashMap<>())
+                        .put(id, emprestimo);
+            }
+        }
+
+        EmprestimoAtivo remover(Integer idEmprestimo) {
+            EmprestimoAtivo emprestimo = porId.remove(idEmprestimo);
+            if (emprestimo == null) {
+                return null;
+            }
+            retirar(porUsuario, emprestimo.getIdUsuario(), idEmprestimo);
+            retirar(porLivro, emprestimo.getIdLivro(), idEmprestimo);
+            if (emprestimo.getDataPrevistaDevolucao() != null) {
+                retirar(porVencimento, emprestimo.getDataPrevistaDevolucao(), idEmprestimo);
+            }
+            return emprestimo;
+        }
+
+        /**
+         * Quantidade de empréstimos que estão em só uma das duas estruturas
+         */
+        int diferencas(Estrutura outra) {
+            int diferencas = 0;
+            for (Integer id : porId.keySet()) {
+                if (!outra.porId.containsKey(id)) {
+                    diferencas++;
+                }
+            }
+            for (Integer id : outra.porId.keySet()) {
+                if (!porId.containsKey(id)) {
+                    diferencas++;
+                }
+            }
+            return diferencas;
+        }
+
+        private static <K> void retirar(Map<K, Map<Integer, EmprestimoAtivo>> indice, K chave, Integer idEmprestimo) {
+            Map<Integer, EmprestimoAtivo> grupo = indice.get(chave);
+            if (grupo != null) {
+                grupo.remove(idEmprestimo);
+                if (grupo.isEmpty()) {
+                    indice.remove(chave);
+                }
+            }
+        }
+    }
+}
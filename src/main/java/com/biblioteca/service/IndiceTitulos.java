@@ -0,0 +1,402 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.repositorio.LivroRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória sobre o título dos livros
+ *
+ * Substitui o "titulo LIKE '%termo%'" (que varre a tabela inteira)
+ * nas buscas do campo de pesquisa:
+ * - títulos e consultas são normalizados (sem acento, minúsculas)
+ * - cada termo do título aponta para os livros que o contêm
+ * - trigramas dos termos permitem achar partes de palavras ("dad" → "dados")
+ * - o resultado é ordenado por relevância (termo exato > prefixo > parte)
+ *
+ * O índice é montado na inicialização com uma leitura em streaming da
+ * tabela livro e atualizado pelo LivroService a cada criação, alteração
+ * ou exclusão. Enquanto não está pronto, a busca cai no banco.
+ */
+@Component
+public class IndiceTitulos {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTitulos.class);
+
+    // Palavras muito comuns em títulos, que não ajudam a distinguir livros
+    private static final Set<String> PALAVRAS_VAZIAS = Set.of(
+            "a", "o", "as", "os", "de", "da", "do", "das", "dos", "e", "em",
+            "no", "na", "nos", "nas", "um", "uma", "para", "por", "com", "ao");
+
+    private static final int PESO_EXATO = 3;
+    private static final int PESO_PREFIXO = 2;
+    private static final int PESO_PARTE = 1;
+    private static final int BONUS_FRASE = 2;
+
+    private static final Pattern MARCAS_ACENTO = Pattern.compile("\\p{M}+");
+
+    private final LivroRepositorio livroRepositorio;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Estrutura em uso; null até a primeira construção terminar
+    private Estrutura estrutura;
+
+    // Alterações recebidas durante uma construção, reaplicadas ao final
+    private List<Consumer<Estrutura>> pendentes;
+
+    public IndiceTitulos(LivroRepositorio livroRepositorio) {
+        this.livroRepositorio = livroRepositorio;
+    }
+
+    /**
+     * Monta o índice lendo todos os livros do banco (executado na inicialização)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        lock.writeLock().lock();
+        try {
+            pendentes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Estrutura nova = new Estrutura();
+        try {
+            livroRepositorio.percorrerTodos(nova::adicionar);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendentes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Índice de títulos não construído: {}", e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendentes.forEach(alteracao -> alteracao.accept(nova));
+            pendentes = null;
+            estrutura = nova;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de títulos pronto: {} livros", nova.documentos.size());
+    }
+
+    /**
+     * @return true se o índice já pode responder buscas
+     */
+    public boolean isPronto() {
+        lock.readLock().lock();
+        try {
+            return estrutura != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inclui ou substitui um livro no índice
+     *
+     * @param livro livro criado ou atualizado (com ID)
+     */
+    public void adicionar(Livro livro) {
+        Livro copia = new Livro(livro.getIsbn(), livro.getTitulo(), livro.getAnoPublicacao());
+        copia.setIdLivro(livro.getIdLivro());
+        alterar(e -> e.adicionar(copia));
+    }
+
+    /**
+     * Remove um livro do índice
+     *
+     * @param idLivro ID do livro excluído
+     */
+    public void remover(Integer idLivro) {
+        alterar(e -> e.remover(idLivro));
+    }
+
+    /**
+     * Busca livros cujo título contém todos os termos da consulta
+     *
+     * @param consulta texto digitado pelo usuário
+     * @param limite quantidade máxima de resultados
+     * @return livros ordenados por relevância e depois por título
+     */
+    public List<Livro> buscar(String consulta, int limite) {
+        String consultaNormalizada = normalizar(consulta);
+        List<String> termos = termosSignificativos(consultaNormalizada);
+        if (termos.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Estrutura atual = estrutura;
+            Map<Integer, Integer> pontuacao = null;
+            for (String termo : termos) {
+                Map<Integer, Integer> doTermo = atual.livrosComTermo(termo);
+                pontuacao = pontuacao == null ? doTermo : intersectar(pontuacao, doTermo);
+                if (pontuacao.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Encontrado> encontrados = new ArrayList<>(pontuacao.size());
+            for (Map.Entry<Integer, Integer> entrada : pontuacao.entrySet()) {
+                Documento documento = atual.documentos.get(entrada.getKey());
+                int bonus = documento.tituloNormalizado.contains(consultaNormalizada) ? BONUS_FRASE : 0;
+                encontrados.add(new Encontrado(documento.livro, entrada.getValue() + bonus));
+            }
+
+            encontrados.sort(Comparator.comparingInt((Encontrado e) -> -e.pontuacao())
+                    .thenComparing(e -> e.livro().getTitulo())
+                    .thenComparing(e -> e.livro().getIdLivro()));
+
+            List<Livro> resultado = new ArrayList<>(Math.min(limite, encontrados.size()));
+            for (int i = 0; i < encontrados.size() && i < limite; i++) {
+                resultado.add(encontrados.get(i).livro());
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tamanho atual do índice
+     *
+     * @return mapa com quantidade de livros, termos e trigramas
+     */
+    public Map<String, Object> estatisticas() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("pronto", estrutura != null);
+            if (estrutura != null) {
+                resultado.put("livros", estrutura.documentos.size());
+                resultado.put("termos", estrutura.postagens.size());
+                resultado.put("trigramas", estrutura.termosPorTrigrama.size());
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void alterar(Consumer<Estrutura> alteracao) {
+        lock.writeLock().lock();
+        try {
+            if (estrutura != null) {
+                alteracao.accept(estrutura);
+            }
+            if (pendentes != null) {
+                pendentes.add(alteracao);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<Integer, Integer> intersectar(Map<Integer, Integer> a, Map<Integer, Integer> b) {
+        Map<Integer, Integer> menor = a.size() <= b.size() ? a : b;
+        Map<Integer, Integer> maior = menor == a ? b : a;
+        Map<Integer, Integer> resultado = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entrada : menor.entrySet()) {
+            Integer outro = maior.get(entrada.getKey());
+            if (outro != null) {
+                resultado.put(entrada.getKey(), entrada.getValue() + outro);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Remove acentos e converte para minúsculas ("Programação" → "programacao")
+     */
+    static String normalizar(String texto) {
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        String semAcento = MARCAS_ACENTO.matcher(decomposto).replaceAll("");
+        return semAcento.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Quebra um texto já normalizado em termos, ignorando palavras vazias
+     */
+    static List<String> termosSignificativos(String textoNormalizado) {
+        List<String> termos = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= textoNormalizado.length(); i++) {
+            boolean letra = i < textoNormalizado.length()
+                    && Character.isLetterOrDigit(textoNormalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                String termo = textoNormalizado.substring(inicio, i);
+                if (!PALAVRAS_VAZIAS.contains(termo) && !termos.contains(termo)) {
+                    termos.add(termo);
+                }
+                inicio = -1;
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Livro indexado, com o título já normalizado e seus termos
+     */
+    private static class Documento {
+
+        private final Livro livro;
+        private final String tituloNormalizado;
+        private final List<String> termos;
+
+        private Documento(Livro livro) {
+            this.livro = livro;
+            this.tituloNormalizado = normalizar(livro.getTitulo());
+            this.termos = termosSignificativos(tituloNormalizado);
+        }
+    }
+
+    /**
+     * Livro encontrado numa busca, com sua pontuação de relevância
+     */
+    private record Encontrado(Livro livro, int pontuacao) {
+    }
+
+    /**
+     * Dados do índice; protegidos pelo lock do IndiceTitulos
+     */
+    private static class Estrutura {
+
+        private final Map<Integer, Documento> documentos = new HashMap<>();
+
+        // termo → IDs dos livros que têm o termo no título
+        private final NavigableMap<String, Set<Integer>> postagens = new TreeMap<>();
+
+        // trigrama → termos (do vocabulário) que contêm o trigrama
+        private final Map<String, Set<String>> termosPorTrigrama = new HashMap<>();
+
+        private void adicionar(Livro livro) {
+            remover(livro.getIdLivro());
+
+            Documento documento = new Documento(livro);
+            documentos.put(livro.getIdLivro(), documento);
+            for (String termo : documento.termos) {
+                Set<Integer> livros = postagens.get(termo);
+                if (livros == null) {
+                    livros = new HashSet<>();
+                    postagens.put(termo, livros);
+                    for (String trigrama : trigramas(termo)) {
+                        termosPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(termo);
+                    }
+                }
+                livros.add(livro.getIdLivro());
+            }
+        }
+
+        private void remover(Integer idLivro) {
+            Documento documento = documentos.remove(idLivro);
+            if (documento == null) {
+                return;
+            }
+            for (String termo : documento.termos) {
+                Set<Integer> livros = postagens.get(termo);
+                livros.remove(idLivro);
+                if (livros.isEmpty()) {
+                    postagens.remove(termo);
+                    for (String trigrama : trigramas(termo)) {
+                        Set<String> termos = termosPorTrigrama.get(trigrama);
+                        termos.remove(termo);
+                        if (termos.isEmpty()) {
+                            termosPorTrigrama.remove(trigrama);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Livros com algum termo que case com o termo da consulta, e o peso do melhor casamento
+         */
+        private Map<Integer, Integer> livrosComTermo(String termoConsulta) {
+            Map<String, Integer> termosCasados = new HashMap<>();
+
+            if (termoConsulta.length() < 3) {
+                // Termos curtos: apenas prefixo ("si" → "sistemas")
+                for (String termo : postagens.subMap(termoConsulta, termoConsulta + Character.MAX_VALUE).keySet()) {
+                    termosCasados.put(termo, termo.equals(termoConsulta) ? PESO_EXATO : PESO_PREFIXO);
+                }
+            } else {
+                for (String termo : candidatosPorTrigrama(termoConsulta)) {
+                    if (termo.equals(termoConsulta)) {
+                        termosCasados.put(termo, PESO_EXATO);
+                    } else if (termo.startsWith(termoConsulta)) {
+                        termosCasados.put(termo, PESO_PREFIXO);
+                    } else if (termo.contains(termoConsulta)) {
+                        termosCasados.put(termo, PESO_PARTE);
+                    }
+                }
+            }
+
+            Map<Integer, Integer> livros = new HashMap<>();
+            for (Map.Entry<String, Integer> casado : termosCasados.entrySet()) {
+                for (Integer idLivro : postagens.get(casado.getKey())) {
+                    livros.merge(idLivro, casado.getValue(), Math::max);
+                }
+            }
+            return livros;
+        }
+
+        /**
+         * Termos do vocabulário que têm todos os trigramas do termo da consulta
+         */
+        private Collection<String> candidatosPorTrigrama(String termoConsulta) {
+            List<Set<String>> conjuntos = new ArrayList<>();
+            for (String trigrama : trigramas(termoConsulta)) {
+                Set<String> termos = termosPorTrigrama.get(trigrama);
+                if (termos == null) {
+                    return List.of();
+                }
+                conjuntos.add(termos);
+            }
+            conjuntos.sort(Comparator.comparingInt(Set::size));
+
+            Set<String> candidatos = new HashSet<>(conjuntos.get(0));
+            for (int i = 1; i < conjuntos.size() && !candidatos.isEmpty(); i++) {
+                candidatos.retainAll(conjuntos.get(i));
+            }
+            return candidatos;
+        }
+
+        private static Set<String> trigramas(String termo) {
+            Set<String> resultado = new HashSet<>();
+            for (int i = 0; i + 3 <= termo.length(); i++) {
+                resultado.add(termo.substring(i, i + 3));
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.biblioteca.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Validação da lista de IDs das buscas GET /livros?ids=... e GET /usuarios?ids=...
+ */
+final class ListaIds {
+
+    // Maior quantidade de IDs aceita por requisição
+    static final int MAXIMO = 200;
+
+    private ListaIds() {
+    }
+
+    /**
+     * Remove IDs repetidos, mantendo a ordem da primeira ocorrência
+     *
+     * @param ids IDs recebidos na requisição
+     * @return IDs distintos, na ordem recebida
+     * @throws IllegalArgumentException se a lista está vazia ou passa de MAXIMO IDs
+     */
+    static Set<Integer> distintos(List<Integer> ids) {
+        Set<Integer> distintos = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(distintos::add);
+        }
+        if (distintos.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um ID em \"ids\"");
+        }
+        if (distintos.size() > MAXIMO) {
+            throw new IllegalArgumentException("Informe no máximo " + MAXIMO + " IDs por consulta");
+        }
+        return distintos;
+    }
+}
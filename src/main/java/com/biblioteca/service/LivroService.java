@@ -1,11 +1,29 @@
 package com.biblioteca.service;
 
 import com.biblioteca.model.Livro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ResultadoPorIds;
+import com.biblioteca.model.ResultadoLoteLivro;
 import com.biblioteca.repositorio.LivroRepositorio;
+import com.biblioteca.repositorio.SomenteLeitura;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Serviço de Livro - contém a lógica de negócio
@@ -16,10 +34,35 @@ import java.util.Optional;
 @Service
 public class LivroService {
 
+    private static final Logger log = LoggerFactory.getLogger(LivroService.class);
+
+    // Tamanho de página usado quando o cliente não informa o limite
+    public static final int LIMITE_PADRAO = 50;
+
+    // Maior página permitida por requisição
+    public static final int LIMITE_MAXIMO = 500;
+
     private final LivroRepositorio livroRepositorio;
+    private final IndiceTitulos indiceTitulos;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    // Maior quantidade de livros aceita em um POST /livros/lote
+    private final int tamanhoMaximoLote;
+
+    // Quantidade de livros gravados por batch JDBC (e por transação)
+    private final int tamanhoBatch;
 
-    public LivroService(LivroRepositorio livroRepositorio) {
+    public LivroService(LivroRepositorio livroRepositorio, IndiceTitulos indiceTitulos,
+                        Validator validator, TransactionTemplate transactionTemplate,
+                        @Value("${biblioteca.lote.tamanho-maximo:50000}") int tamanhoMaximoLote,
+                        @Value("${biblioteca.lote.tamanho-batch:1000}") int tamanhoBatch) {
         this.livroRepositorio = livroRepositorio;
+        this.indiceTitulos = indiceTitulos;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
+        this.tamanhoBatch = tamanhoBatch;
     }
 
     /**
@@ -30,22 +73,194 @@ public class LivroService {
      * @throws IllegalArgumentException se ISBN já existe
      */
     public Livro criar(Livro livro) {
-        // Validação: verifica se ISBN já existe
-        Optional<Livro> livroExistente = livroRepositorio.buscarPorIsbn(livro.getIsbn());
-        if (livroExistente.isPresent()) {
+        // O índice único de ISBN no banco recusa duplicados; não é preciso consultar antes
+        Livro livroCriado;
+        try {
+            livroCriado = livroRepositorio.inserir(livro);
+        } catch (DuplicateKeyException e) {
             throw new IllegalArgumentException("ISBN já cadastrado: " + livro.getIsbn());
         }
+        indiceTitulos.adicionar(livroCriado);
+        return livroCriado;
+    }
+
+    /**
+     * Cria vários livros de uma vez (cadastro em lote)
+     *
+     * - valida cada livro individualmente
+     * - verifica ISBNs repetidos no próprio lote e no banco (uma consulta por bloco)
+     * - grava com batch JDBC, um bloco por transação
+     *
+     * Um livro inválido não impede o cadastro dos demais.
+     *
+     * @param livros livros a cadastrar
+     * @return resultado de cada livro, na ordem recebida
+     * @throws IllegalArgumentException se o lote estiver vazio ou for grande demais
+     */
+    public List<ResultadoLoteLivro> criarEmLote(List<Livro> livros) {
+        if (livros == null || livros.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um livro no lote");
+        }
+        if (livros.size() > tamanhoMaximoLote) {
+            throw new IllegalArgumentException("Lote excede o máximo de " + tamanhoMaximoLote + " livros");
+        }
+
+        ResultadoLoteLivro[] resultados = new ResultadoLoteLivro[livros.size()];
+        List<Integer> validos = new ArrayList<>();
+        Set<String> isbnsDoLote = new HashSet<>();
+
+        for (int i = 0; i < livros.size(); i++) {
+            Livro livro = livros.get(i);
+            if (livro == null) {
+                resultados[i] = ResultadoLoteLivro.falha(i, null, "Livro não informado");
+                continue;
+            }
+            Set<ConstraintViolation<Livro>> violacoes = validator.validate(livro);
+            if (!violacoes.isEmpty()) {
+                String mensagem = violacoes.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                resultados[i] = ResultadoLoteLivro.falha(i, livro.getIsbn(), mensagem);
+            } else if (!isbnsDoLote.add(livro.getIsbn())) {
+                resultados[i] = ResultadoLoteLivro.falha(i, livro.getIsbn(), "ISBN repetido no lote: " + livro.getIsbn());
+            } else {
+                validos.add(i);
+            }
+        }
+
+        Set<String> existentes = livroRepositorio.buscarIsbnsExistentes(isbnsDoLote);
+
+        List<Integer> aInserir = new ArrayList<>();
+        for (Integer i : validos) {
+            String isbn = livros.get(i).getIsbn();
+            if (existentes.contains(isbn)) {
+                resultados[i] = ResultadoLoteLivro.falha(i, isbn, "ISBN já cadastrado: " + isbn);
+            } else {
+                aInserir.add(i);
+            }
+        }
 
-        return livroRepositorio.inserir(livro);
+        for (int inicio = 0; inicio < aInserir.size(); inicio += tamanhoBatch) {
+            List<Integer> bloco = aInserir.subList(inicio, Math.min(inicio + tamanhoBatch, aInserir.size()));
+            inserirBloco(livros, bloco, resultados);
+        }
+
+        return List.of(resultados);
+    }
+
+    /**
+     * Grava um bloco do lote em uma transação
+     *
+     * Se o batch falhar (por exemplo, um ISBN cadastrado por outra requisição
+     * entre a verificação e a gravação), a transação é desfeita e o bloco é
+     * gravado livro a livro para identificar quais falharam. A mensagem de
+     * cada falha é fixa; o erro do banco vai só para o log.
+     */
+    private void inserirBloco(List<Livro> livros, List<Integer> bloco, ResultadoLoteLivro[] resultados) {
+        List<Livro> livrosDoBloco = bloco.stream().map(livros::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> livroRepositorio.inserirEmLote(livrosDoBloco));
+            for (Integer i : bloco) {
+                resultados[i] = ResultadoLoteLivro.inserido(i, livros.get(i));
+                indiceTitulos.adicionar(livros.get(i));
+            }
+        } catch (DataAccessException e) {
+            for (Integer i : bloco) {
+                Livro livro = livros.get(i);
+                livro.setIdLivro(null);
+                try {
+                    Livro livroCriado = livroRepositorio.inserir(livro);
+                    resultados[i] = ResultadoLoteLivro.inserido(i, livroCriado);
+                    indiceTitulos.adicionar(livroCriado);
+                } catch (DuplicateKeyException erroItem) {
+                    resultados[i] = ResultadoLoteLivro.falha(i, livro.getIsbn(), "ISBN já cadastrado: " + livro.getIsbn());
+                } catch (DataAccessException erroItem) {
+                    // A mensagem do driver vai só para o log
+                    log.warn("Livro do lote não gravado (ISBN {}): {}", livro.getIsbn(),
+                            erroItem.getMostSpecificCause().getMessage());
+                    resultados[i] = ResultadoLoteLivro.falha(i, livro.getIsbn(), "Erro ao gravar livro");
+                }
+            }
+        }
     }
 
     /**
-     * Lista todos os livros
+     * Lista os livros em páginas ordenadas por título
      *
-     * @return lista de livros
+     * @param cursor cursor recebido na página anterior (null para a primeira)
+     * @param limite tamanho da página (limitado a LIMITE_MAXIMO)
+     * @param incluirTotal se true, conta o total de livros (consulta extra)
+     * @param incluirAutores se true, preenche o total de autores de cada livro (consulta extra)
+     * @return página de livros com o cursor da próxima página
+     * @throws IllegalArgumentException se o cursor for inválido
      */
-    public List<Livro> listarTodos() {
-        return livroRepositorio.buscarTodos();
+    @SomenteLeitura
+    public Pagina<Livro> listarPagina(String cursor, Integer limite, boolean incluirTotal, boolean incluirAutores) {
+        CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+        int tamanho = CursorPaginacao.limitar(limite, LIMITE_PADRAO, LIMITE_MAXIMO);
+
+        // Busca um item a mais para saber se existe próxima página
+        List<Livro> livros = posicao == null
+                ? livroRepositorio.buscarPagina(null, null, tamanho + 1)
+                : livroRepositorio.buscarPagina(posicao.getChave(), posicao.getId(), tamanho + 1);
+
+        String proximoCursor = null;
+        if (livros.size() > tamanho) {
+            livros = livros.subList(0, tamanho);
+            Livro ultimo = livros.get(tamanho - 1);
+            proximoCursor = new CursorPaginacao(ultimo.getTitulo(), ultimo.getIdLivro()).codificar();
+        }
+
+        Long total = incluirTotal ? livroRepositorio.contar() : null;
+        return new Pagina<>(incluirAutores ? comTotalAutores(livros) : livros, proximoCursor, total);
+    }
+
+    /**
+     * Exporta todos os livros, um por vez, sem carregá-los em memória
+     *
+     * @param consumidor recebe cada livro lido do banco
+     */
+    public void exportar(Consumer<Livro> consumidor) {
+        livroRepositorio.percorrerTodos(consumidor);
+    }
+
+    /**
+     * Busca vários livros por ID de uma vez
+     *
+     * Os livros em cache não vão ao banco; os demais são lidos
+     * juntos, em vez de uma consulta por livro.
+     *
+     * @param ids IDs pedidos (repetidos são ignorados)
+     * @return livros na ordem dos IDs e os IDs não encontrados
+     * @throws IllegalArgumentException se a lista está vazia ou tem mais de 200 IDs
+     */
+    @SomenteLeitura
+    public ResultadoPorIds<Livro> buscarPorIds(List<Integer> ids) {
+        Set<Integer> distintos = ListaIds.distintos(ids);
+        return ResultadoPorIds.ordenar(distintos, livroRepositorio.buscarPorIds(distintos));
+    }
+
+    /**
+     * ETag da listagem de livros (não consulta o banco)
+     *
+     * @return ETag fraca da coleção, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etagListagem() {
+        return livroRepositorio.etagColecao();
+    }
+
+    /**
+     * ETag de um livro (não consulta o banco)
+     *
+     * Obtida antes de buscar o livro, para que uma alteração no meio
+     * da busca nunca gere um 304 com dados antigos.
+     *
+     * @param id ID do livro
+     * @return ETag fraca do livro, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etag(Integer id) {
+        return livroRepositorio.etag(id);
     }
 
     /**
@@ -53,21 +268,32 @@ public class LivroService {
      *
      * @param id ID do livro
      * @return livro encontrado
-     * @throws IllegalArgumentException se livro não existe
+     * @throws NaoEncontradoException se livro não existe
      */
+    @SomenteLeitura
     public Livro buscarPorId(Integer id) {
         return livroRepositorio.buscarPorId(id)
-                .orElseThrow(() -> new IllegalArgumentException("Livro não encontrado com ID: " + id));
+                .orElseThrow(() -> new NaoEncontradoException("Livro não encontrado com ID: " + id));
     }
 
     /**
-     * Busca livros por título (busca parcial)
+     * Busca livros por título (busca parcial, sem diferenciar acentos e maiúsculas)
+     *
+     * Responde pelo índice em memória; só consulta o banco
+     * enquanto o índice ainda está sendo montado.
      *
      * @param titulo parte do título
-     * @return lista de livros encontrados
+     * @param limite quantidade máxima de livros (limitado a LIMITE_MAXIMO)
+     * @param incluirAutores se true, preenche o total de autores de cada livro (consulta extra)
+     * @return lista de livros encontrados, os mais relevantes primeiro
      */
-    public List<Livro> buscarPorTitulo(String titulo) {
-        return livroRepositorio.buscarPorTitulo(titulo);
+    @SomenteLeitura
+    public List<Livro> buscarPorTitulo(String titulo, Integer limite, boolean incluirAutores) {
+        int tamanho = CursorPaginacao.limitar(limite, LIMITE_PADRAO, LIMITE_MAXIMO);
+        List<Livro> livros = indiceTitulos.isPronto()
+                ? indiceTitulos.buscar(titulo, tamanho)
+                : livroRepositorio.buscarPorTitulo(titulo, tamanho);
+        return incluirAutores ? comTotalAutores(livros) : livros;
     }
 
     /**
@@ -76,20 +302,24 @@ public class LivroService {
      * @param id ID do livro
      * @param livro novos dados
      * @return livro atualizado
-     * @throws IllegalArgumentException se livro não existe
+     * @throws NaoEncontradoException se livro não existe
+     * @throws IllegalArgumentException se o ISBN é de outro livro
      */
     public Livro atualizar(Integer id, Livro livro) {
-        // Verifica se o livro existe
-        buscarPorId(id);
-
-        // Verifica se o novo ISBN já está em uso por outro livro
-        Optional<Livro> livroComMesmoIsbn = livroRepositorio.buscarPorIsbn(livro.getIsbn());
-        if (livroComMesmoIsbn.isPresent() && !livroComMesmoIsbn.get().getIdLivro().equals(id)) {
+        // Um único UPDATE: 0 linhas indica livro inexistente e o
+        // índice único indica ISBN em uso por outro livro
+        int linhas;
+        try {
+            linhas = livroRepositorio.atualizar(id, livro);
+        } catch (DuplicateKeyException e) {
             throw new IllegalArgumentException("ISBN já em uso por outro livro: " + livro.getIsbn());
         }
+        if (linhas == 0) {
+            throw new NaoEncontradoException("Livro não encontrado com ID: " + id);
+        }
 
-        livroRepositorio.atualizar(id, livro);
         livro.setIdLivro(id);
+        indiceTitulos.adicionar(livro);
         return livro;
     }
 
@@ -97,11 +327,13 @@ public class LivroService {
      * Deleta um livro
      *
      * @param id ID do livro
-     * @throws IllegalArgumentException se livro não existe
+     * @throws NaoEncontradoException se livro não existe
      */
     public void deletar(Integer id) {
-        buscarPorId(id); // Verifica se existe
-        livroRepositorio.deletar(id);
+        if (livroRepositorio.deletar(id) == 0) {
+            throw new NaoEncontradoException("Livro não encontrado com ID: " + id);
+        }
+        indiceTitulos.remover(id);
     }
 
     /**
@@ -110,9 +342,39 @@ public class LivroService {
      *
      * @param id ID do livro
      * @return quantidade de autores associados
+     * @throws NaoEncontradoException se livro não existe
      */
+    @SomenteLeitura
     public Integer obterTotalAutores(Integer id) {
-        buscarPorId(id); // Verifica se livro existe
-        return livroRepositorio.contarAutores(id);
+        return livroRepositorio.contarAutores(id)
+                .orElseThrow(() -> new NaoEncontradoException("Livro não encontrado com ID: " + id));
+    }
+
+    /**
+     * Obtém o total de autores de vários livros com uma consulta agrupada
+     *
+     * Não verifica se os livros existem: um ID sem livro tem 0 autores.
+     *
+     * @param ids IDs dos livros
+     * @return total de autores por ID (0 para os livros sem autores)
+     */
+    @SomenteLeitura
+    public Map<Integer, Integer> obterTotaisAutores(Collection<Integer> ids) {
+        Map<Integer, Integer> totais = livroRepositorio.contarAutoresPorLivro(ids);
+        for (Integer id : ids) {
+            totais.putIfAbsent(id, 0);
+        }
+        return totais;
+    }
+
+    /**
+     * Cópias dos livros com o total de autores preenchido (uma consulta para a lista toda)
+     */
+    private List<Livro> comTotalAutores(List<Livro> livros) {
+        if (livros.isEmpty()) {
+            return livros;
+        }
+        Map<Integer, Integer> totais = obterTotaisAutores(livros.stream().map(Livro::getIdLivro).toList());
+        return livros.stream().map(livro -> livro.comTotalAutores(totais.get(livro.getIdLivro()))).toList();
     }
 }
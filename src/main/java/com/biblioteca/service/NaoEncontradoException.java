@@ -0,0 +1,14 @@
+package com.biblioteca.service;
+
+/**
+ * Erro de registro inexistente (livro, usuário, empréstimo)
+ *
+ * Continua sendo uma IllegalArgumentException, como os demais erros de
+ * negócio; o TratamentoErros responde 404 em vez de 400.
+ */
+public class NaoEncontradoException extends IllegalArgumentException {
+
+    public NaoEncontradoException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,253 @@
+package com.biblioteca.service;
+
+import com.biblioteca.repositorio.ContadoresPorId;
+import com.biblioteca.repositorio.UsuarioRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Total de empréstimos ativos de cada usuário, em memória
+ *
+ * Responde GET /usuarios/{id}/emprestimos-ativos (consultado pelo balcão
+ * antes de cada empréstimo) sem ir ao banco:
+ * - os totais de todos os usuários vêm de uma consulta agrupada na inicialização
+ * - devoluções, cadastros e exclusões feitos pela API ajustam o total na hora
+ * - uma reconciliação periódica recarrega os totais e corrige o que mudou fora da API
+ *
+ * A API não registra empréstimos: um empréstimo novo só entra no total na
+ * reconciliação seguinte. Até lá o total fica abaixo do real, e o balcão pode
+ * liberar um empréstimo além do limite do usuário. Por isso a reconciliação
+ * dos totais tem intervalo próprio, mais curto que o da view
+ * (biblioteca.emprestimos-ativos.totais.reconciliacao-ms). Quando houver um
+ * registro de empréstimo pela API, ele deve somar ao total na hora, como a
+ * devolução desconta.
+ *
+ * Um usuário ausente (ex.: cadastrado direto no banco) é consultado uma vez
+ * pela fn_obter_total_emprestimos_ativos e passa a ser atendido da memória.
+ *
+ * Cada carga recebe um número ao começar. A devolução pega marca() antes de
+ * gravar no banco e só desconta dos totais de uma carga que começou antes
+ * dela: essa carga ainda conta o empréstimo como ativo. Se a consulta
+ * agrupada começou depois, ela pode já ter visto a devolução; o total do
+ * usuário é relido do banco em vez de descontado, para não descontar duas vezes.
+ */
+@Component
+public class TotaisEmprestimosAtivos {
+
+    private static final Logger log = LoggerFactory.getLogger(TotaisEmprestimosAtivos.class);
+
+    private final UsuarioRepositorio usuarioRepositorio;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Uma carga por vez (inicialização ou reconciliação)
+    private final ReentrantLock carga = new ReentrantLock();
+
+    // Totais em uso; null até a primeira carga terminar
+    private ContadoresPorId totais;
+
+    // Número da carga que produziu os totais em uso
+    private long cargaDosTotais;
+
+    // Cargas já iniciadas; a carga em andamento, se houver, é a de número cargasIniciadas
+    private long cargasIniciadas;
+
+    // Alterações recebidas durante uma carga, reaplicadas ao final
+    private List<Consumer<ContadoresPorId>> pendentes;
+
+    public TotaisEmprestimosAtivos(UsuarioRepositorio usuarioRepositorio) {
+        this.usuarioRepositorio = usuarioRepositorio;
+    }
+
+    /**
+     * Carrega os totais na inicialização
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        try {
+            recarregar();
+            log.info("Totais de empréstimos ativos carregados: {} usuários", quantidadeUsuarios());
+        } catch (RuntimeException e) {
+            log.warn("Totais de empréstimos ativos não carregados: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recarrega os totais periodicamente para pegar alterações feitas fora da API
+     * (principalmente empréstimos novos)
+     */
+    @Scheduled(initialDelayString = "${biblioteca.emprestimos-ativos.totais.reconciliacao-ms:10000}",
+            fixedDelayString = "${biblioteca.emprestimos-ativos.totais.reconciliacao-ms:10000}")
+    public void reconciliar() {
+        try {
+            recarregar();
+        } catch (RuntimeException e) {
+            log.warn("Reconciliação dos totais de empréstimos ativos falhou: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lê os totais de todos os usuários e troca os totais em uso pelos novos
+     */
+    public void recarregar() {
+        carga.lock();
+        try {
+            long numero;
+            lock.writeLock().lock();
+            try {
+                numero = ++cargasIniciadas;
+                pendentes = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            ContadoresPorId novos;
+            try {
+                novos = usuarioRepositorio.contarEmprestimosAtivosPorUsuario();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendentes = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendentes.forEach(alteracao -> alteracao.accept(novos));
+                pendentes = null;
+                totais = novos;
+                cargaDosTotais = numero;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * @param idUsuario ID do usuário
+     * @return total de empréstimos ativos, ou ContadoresPorId.AUSENTE se o
+     *         usuário não está em memória (ou os totais ainda não foram carregados)
+     */
+    public int total(int idUsuario) {
+        lock.readLock().lock();
+        try {
+            return totais == null ? ContadoresPorId.AUSENTE : totais.valor(idUsuario);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marca a ser obtida antes de gravar uma devolução no banco e passada a devolvido()
+     *
+     * @return número de cargas iniciadas até agora
+     */
+    public long marca() {
+        lock.readLock().lock();
+        try {
+            return cargasIniciadas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Grava o total de um usuário ausente (usuário novo ou total lido do banco)
+     *
+     * Um total já em memória não é sobrescrito: ele pode ter vindo de uma
+     * carga mais recente que a leitura deste valor.
+     *
+     * @param idUsuario ID do usuário
+     * @param total empréstimos ativos
+     */
+    public void registrar(int idUsuario, int total) {
+        alterar(t -> {
+            if (t.valor(idUsuario) == ContadoresPorId.AUSENTE) {
+                t.gravar(idUsuario, total);
+            }
+        });
+    }
+
+    /**
+     * Desconta um empréstimo devolvido do total do usuário
+     *
+     * Se alguma carga começou depois da marca, a consulta agrupada pode já ter
+     * visto a devolução: o total do usuário é relido do banco.
+     *
+     * @param idUsuario ID do usuário do empréstimo
+     * @param marca valor de marca() obtido antes de gravar a devolução
+     */
+    public void devolvido(int idUsuario, long marca) {
+        lock.writeLock().lock();
+        try {
+            boolean totaisAnteriores = totais == null || cargaDosTotais <= marca;
+            boolean cargaAnterior = pendentes == null || cargasIniciadas <= marca;
+            if (totaisAnteriores && cargaAnterior) {
+                alterar(t -> t.somar(idUsuario, -1));
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reler(idUsuario);
+    }
+
+    /**
+     * Retira um usuário excluído
+     *
+     * @param idUsuario ID do usuário
+     */
+    public void usuarioRemovido(int idUsuario) {
+        alterar(t -> t.remover(idUsuario));
+    }
+
+    private int quantidadeUsuarios() {
+        lock.readLock().lock();
+        try {
+            return totais == null ? 0 : totais.tamanho();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // O total lido depois da devolução vale para os totais em uso e para a carga em andamento
+    private void reler(int idUsuario) {
+        Optional<Integer> doBanco = usuarioRepositorio.contarEmprestimosAtivos(idUsuario);
+        alterar(t -> {
+            if (doBanco.isPresent()) {
+                t.gravar(idUsuario, doBanco.get());
+            } else {
+                t.remover(idUsuario);
+            }
+        });
+    }
+
+    private void alterar(Consumer<ContadoresPorId> alteracao) {
+        lock.writeLock().lock();
+        try {
+            if (totais != null) {
+                alteracao.accept(totais);
+            }
+            if (pendentes != null) {
+                pendentes.add(alteracao);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
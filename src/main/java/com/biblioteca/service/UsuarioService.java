@@ -1,11 +1,21 @@
 package com.biblioteca.service;
 
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ResultadoPorIds;
 import com.biblioteca.model.Usuario;
+import com.biblioteca.repositorio.ContadoresPorId;
+import com.biblioteca.repositorio.SomenteLeitura;
 import com.biblioteca.repositorio.UsuarioRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Serviço de Usuário - contém a lógica de negócio
@@ -16,10 +26,26 @@ import java.util.Optional;
 @Service
 public class UsuarioService {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioService.class);
+
+    // Nome do índice único na mensagem do MySQL, sem o prefixo da tabela (MySQL 8: 'usuario.matricula')
+    private static final Pattern INDICE_DUPLICADO = Pattern.compile("for key '(?:[^'.]*\\.)?([^']+)'");
+    private static final String INDICE_MATRICULA = "matricula";
+
+    // Tamanho de página usado quando o cliente não informa o limite
+    public static final int LIMITE_PADRAO = 50;
+
+    // Maior página permitida por requisição
+    public static final int LIMITE_MAXIMO = 500;
+
     private final UsuarioRepositorio usuarioRepositorio;
 
-    public UsuarioService(UsuarioRepositorio usuarioRepositorio) {
+    // Total de empréstimos ativos por usuário, em memória
+    private final TotaisEmprestimosAtivos totaisEmprestimosAtivos;
+
+    public UsuarioService(UsuarioRepositorio usuarioRepositorio, TotaisEmprestimosAtivos totaisEmprestimosAtivos) {
         this.usuarioRepositorio = usuarioRepositorio;
+        this.totaisEmprestimosAtivos = totaisEmprestimosAtivos;
     }
 
     /**
@@ -30,22 +56,92 @@ public class UsuarioService {
      * @throws IllegalArgumentException se matrícula já existe
      */
     public Usuario criar(Usuario usuario) {
-        // Validação: verifica se matrícula já existe
-        Optional<Usuario> usuarioExistente = usuarioRepositorio.buscarPorMatricula(usuario.getMatricula());
-        if (usuarioExistente.isPresent()) {
-            throw new IllegalArgumentException("Matrícula já cadastrada: " + usuario.getMatricula());
+        // O índice único de matrícula no banco recusa duplicados; não é preciso consultar antes
+        Usuario usuarioCriado;
+        try {
+            usuarioCriado = usuarioRepositorio.inserir(usuario);
+        } catch (DuplicateKeyException e) {
+            throw dadoDuplicado(e, "Matrícula já cadastrada: " + usuario.getMatricula());
+        }
+        totaisEmprestimosAtivos.registrar(usuarioCriado.getIdUsuario(), 0);
+        return usuarioCriado;
+    }
+
+    /**
+     * Lista os usuários em páginas ordenadas por nome
+     *
+     * @param cursor cursor recebido na página anterior (null para a primeira)
+     * @param limite tamanho da página (limitado a LIMITE_MAXIMO)
+     * @param incluirTotal se true, conta o total de usuários (consulta extra)
+     * @return página de usuários com o cursor da próxima página
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    @SomenteLeitura
+    public Pagina<Usuario> listarPagina(String cursor, Integer limite, boolean incluirTotal) {
+        CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+        int tamanho = CursorPaginacao.limitar(limite, LIMITE_PADRAO, LIMITE_MAXIMO);
+
+        // Busca um item a mais para saber se existe próxima página
+        List<Usuario> usuarios = posicao == null
+                ? usuarioRepositorio.buscarPagina(null, null, tamanho + 1)
+                : usuarioRepositorio.buscarPagina(posicao.getChave(), posicao.getId(), tamanho + 1);
+
+        String proximoCursor = null;
+        if (usuarios.size() > tamanho) {
+            usuarios = usuarios.subList(0, tamanho);
+            Usuario ultimo = usuarios.get(tamanho - 1);
+            proximoCursor = new CursorPaginacao(ultimo.getNome(), ultimo.getIdUsuario()).codificar();
         }
 
-        return usuarioRepositorio.inserir(usuario);
+        Long total = incluirTotal ? usuarioRepositorio.contar() : null;
+        return new Pagina<>(usuarios, proximoCursor, total);
     }
 
     /**
-     * Lista todos os usuários
+     * Exporta todos os usuários, um por vez, sem carregá-los em memória
      *
-     * @return lista de usuários
+     * @param consumidor recebe cada usuário lido do banco
      */
-    public List<Usuario> listarTodos() {
-        return usuarioRepositorio.buscarTodos();
+    public void exportar(Consumer<Usuario> consumidor) {
+        usuarioRepositorio.percorrerTodos(consumidor);
+    }
+
+    /**
+     * Busca vários usuários por ID de uma vez
+     *
+     * Os usuários em cache não vão ao banco; os demais são lidos
+     * juntos, em vez de uma consulta por usuário.
+     *
+     * @param ids IDs pedidos (repetidos são ignorados)
+     * @return usuários na ordem dos IDs e os IDs não encontrados
+     * @throws IllegalArgumentException se a lista está vazia ou tem mais de 200 IDs
+     */
+    @SomenteLeitura
+    public ResultadoPorIds<Usuario> buscarPorIds(List<Integer> ids) {
+        Set<Integer> distintos = ListaIds.distintos(ids);
+        return ResultadoPorIds.ordenar(distintos, usuarioRepositorio.buscarPorIds(distintos));
+    }
+
+    /**
+     * ETag da listagem de usuários (não consulta o banco)
+     *
+     * @return ETag fraca da coleção, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etagListagem() {
+        return usuarioRepositorio.etagColecao();
+    }
+
+    /**
+     * ETag de um usuário (não consulta o banco)
+     *
+     * Obtida antes de buscar o usuário, para que uma alteração no meio
+     * da busca nunca gere um 304 com dados antigos.
+     *
+     * @param id ID do usuário
+     * @return ETag fraca do usuário, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etag(Integer id) {
+        return usuarioRepositorio.etag(id);
     }
 
     /**
@@ -53,11 +149,12 @@ public class UsuarioService {
      *
      * @param id ID do usuário
      * @return usuário encontrado
-     * @throws IllegalArgumentException se usuário não existe
+     * @throws NaoEncontradoException se usuário não existe
      */
+    @SomenteLeitura
     public Usuario buscarPorId(Integer id) {
         return usuarioRepositorio.buscarPorId(id)
-                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado com ID: " + id));
+                .orElseThrow(() -> new NaoEncontradoException("Usuário não encontrado com ID: " + id));
     }
 
     /**
@@ -66,19 +163,22 @@ public class UsuarioService {
      * @param id ID do usuário
      * @param usuario novos dados
      * @return usuário atualizado
-     * @throws IllegalArgumentException se usuário não existe
+     * @throws NaoEncontradoException se usuário não existe
+     * @throws IllegalArgumentException se a matrícula é de outro usuário
      */
     public Usuario atualizar(Integer id, Usuario usuario) {
-        // Verifica se o usuário existe
-        buscarPorId(id);
-
-        // Verifica se a nova matrícula já está em uso por outro usuário
-        Optional<Usuario> usuarioComMesmaMatricula = usuarioRepositorio.buscarPorMatricula(usuario.getMatricula());
-        if (usuarioComMesmaMatricula.isPresent() && !usuarioComMesmaMatricula.get().getIdUsuario().equals(id)) {
-            throw new IllegalArgumentException("Matrícula já em uso por outro usuário: " + usuario.getMatricula());
+        // Um único UPDATE: 0 linhas indica usuário inexistente e o
+        // índice único indica matrícula em uso por outro usuário
+        int linhas;
+        try {
+            linhas = usuarioRepositorio.atualizar(id, usuario);
+        } catch (DuplicateKeyException e) {
+            throw dadoDuplicado(e, "Matrícula já em uso por outro usuário: " + usuario.getMatricula());
+        }
+        if (linhas == 0) {
+            throw new NaoEncontradoException("Usuário não encontrado com ID: " + id);
         }
 
-        usuarioRepositorio.atualizar(id, usuario);
         usuario.setIdUsuario(id);
         return usuario;
     }
@@ -87,22 +187,55 @@ public class UsuarioService {
      * Deleta um usuário
      *
      * @param id ID do usuário
-     * @throws IllegalArgumentException se usuário não existe
+     * @throws NaoEncontradoException se usuário não existe
      */
     public void deletar(Integer id) {
-        buscarPorId(id); // Verifica se existe
-        usuarioRepositorio.deletar(id);
+        if (usuarioRepositorio.deletar(id) == 0) {
+            throw new NaoEncontradoException("Usuário não encontrado com ID: " + id);
+        }
+        totaisEmprestimosAtivos.usuarioRemovido(id);
     }
 
     /**
      * Obtém o total de empréstimos ativos de um usuário
-     * Chama a função fn_obter_total_emprestimos_ativos do banco
+     *
+     * Lido da memória (TotaisEmprestimosAtivos); só um usuário ausente dela
+     * chama a função fn_obter_total_emprestimos_ativos do banco.
      *
      * @param id ID do usuário
      * @return quantidade de empréstimos ativos
+     * @throws NaoEncontradoException se usuário não existe
      */
     public Integer obterTotalEmprestimosAtivos(Integer id) {
-        buscarPorId(id); // Verifica se usuário existe
-        return usuarioRepositorio.contarEmprestimosAtivos(id);
+        int total = totaisEmprestimosAtivos.total(id);
+        if (total != ContadoresPorId.AUSENTE) {
+            return total;
+        }
+        Integer doBanco = usuarioRepositorio.contarEmprestimosAtivos(id)
+                .orElseThrow(() -> new NaoEncontradoException("Usuário não encontrado com ID: " + id));
+        totaisEmprestimosAtivos.registrar(id, doBanco);
+        return doBanco;
+    }
+
+    /**
+     * Traduz a violação de um índice único para a mensagem de erro da API
+     *
+     * O índice é identificado pelo nome que o MySQL informa ("Duplicate entry
+     * '...' for key 'usuario.matricula'"). Violações de outros índices (ex.: CPF)
+     * recebem uma mensagem fixa; o texto do banco, com nomes de tabela e índice,
+     * vai só para o log.
+     *
+     * @param e erro do banco
+     * @param mensagemMatricula mensagem usada quando a violação é na matrícula
+     * @return exceção com a mensagem adequada
+     */
+    static IllegalArgumentException dadoDuplicado(DuplicateKeyException e, String mensagemMatricula) {
+        String causa = e.getMostSpecificCause().getMessage();
+        Matcher indice = causa == null ? null : INDICE_DUPLICADO.matcher(causa);
+        if (indice != null && indice.find() && INDICE_MATRICULA.equalsIgnoreCase(indice.group(1))) {
+            return new IllegalArgumentException(mensagemMatricula);
+        }
+        log.info("Cadastro de usuário recusado por índice único: {}", causa);
+        return new IllegalArgumentException("Dados já cadastrados para outro usuário");
     }
 }
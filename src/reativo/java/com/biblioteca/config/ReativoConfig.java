@@ -0,0 +1,32 @@
+package com.biblioteca.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuração do perfil "reativo" (application-reativo.properties)
+ *
+ * Nesse perfil a aplicação sobe com WebFlux:
+ * - livros e usuários são atendidos pelos controllers reativos, com acesso
+ *   ao banco pelo R2DBC (pool configurado em spring.r2dbc.*)
+ * - os demais controllers (empréstimos, monitoramento) continuam usando
+ *   JdbcTemplate; o WebFlux os executa no applicationTaskExecutor (threads
+ *   virtuais), fora das threads que atendem as conexões
+ */
+@Configuration
+@Profile("reativo")
+public class ReativoConfig {
+
+    /**
+     * Servidor Netty no lugar do Tomcat (ambos estão no classpath):
+     * poucas threads de evento atendem milhares de conexões abertas
+     *
+     * @return fábrica do servidor reativo
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,189 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.ResultadoLoteLivro;
+import com.biblioteca.resposta.RespostaLista;
+import com.biblioteca.resposta.RespostaLote;
+import com.biblioteca.resposta.RespostaSucesso;
+import com.biblioteca.resposta.RespostaTotal;
+import com.biblioteca.service.LivroServiceReativo;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.biblioteca.controller.LivroController.*;
+
+/**
+ * Controller REST de Livros no perfil "reativo" (WebFlux + R2DBC)
+ *
+ * Mesmas rotas e o mesmo JSON do LivroController, que é usado fora
+ * desse perfil. Nenhuma thread fica parada esperando o banco ou um
+ * cliente lento: a resposta é escrita quando o resultado chega.
+ * Um erro no Mono chega ao TratamentoErros, como no controller MVC.
+ */
+@RestController
+@RequestMapping("/livros")
+@CrossOrigin(origins = "*")
+@Profile("reativo")
+public class LivroControllerReativo {
+
+    private final LivroServiceReativo livroService;
+
+    public LivroControllerReativo(LivroServiceReativo livroService) {
+        this.livroService = livroService;
+    }
+
+    /**
+     * CREATE - Criar um novo livro
+     *
+     * POST /api/livros
+     */
+    @PostMapping
+    public Mono<ResponseEntity<RespostaSucesso<Livro>>> criar(@Valid @RequestBody Livro livro) {
+        return livroService.criar(livro)
+                .map(livroCriado -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(RespostaSucesso.de("Livro criado com sucesso!", LIVRO, livroCriado)));
+    }
+
+    /**
+     * CREATE - Criar vários livros de uma vez (cadastro em lote)
+     *
+     * POST /api/livros/lote
+     */
+    @PostMapping("/lote")
+    public Mono<ResponseEntity<RespostaLote<ResultadoLoteLivro>>> criarEmLote(@RequestBody List<Livro> livros) {
+        return livroService.criarEmLote(livros)
+                .map(resultados -> ResponseEntity.ok(respostaLote(resultados)));
+    }
+
+    /**
+     * READ - Listar livros, paginado por cursor e ordenado por título
+     *
+     * GET /api/livros?limite=100&cursor=...&incluirTotal=true&incluirAutores=true
+     */
+    @GetMapping
+    public Mono<ResponseEntity<RespostaLista<Livro>>> listarTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirTotal,
+            @RequestParam(defaultValue = "false") boolean incluirAutores,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (incluirAutores) {
+            return livroService.listarPagina(cursor, limite, incluirTotal, true)
+                    .map(pagina -> ResponseEntity.ok(RespostaLista.pagina(LIVROS, pagina)));
+        }
+        // A ETag é lida antes do banco: com If-None-Match correspondente, responde 304 sem consultar
+        String etag = livroService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return Mono.just(RespostaCondicional.naoModificada(etag));
+        }
+        return livroService.listarPagina(cursor, limite, incluirTotal, false)
+                .map(pagina -> ResponseEntity.ok().eTag(etag).body(RespostaLista.pagina(LIVROS, pagina)));
+    }
+
+    /**
+     * READ - Buscar vários livros por ID de uma vez
+     *
+     * GET /api/livros?ids=12,7,31  (até 200 IDs)
+     */
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<RespostaLista<Livro>>> buscarPorIds(
+            @RequestParam List<Integer> ids,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = livroService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return Mono.just(RespostaCondicional.naoModificada(etag));
+        }
+        return livroService.buscarPorIds(ids)
+                .map(resultado -> ResponseEntity.ok().eTag(etag).body(RespostaLista.porIds(LIVROS, resultado)));
+    }
+
+    /**
+     * READ - Exportar todos os livros em NDJSON (um objeto JSON por linha)
+     *
+     * GET /api/livros/export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<Livro>> exportar() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"livros.ndjson\"")
+                .body(livroService.exportar());
+    }
+
+    /**
+     * READ - Buscar livro por ID
+     *
+     * GET /api/livros/{id}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<RespostaSucesso<Livro>>> buscarPorId(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = livroService.etag(id);
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return Mono.just(RespostaCondicional.naoModificada(etag));
+        }
+        return livroService.buscarPorId(id)
+                .map(livro -> ResponseEntity.ok().eTag(etag).body(RespostaSucesso.de(LIVRO, livro)));
+    }
+
+    /**
+     * READ - Buscar livros por título (busca parcial, ordenada por relevância)
+     *
+     * GET /api/livros/buscar?titulo=banco&limite=20&incluirAutores=true
+     */
+    @GetMapping("/buscar")
+    public Mono<ResponseEntity<RespostaLista<Livro>>> buscarPorTitulo(
+            @RequestParam String titulo,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirAutores) {
+        return livroService.buscarPorTitulo(titulo, limite, incluirAutores)
+                .map(livros -> ResponseEntity.ok(RespostaLista.comTotal(LIVROS, livros)));
+    }
+
+    /**
+     * UPDATE - Atualizar livro
+     *
+     * PUT /api/livros/{id}
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<RespostaSucesso<Livro>>> atualizar(
+            @PathVariable Integer id,
+            @Valid @RequestBody Livro livro) {
+        return livroService.atualizar(id, livro)
+                .map(livroAtualizado -> ResponseEntity.ok(
+                        RespostaSucesso.de("Livro atualizado com sucesso!", LIVRO, livroAtualizado)));
+    }
+
+    /**
+     * DELETE - Deletar livro
+     *
+     * DELETE /api/livros/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<RespostaSucesso<Void>>> deletar(@PathVariable Integer id) {
+        return livroService.deletar(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(DELETADO)));
+    }
+
+    /**
+     * Obtém total de autores do livro
+     * Chama a função fn_contar_autores_livro do banco
+     *
+     * GET /api/livros/{id}/autores
+     */
+    @GetMapping("/{id}/autores")
+    public Mono<ResponseEntity<RespostaTotal>> obterTotalAutores(@PathVariable Integer id) {
+        return livroService.obterTotalAutores(id)
+                .map(total -> ResponseEntity.ok(new RespostaTotal(ID_LIVRO, id, TOTAL_AUTORES, total)));
+    }
+}
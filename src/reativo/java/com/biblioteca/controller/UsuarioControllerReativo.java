@@ -0,0 +1,156 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.model.Usuario;
+import com.biblioteca.resposta.RespostaLista;
+import com.biblioteca.resposta.RespostaSucesso;
+import com.biblioteca.resposta.RespostaTotal;
+import com.biblioteca.service.UsuarioServiceReativo;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.biblioteca.controller.UsuarioController.*;
+
+/**
+ * Controller REST de Usuários no perfil "reativo" (WebFlux + R2DBC)
+ *
+ * Mesmas rotas e o mesmo JSON do UsuarioController, que é usado fora
+ * desse perfil. Nenhuma thread fica parada esperando o banco ou um
+ * cliente lento: a resposta é escrita quando o resultado chega.
+ */
+@RestController
+@RequestMapping("/usuarios")
+@CrossOrigin(origins = "*")
+@Profile("reativo")
+public class UsuarioControllerReativo {
+
+    private final UsuarioServiceReativo usuarioService;
+
+    public UsuarioControllerReativo(UsuarioServiceReativo usuarioService) {
+        this.usuarioService = usuarioService;
+    }
+
+    /**
+     * CREATE - Criar um novo usuário
+     *
+     * POST /api/usuarios
+     */
+    @PostMapping
+    public Mono<ResponseEntity<RespostaSucesso<Usuario>>> criar(@Valid @RequestBody Usuario usuario) {
+        return usuarioService.criar(usuario)
+                .map(usuarioCriado -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(RespostaSucesso.de("Usuário criado com sucesso!", USUARIO, usuarioCriado)));
+    }
+
+    /**
+     * READ - Listar usuários, paginado por cursor e ordenado por nome
+     *
+     * GET /api/usuarios?limite=100&cursor=...&incluirTotal=true
+     */
+    @GetMapping
+    public Mono<ResponseEntity<RespostaLista<Usuario>>> listarTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // A ETag é lida antes do banco: com If-None-Match correspondente, responde 304 sem consultar
+        String etag = usuarioService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return Mono.just(RespostaCondicional.naoModificada(etag));
+        }
+        return usuarioService.listarPagina(cursor, limite, incluirTotal)
+                .map(pagina -> ResponseEntity.ok().eTag(etag).body(RespostaLista.pagina(USUARIOS, pagina)));
+    }
+
+    /**
+     * READ - Buscar vários usuários por ID de uma vez
+     *
+     * GET /api/usuarios?ids=12,7,31  (até 200 IDs)
+     */
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<RespostaLista<Usuario>>> buscarPorIds(
+            @RequestParam List<Integer> ids,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = usuarioService.etagListagem();
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return Mono.just(RespostaCondicional.naoModificada(etag));
+        }
+        return usuarioService.buscarPorIds(ids)
+                .map(resultado -> ResponseEntity.ok().eTag(etag).body(RespostaLista.porIds(USUARIOS, resultado)));
+    }
+
+    /**
+     * READ - Exportar todos os usuários em NDJSON (um objeto JSON por linha)
+     *
+     * GET /api/usuarios/export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<Usuario>> exportar() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"usuarios.ndjson\"")
+                .body(usuarioService.exportar());
+    }
+
+    /**
+     * READ - Buscar usuário por ID
+     *
+     * GET /api/usuarios/{id}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<RespostaSucesso<Usuario>>> buscarPorId(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = usuarioService.etag(id);
+        if (RespostaCondicional.naoModificado(ifNoneMatch, etag)) {
+            return Mono.just(RespostaCondicional.naoModificada(etag));
+        }
+        return usuarioService.buscarPorId(id)
+                .map(usuario -> ResponseEntity.ok().eTag(etag).body(RespostaSucesso.de(USUARIO, usuario)));
+    }
+
+    /**
+     * UPDATE - Atualizar usuário
+     *
+     * PUT /api/usuarios/{id}
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<RespostaSucesso<Usuario>>> atualizar(
+            @PathVariable Integer id,
+            @Valid @RequestBody Usuario usuario) {
+        return usuarioService.atualizar(id, usuario)
+                .map(usuarioAtualizado -> ResponseEntity.ok(
+                        RespostaSucesso.de("Usuário atualizado com sucesso!", USUARIO, usuarioAtualizado)));
+    }
+
+    /**
+     * DELETE - Deletar usuário
+     *
+     * DELETE /api/usuarios/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<RespostaSucesso<Void>>> deletar(@PathVariable Integer id) {
+        return usuarioService.deletar(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(DELETADO)));
+    }
+
+    /**
+     * Obtém total de empréstimos ativos do usuário
+     * Chama a função fn_obter_total_emprestimos_ativos do banco
+     *
+     * GET /api/usuarios/{id}/emprestimos-ativos
+     */
+    @GetMapping("/{id}/emprestimos-ativos")
+    public Mono<ResponseEntity<RespostaTotal>> obterEmprestimosAtivos(@PathVariable Integer id) {
+        return usuarioService.obterTotalEmprestimosAtivos(id)
+                .map(total -> ResponseEntity.ok(new RespostaTotal(ID_USUARIO, id, TOTAL_EMPRESTIMOS_ATIVOS, total)));
+    }
+}
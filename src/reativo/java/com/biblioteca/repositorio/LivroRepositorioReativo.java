@@ -0,0 +1,322 @@
+package com.biblioteca.repositorio;
+
+import com.biblioteca.model.Livro;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositório reativo (R2DBC) para acesso aos dados de Livro
+ *
+ * Mesmas consultas do LivroRepositorio, sem bloquear a thread enquanto
+ * o banco responde. Usado apenas no perfil "reativo"; divide com o
+ * LivroRepositorio o cache de livros por ID e por ISBN.
+ */
+@Repository
+@Profile("reativo")
+public class LivroRepositorioReativo {
+
+    // Quantidade máxima de valores em cada "IN (...)"
+    private static final int TAMANHO_BLOCO_IN = 500;
+
+    private final DatabaseClient databaseClient;
+
+    // Cache das buscas por ID e por ISBN
+    private final CacheEntidade<Livro> cacheLivro;
+
+    // Versões usadas nas ETags, as mesmas do LivroRepositorio
+    private final VersoesEntidade<Livro> versoesLivro;
+
+    public LivroRepositorioReativo(DatabaseClient databaseClient, CacheEntidade<Livro> cacheLivro,
+                                   VersoesEntidade<Livro> versoesLivro) {
+        this.databaseClient = databaseClient;
+        this.cacheLivro = cacheLivro;
+        this.versoesLivro = versoesLivro;
+    }
+
+    // Converte uma linha do banco em objeto Livro
+    private static Livro mapear(Readable linha) {
+        Livro livro = new Livro();
+        livro.setIdLivro(linha.get("id_livro", Integer.class));
+        livro.setIsbn(linha.get("isbn", String.class));
+        livro.setTitulo(linha.get("titulo", String.class));
+        livro.setAnoPublicacao(linha.get("ano_publicacao", Integer.class));
+        return livro;
+    }
+
+    /**
+     * CREATE - Insere um novo livro no banco
+     *
+     * @param livro dados do livro a ser inserido
+     * @return livro com ID gerado pelo banco
+     * (erro org.springframework.dao.DuplicateKeyException se o ISBN já estiver cadastrado)
+     */
+    public Mono<Livro> inserir(Livro livro) {
+        String sql = "INSERT INTO livro (isbn, titulo, ano_publicacao) VALUES (?, ?, ?)";
+
+        return databaseClient.sql(sql)
+                .bind(0, livro.getIsbn())
+                .bind(1, livro.getTitulo())
+                .bind(2, livro.getAnoPublicacao())
+                .filter(statement -> statement.returnGeneratedValues("id_livro"))
+                .map(linha -> linha.get("id_livro", Integer.class))
+                .one()
+                .map(id -> {
+                    livro.setIdLivro(id);
+                    cacheLivro.invalidarChave(livro.getIsbn());
+                    versoesLivro.alterado(id);
+                    return livro;
+                });
+    }
+
+    /**
+     * READ - Busca uma página de livros ordenada por título (paginação por chave)
+     *
+     * @param tituloApos título do último livro da página anterior (null na primeira página)
+     * @param idApos ID do último livro da página anterior (null na primeira página)
+     * @param limite quantidade máxima de livros
+     * @return livros da página
+     */
+    public Flux<Livro> buscarPagina(String tituloApos, Integer idApos, int limite) {
+        if (tituloApos == null) {
+            String sql = "SELECT * FROM livro ORDER BY titulo, id_livro LIMIT ?";
+            return databaseClient.sql(sql)
+                    .bind(0, limite)
+                    .map(LivroRepositorioReativo::mapear)
+                    .all();
+        }
+
+        String sql = "SELECT * FROM livro WHERE titulo > ? OR (titulo = ? AND id_livro > ?) "
+                + "ORDER BY titulo, id_livro LIMIT ?";
+        return databaseClient.sql(sql)
+                .bind(0, tituloApos)
+                .bind(1, tituloApos)
+                .bind(2, idApos)
+                .bind(3, limite)
+                .map(LivroRepositorioReativo::mapear)
+                .all();
+    }
+
+    /**
+     * READ - Percorre todos os livros
+     *
+     * As linhas chegam do banco conforme o cliente consome a resposta
+     * (backpressure), então a tabela nunca fica inteira em memória.
+     *
+     * @return todos os livros, em ordem de ID
+     */
+    public Flux<Livro> percorrerTodos() {
+        String sql = "SELECT * FROM livro ORDER BY id_livro";
+        return databaseClient.sql(sql)
+                .map(LivroRepositorioReativo::mapear)
+                .all();
+    }
+
+    /**
+     * READ - Conta o total de livros cadastrados
+     *
+     * @return quantidade de livros
+     */
+    public Mono<Long> contar() {
+        String sql = "SELECT COUNT(*) AS total FROM livro";
+        return databaseClient.sql(sql)
+                .map(linha -> linha.get("total", Long.class))
+                .one();
+    }
+
+    /**
+     * ETag do livro, lida sem ir ao banco
+     *
+     * @param id ID do livro
+     * @return ETag fraca (W/"..."), alterada a cada escrita no livro
+     */
+    public String etag(Integer id) {
+        return versoesLivro.etag(id);
+    }
+
+    /**
+     * ETag da listagem de livros, lida sem ir ao banco
+     *
+     * @return ETag fraca (W/"..."), alterada a cada INSERT, UPDATE ou DELETE
+     */
+    public String etagColecao() {
+        return versoesLivro.etagColecao();
+    }
+
+    /**
+     * READ - Busca um livro por ID
+     *
+     * @param id ID do livro
+     * @return livro, ou vazio se não encontrado
+     */
+    public Mono<Livro> buscarPorId(Integer id) {
+        Livro emCache = cacheLivro.buscarNoCache(id);
+        if (emCache != null) {
+            return Mono.just(emCache);
+        }
+
+        return Mono.defer(() -> {
+            long geracaoInicial = cacheLivro.geracaoAtual();
+            return databaseClient.sql("SELECT * FROM livro WHERE id_livro = ?")
+                    .bind(0, id)
+                    .map(LivroRepositorioReativo::mapear)
+                    .one()
+                    .doOnNext(livro -> cacheLivro.guardar(livro, geracaoInicial));
+        });
+    }
+
+    /**
+     * READ - Busca vários livros por ID de uma vez
+     *
+     * Os que estão no cache não vão ao banco; os demais são lidos com
+     * "id_livro IN (...)", uma consulta a cada TAMANHO_BLOCO_IN IDs.
+     *
+     * @param ids IDs dos livros, sem repetição
+     * @return livros encontrados, por ID (IDs inexistentes ficam de fora)
+     */
+    public Mono<Map<Integer, Livro>> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Livro> encontrados = new HashMap<>();
+        List<Integer> faltas = new ArrayList<>();
+        for (Integer id : ids) {
+            Livro emCache = cacheLivro.buscarNoCache(id);
+            if (emCache != null) {
+                encontrados.put(id, emCache);
+            } else {
+                faltas.add(id);
+            }
+        }
+        if (faltas.isEmpty()) {
+            return Mono.just(encontrados);
+        }
+
+        return Mono.defer(() -> {
+            long geracaoInicial = cacheLivro.geracaoAtual();
+            return Flux.range(0, (faltas.size() + TAMANHO_BLOCO_IN - 1) / TAMANHO_BLOCO_IN)
+                    .concatMap(b -> consultarPorIds(faltas.subList(
+                            b * TAMANHO_BLOCO_IN, Math.min((b + 1) * TAMANHO_BLOCO_IN, faltas.size()))))
+                    .doOnNext(livro -> cacheLivro.guardar(livro, geracaoInicial))
+                    .collect(() -> new HashMap<>(encontrados), (mapa, livro) -> mapa.put(livro.getIdLivro(), livro));
+        });
+    }
+
+    private Flux<Livro> consultarPorIds(List<Integer> ids) {
+        String sql = "SELECT * FROM livro WHERE id_livro IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(sql);
+        for (int i = 0; i < ids.size(); i++) {
+            consulta = consulta.bind(i, ids.get(i));
+        }
+        return consulta.map(LivroRepositorioReativo::mapear).all();
+    }
+
+    /**
+     * READ - Busca livros por título (busca parcial)
+     *
+     * Usada apenas enquanto o IndiceTitulos não está pronto.
+     *
+     * @param titulo parte do título a ser buscado
+     * @param limite quantidade máxima de livros
+     * @return livros que contêm o texto no título
+     */
+    public Flux<Livro> buscarPorTitulo(String titulo, int limite) {
+        String sql = "SELECT * FROM livro WHERE titulo LIKE ? ORDER BY titulo LIMIT ?";
+        return databaseClient.sql(sql)
+                .bind(0, "%" + titulo + "%")
+                .bind(1, limite)
+                .map(LivroRepositorioReativo::mapear)
+                .all();
+    }
+
+    /**
+     * UPDATE - Atualiza os dados de um livro
+     *
+     * @param id ID do livro a ser atualizado
+     * @param livro novos dados do livro
+     * @return número de linhas encontradas (1 se sucesso, 0 se não encontrado)
+     * (erro org.springframework.dao.DuplicateKeyException se o ISBN já pertence a outro livro)
+     */
+    public Mono<Long> atualizar(Integer id, Livro livro) {
+        String sql = "UPDATE livro SET isbn = ?, titulo = ?, ano_publicacao = ? WHERE id_livro = ?";
+        return databaseClient.sql(sql)
+                .bind(0, livro.getIsbn())
+                .bind(1, livro.getTitulo())
+                .bind(2, livro.getAnoPublicacao())
+                .bind(3, id)
+                .fetch()
+                .rowsUpdated()
+                .doOnSuccess(linhas -> {
+                    cacheLivro.invalidar(id);
+                    cacheLivro.invalidarChave(livro.getIsbn());
+                    versoesLivro.alterado(id);
+                });
+    }
+
+    /**
+     * DELETE - Remove um livro do banco
+     *
+     * @param id ID do livro a ser removido
+     * @return número de linhas afetadas (1 se sucesso, 0 se não encontrado)
+     */
+    public Mono<Long> deletar(Integer id) {
+        return databaseClient.sql("DELETE FROM livro WHERE id_livro = ?")
+                .bind(0, id)
+                .fetch()
+                .rowsUpdated()
+                .doOnSuccess(linhas -> {
+                    cacheLivro.invalidar(id);
+                    versoesLivro.alterado(id);
+                });
+    }
+
+    /**
+     * Chama a função do banco que conta autores de um livro
+     *
+     * @param idLivro ID do livro
+     * @return quantidade de autores, ou vazio se o livro não existe
+     */
+    public Mono<Integer> contarAutores(Integer idLivro) {
+        String sql = "SELECT fn_contar_autores_livro(id_livro) AS total FROM livro WHERE id_livro = ?";
+        return databaseClient.sql(sql)
+                .bind(0, idLivro)
+                .map(linha -> linha.get("total", Integer.class))
+                .one();
+    }
+
+    /**
+     * READ - Conta os autores de vários livros de uma vez
+     *
+     * Uma consulta agrupada em livro_autor por bloco de IDs.
+     *
+     * @param ids IDs dos livros
+     * @return total de autores por ID de livro (livros sem autores não aparecem)
+     */
+    public Mono<Map<Integer, Integer>> contarAutoresPorLivro(Collection<Integer> ids) {
+        List<Integer> lista = new ArrayList<>(ids);
+        return Flux.range(0, (lista.size() + TAMANHO_BLOCO_IN - 1) / TAMANHO_BLOCO_IN)
+                .concatMap(b -> consultarAutoresPorLivro(lista.subList(
+                        b * TAMANHO_BLOCO_IN, Math.min((b + 1) * TAMANHO_BLOCO_IN, lista.size()))))
+                .collectMap(linha -> linha[0], linha -> linha[1]);
+    }
+
+    private Flux<Integer[]> consultarAutoresPorLivro(List<Integer> ids) {
+        String sql = "SELECT id_livro, COUNT(*) AS total FROM livro_autor WHERE id_livro IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") GROUP BY id_livro";
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(sql);
+        for (int i = 0; i < ids.size(); i++) {
+            consulta = consulta.bind(i, ids.get(i));
+        }
+        // COUNT(*) é BIGINT
+        return consulta.map(linha -> new Integer[] {
+                linha.get("id_livro", Integer.class), linha.get("total", Long.class).intValue()}).all();
+    }
+}
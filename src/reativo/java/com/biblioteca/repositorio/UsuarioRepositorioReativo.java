@@ -0,0 +1,293 @@
+package com.biblioteca.repositorio;
+
+import com.biblioteca.model.Usuario;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositório reativo (R2DBC) para acesso aos dados de Usuário
+ *
+ * Mesmas consultas do UsuarioRepositorio, sem bloquear a thread enquanto
+ * o banco responde. Usado apenas no perfil "reativo"; divide com o
+ * UsuarioRepositorio o cache de usuários por ID e por matrícula.
+ */
+@Repository
+@Profile("reativo")
+public class UsuarioRepositorioReativo {
+
+    // Quantidade máxima de valores em cada "IN (...)"
+    private static final int TAMANHO_BLOCO_IN = 500;
+
+    private final DatabaseClient databaseClient;
+
+    // Cache das buscas por ID e por matrícula
+    private final CacheEntidade<Usuario> cacheUsuario;
+
+    // Versões usadas nas ETags, as mesmas do UsuarioRepositorio
+    private final VersoesEntidade<Usuario> versoesUsuario;
+
+    public UsuarioRepositorioReativo(DatabaseClient databaseClient, CacheEntidade<Usuario> cacheUsuario,
+                                     VersoesEntidade<Usuario> versoesUsuario) {
+        this.databaseClient = databaseClient;
+        this.cacheUsuario = cacheUsuario;
+        this.versoesUsuario = versoesUsuario;
+    }
+
+    // Converte uma linha do banco em objeto Usuario
+    private static Usuario mapear(Readable linha) {
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(linha.get("id_usuario", Integer.class));
+        usuario.setMatricula(linha.get("matricula", String.class));
+        usuario.setNome(linha.get("nome", String.class));
+        usuario.setEmail(linha.get("email", String.class));
+        usuario.setTelefone(linha.get("telefone", String.class));
+        usuario.setCpf(linha.get("cpf", String.class));
+        return usuario;
+    }
+
+    /**
+     * CREATE - Insere um novo usuário no banco
+     *
+     * @param usuario dados do usuário a ser inserido
+     * @return usuário com ID gerado pelo banco
+     * (erro org.springframework.dao.DuplicateKeyException se a matrícula ou outro campo único já estiver cadastrado)
+     */
+    public Mono<Usuario> inserir(Usuario usuario) {
+        String sql = "INSERT INTO usuario (matricula, nome, email, telefone, cpf) VALUES (?, ?, ?, ?, ?)";
+
+        DatabaseClient.GenericExecuteSpec comando = databaseClient.sql(sql)
+                .bind(0, usuario.getMatricula())
+                .bind(1, usuario.getNome());
+        comando = vincular(comando, 2, usuario.getEmail());
+        comando = vincular(comando, 3, usuario.getTelefone());
+        comando = vincular(comando, 4, usuario.getCpf());
+
+        return comando
+                .filter(statement -> statement.returnGeneratedValues("id_usuario"))
+                .map(linha -> linha.get("id_usuario", Integer.class))
+                .one()
+                .map(id -> {
+                    usuario.setIdUsuario(id);
+                    cacheUsuario.invalidarChave(usuario.getMatricula());
+                    versoesUsuario.alterado(id);
+                    return usuario;
+                });
+    }
+
+    /**
+     * READ - Busca uma página de usuários ordenada por nome (paginação por chave)
+     *
+     * @param nomeApos nome do último usuário da página anterior (null na primeira página)
+     * @param idApos ID do último usuário da página anterior (null na primeira página)
+     * @param limite quantidade máxima de usuários
+     * @return usuários da página
+     */
+    public Flux<Usuario> buscarPagina(String nomeApos, Integer idApos, int limite) {
+        if (nomeApos == null) {
+            String sql = "SELECT * FROM usuario ORDER BY nome, id_usuario LIMIT ?";
+            return databaseClient.sql(sql)
+                    .bind(0, limite)
+                    .map(UsuarioRepositorioReativo::mapear)
+                    .all();
+        }
+
+        String sql = "SELECT * FROM usuario WHERE nome > ? OR (nome = ? AND id_usuario > ?) "
+                + "ORDER BY nome, id_usuario LIMIT ?";
+        return databaseClient.sql(sql)
+                .bind(0, nomeApos)
+                .bind(1, nomeApos)
+                .bind(2, idApos)
+                .bind(3, limite)
+                .map(UsuarioRepositorioReativo::mapear)
+                .all();
+    }
+
+    /**
+     * READ - Percorre todos os usuários
+     *
+     * As linhas chegam do banco conforme o cliente consome a resposta
+     * (backpressure), então a tabela nunca fica inteira em memória.
+     *
+     * @return todos os usuários, em ordem de ID
+     */
+    public Flux<Usuario> percorrerTodos() {
+        String sql = "SELECT * FROM usuario ORDER BY id_usuario";
+        return databaseClient.sql(sql)
+                .map(UsuarioRepositorioReativo::mapear)
+                .all();
+    }
+
+    /**
+     * READ - Conta o total de usuários cadastrados
+     *
+     * @return quantidade de usuários
+     */
+    public Mono<Long> contar() {
+        String sql = "SELECT COUNT(*) AS total FROM usuario";
+        return databaseClient.sql(sql)
+                .map(linha -> linha.get("total", Long.class))
+                .one();
+    }
+
+    /**
+     * ETag do usuário, lida sem ir ao banco
+     *
+     * @param id ID do usuário
+     * @return ETag fraca (W/"..."), alterada a cada escrita no usuário
+     */
+    public String etag(Integer id) {
+        return versoesUsuario.etag(id);
+    }
+
+    /**
+     * ETag da listagem de usuários, lida sem ir ao banco
+     *
+     * @return ETag fraca (W/"..."), alterada a cada INSERT, UPDATE ou DELETE
+     */
+    public String etagColecao() {
+        return versoesUsuario.etagColecao();
+    }
+
+    /**
+     * READ - Busca um usuário por ID
+     *
+     * @param id ID do usuário
+     * @return usuário, ou vazio se não encontrado
+     */
+    public Mono<Usuario> buscarPorId(Integer id) {
+        Usuario emCache = cacheUsuario.buscarNoCache(id);
+        if (emCache != null) {
+            return Mono.just(emCache);
+        }
+
+        return Mono.defer(() -> {
+            long geracaoInicial = cacheUsuario.geracaoAtual();
+            return databaseClient.sql("SELECT * FROM usuario WHERE id_usuario = ?")
+                    .bind(0, id)
+                    .map(UsuarioRepositorioReativo::mapear)
+                    .one()
+                    .doOnNext(usuario -> cacheUsuario.guardar(usuario, geracaoInicial));
+        });
+    }
+
+    /**
+     * READ - Busca vários usuários por ID de uma vez
+     *
+     * Os que estão no cache não vão ao banco; os demais são lidos com
+     * "id_usuario IN (...)", uma consulta a cada TAMANHO_BLOCO_IN IDs.
+     *
+     * @param ids IDs dos usuários, sem repetição
+     * @return usuários encontrados, por ID (IDs inexistentes ficam de fora)
+     */
+    public Mono<Map<Integer, Usuario>> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Usuario> encontrados = new HashMap<>();
+        List<Integer> faltas = new ArrayList<>();
+        for (Integer id : ids) {
+            Usuario emCache = cacheUsuario.buscarNoCache(id);
+            if (emCache != null) {
+                encontrados.put(id, emCache);
+            } else {
+                faltas.add(id);
+            }
+        }
+        if (faltas.isEmpty()) {
+            return Mono.just(encontrados);
+        }
+
+        return Mono.defer(() -> {
+            long geracaoInicial = cacheUsuario.geracaoAtual();
+            return Flux.range(0, (faltas.size() + TAMANHO_BLOCO_IN - 1) / TAMANHO_BLOCO_IN)
+                    .concatMap(b -> consultarPorIds(faltas.subList(
+                            b * TAMANHO_BLOCO_IN, Math.min((b + 1) * TAMANHO_BLOCO_IN, faltas.size()))))
+                    .doOnNext(usuario -> cacheUsuario.guardar(usuario, geracaoInicial))
+                    .collect(() -> new HashMap<>(encontrados), (mapa, usuario) -> mapa.put(usuario.getIdUsuario(), usuario));
+        });
+    }
+
+    private Flux<Usuario> consultarPorIds(List<Integer> ids) {
+        String sql = "SELECT * FROM usuario WHERE id_usuario IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(sql);
+        for (int i = 0; i < ids.size(); i++) {
+            consulta = consulta.bind(i, ids.get(i));
+        }
+        return consulta.map(UsuarioRepositorioReativo::mapear).all();
+    }
+
+    /**
+     * UPDATE - Atualiza os dados de um usuário
+     *
+     * @param id ID do usuário a ser atualizado
+     * @param usuario novos dados do usuário
+     * @return número de linhas encontradas (1 se sucesso, 0 se não encontrado)
+     * (erro org.springframework.dao.DuplicateKeyException se a matrícula ou outro campo único já pertence a outro usuário)
+     */
+    public Mono<Long> atualizar(Integer id, Usuario usuario) {
+        String sql = "UPDATE usuario SET matricula = ?, nome = ?, email = ?, telefone = ?, cpf = ? WHERE id_usuario = ?";
+
+        DatabaseClient.GenericExecuteSpec comando = databaseClient.sql(sql)
+                .bind(0, usuario.getMatricula())
+                .bind(1, usuario.getNome());
+        comando = vincular(comando, 2, usuario.getEmail());
+        comando = vincular(comando, 3, usuario.getTelefone());
+        comando = vincular(comando, 4, usuario.getCpf());
+
+        return comando
+                .bind(5, id)
+                .fetch()
+                .rowsUpdated()
+                .doOnSuccess(linhas -> {
+                    cacheUsuario.invalidar(id);
+                    cacheUsuario.invalidarChave(usuario.getMatricula());
+                    versoesUsuario.alterado(id);
+                });
+    }
+
+    /**
+     * DELETE - Remove um usuário do banco
+     *
+     * @param id ID do usuário a ser removido
+     * @return número de linhas afetadas (1 se sucesso, 0 se não encontrado)
+     */
+    public Mono<Long> deletar(Integer id) {
+        return databaseClient.sql("DELETE FROM usuario WHERE id_usuario = ?")
+                .bind(0, id)
+                .fetch()
+                .rowsUpdated()
+                .doOnSuccess(linhas -> {
+                    cacheUsuario.invalidar(id);
+                    versoesUsuario.alterado(id);
+                });
+    }
+
+    /**
+     * Chama a função do banco que conta empréstimos ativos do usuário
+     *
+     * @param idUsuario ID do usuário
+     * @return quantidade de empréstimos ativos, ou vazio se o usuário não existe
+     */
+    public Mono<Integer> contarEmprestimosAtivos(Integer idUsuario) {
+        String sql = "SELECT fn_obter_total_emprestimos_ativos(id_usuario) AS total FROM usuario WHERE id_usuario = ?";
+        return databaseClient.sql(sql)
+                .bind(0, idUsuario)
+                .map(linha -> linha.get("total", Integer.class))
+                .one();
+    }
+
+    // O R2DBC exige o tipo para valores nulos (email, telefone e cpf são opcionais)
+    private static DatabaseClient.GenericExecuteSpec vincular(DatabaseClient.GenericExecuteSpec comando,
+                                                              int indice, String valor) {
+        return valor == null ? comando.bindNull(indice, String.class) : comando.bind(indice, valor);
+    }
+}
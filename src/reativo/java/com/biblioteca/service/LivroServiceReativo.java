@@ -0,0 +1,245 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ResultadoPorIds;
+import com.biblioteca.model.ResultadoLoteLivro;
+import com.biblioteca.repositorio.LivroRepositorioReativo;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serviço de Livro do perfil "reativo"
+ *
+ * Mesmas regras e mensagens do LivroService, com o acesso ao banco
+ * pelo LivroRepositorioReativo. Erros de negócio chegam ao controller
+ * como IllegalArgumentException no próprio Mono.
+ */
+@Service
+@Profile("reativo")
+public class LivroServiceReativo {
+
+    private final LivroRepositorioReativo livroRepositorio;
+    private final IndiceTitulos indiceTitulos;
+
+    // Cadastro em lote continua no batch JDBC do LivroService
+    private final LivroService livroService;
+
+    public LivroServiceReativo(LivroRepositorioReativo livroRepositorio, IndiceTitulos indiceTitulos,
+                               LivroService livroService) {
+        this.livroRepositorio = livroRepositorio;
+        this.indiceTitulos = indiceTitulos;
+        this.livroService = livroService;
+    }
+
+    /**
+     * Cria um novo livro
+     *
+     * @param livro dados do livro
+     * @return livro criado com ID (erro IllegalArgumentException se ISBN já existe)
+     */
+    public Mono<Livro> criar(Livro livro) {
+        return livroRepositorio.inserir(livro)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new IllegalArgumentException("ISBN já cadastrado: " + livro.getIsbn()))
+                .doOnNext(indiceTitulos::adicionar);
+    }
+
+    /**
+     * Cria vários livros de uma vez (cadastro em lote)
+     *
+     * O lote é gravado com batch JDBC pelo LivroService, em uma thread
+     * separada, para não ocupar as threads que atendem as conexões.
+     *
+     * @param livros livros a cadastrar
+     * @return resultado de cada livro, na ordem recebida
+     */
+    public Mono<List<ResultadoLoteLivro>> criarEmLote(List<Livro> livros) {
+        return Mono.fromCallable(() -> livroService.criarEmLote(livros))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Lista os livros em páginas ordenadas por título
+     *
+     * @param cursor cursor recebido na página anterior (null para a primeira)
+     * @param limite tamanho da página (limitado a LIMITE_MAXIMO)
+     * @param incluirTotal se true, conta o total de livros (consulta extra, feita em paralelo)
+     * @param incluirAutores se true, preenche o total de autores de cada livro (consulta extra)
+     * @return página de livros (erro IllegalArgumentException se o cursor for inválido)
+     */
+    public Mono<Pagina<Livro>> listarPagina(String cursor, Integer limite, boolean incluirTotal,
+                                            boolean incluirAutores) {
+        return Mono.defer(() -> {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            int tamanho = CursorPaginacao.limitar(limite, LivroService.LIMITE_PADRAO, LivroService.LIMITE_MAXIMO);
+
+            // Busca um item a mais para saber se existe próxima página
+            Flux<Livro> livros = posicao == null
+                    ? livroRepositorio.buscarPagina(null, null, tamanho + 1)
+                    : livroRepositorio.buscarPagina(posicao.getChave(), posicao.getId(), tamanho + 1);
+            Mono<Optional<Long>> total = incluirTotal
+                    ? livroRepositorio.contar().map(Optional::of)
+                    : Mono.just(Optional.empty());
+
+            return livros.collectList().zipWith(total, (itens, contagem) -> {
+                String proximoCursor = null;
+                if (itens.size() > tamanho) {
+                    itens = itens.subList(0, tamanho);
+                    Livro ultimo = itens.get(tamanho - 1);
+                    proximoCursor = new CursorPaginacao(ultimo.getTitulo(), ultimo.getIdLivro()).codificar();
+                }
+                return new Pagina<>(itens, proximoCursor, contagem.orElse(null));
+            }).flatMap(pagina -> !incluirAutores ? Mono.just(pagina)
+                    : comTotalAutores(pagina.getItens()).map(
+                            itens -> new Pagina<>(itens, pagina.getProximoCursor(), pagina.getTotal())));
+        });
+    }
+
+    /**
+     * Exporta todos os livros, no ritmo em que o cliente consome
+     *
+     * @return todos os livros
+     */
+    public Flux<Livro> exportar() {
+        return livroRepositorio.percorrerTodos();
+    }
+
+    /**
+     * Busca vários livros por ID de uma vez
+     *
+     * @param ids IDs pedidos (repetidos são ignorados)
+     * @return livros na ordem dos IDs e os IDs não encontrados
+     * (erro IllegalArgumentException se a lista está vazia ou tem mais de 200 IDs)
+     */
+    public Mono<ResultadoPorIds<Livro>> buscarPorIds(List<Integer> ids) {
+        return Mono.defer(() -> {
+            Set<Integer> distintos = ListaIds.distintos(ids);
+            return livroRepositorio.buscarPorIds(distintos)
+                    .map(encontrados -> ResultadoPorIds.ordenar(distintos, encontrados));
+        });
+    }
+
+    /**
+     * ETag da listagem de livros (não consulta o banco)
+     *
+     * @return ETag fraca da coleção, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etagListagem() {
+        return livroRepositorio.etagColecao();
+    }
+
+    /**
+     * ETag de um livro (não consulta o banco)
+     *
+     * Obtida antes de buscar o livro, para que uma alteração no meio
+     * da busca nunca gere um 304 com dados antigos.
+     *
+     * @param id ID do livro
+     * @return ETag fraca do livro, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etag(Integer id) {
+        return livroRepositorio.etag(id);
+    }
+
+    /**
+     * Busca um livro por ID
+     *
+     * @param id ID do livro
+     * @return livro encontrado (erro NaoEncontradoException se não existe)
+     */
+    public Mono<Livro> buscarPorId(Integer id) {
+        return livroRepositorio.buscarPorId(id)
+                .switchIfEmpty(Mono.error(() -> new NaoEncontradoException("Livro não encontrado com ID: " + id)));
+    }
+
+    /**
+     * Busca livros por título (busca parcial, ordenada por relevância)
+     *
+     * O IndiceTitulos fica em memória e responde sem ir ao banco;
+     * enquanto ele é construído, a busca usa o LIKE.
+     *
+     * @param titulo texto a buscar
+     * @param limite quantidade máxima de livros (limitado a LIMITE_MAXIMO)
+     * @param incluirAutores se true, preenche o total de autores de cada livro (consulta extra)
+     * @return livros encontrados
+     */
+    public Mono<List<Livro>> buscarPorTitulo(String titulo, Integer limite, boolean incluirAutores) {
+        int tamanho = CursorPaginacao.limitar(limite, LivroService.LIMITE_PADRAO, LivroService.LIMITE_MAXIMO);
+        Mono<List<Livro>> livros = indiceTitulos.isPronto()
+                ? Mono.fromSupplier(() -> indiceTitulos.buscar(titulo, tamanho))
+                : livroRepositorio.buscarPorTitulo(titulo, tamanho).collectList();
+        return incluirAutores ? livros.flatMap(this::comTotalAutores) : livros;
+    }
+
+    /**
+     * Atualiza os dados de um livro
+     *
+     * @param id ID do livro
+     * @param livro novos dados
+     * @return livro atualizado (erro NaoEncontradoException se não existe, IllegalArgumentException se o ISBN é de outro livro)
+     */
+    public Mono<Livro> atualizar(Integer id, Livro livro) {
+        return livroRepositorio.atualizar(id, livro)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new IllegalArgumentException("ISBN já em uso por outro livro: " + livro.getIsbn()))
+                .flatMap(linhas -> {
+                    if (linhas == 0) {
+                        return Mono.error(new NaoEncontradoException("Livro não encontrado com ID: " + id));
+                    }
+                    livro.setIdLivro(id);
+                    indiceTitulos.adicionar(livro);
+                    return Mono.just(livro);
+                });
+    }
+
+    /**
+     * Deleta um livro
+     *
+     * @param id ID do livro
+     * @return conclusão (erro NaoEncontradoException se não existe)
+     */
+    public Mono<Void> deletar(Integer id) {
+        return livroRepositorio.deletar(id)
+                .flatMap(linhas -> {
+                    if (linhas == 0) {
+                        return Mono.error(new NaoEncontradoException("Livro não encontrado com ID: " + id));
+                    }
+                    indiceTitulos.remover(id);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Obtém o total de autores de um livro
+     * Chama a função fn_contar_autores_livro do banco
+     *
+     * @param id ID do livro
+     * @return quantidade de autores (erro NaoEncontradoException se o livro não existe)
+     */
+    public Mono<Integer> obterTotalAutores(Integer id) {
+        return livroRepositorio.contarAutores(id)
+                .switchIfEmpty(Mono.error(() -> new NaoEncontradoException("Livro não encontrado com ID: " + id)));
+    }
+
+    /**
+     * Cópias dos livros com o total de autores preenchido (uma consulta para a lista toda)
+     */
+    private Mono<List<Livro>> comTotalAutores(List<Livro> livros) {
+        if (livros.isEmpty()) {
+            return Mono.just(livros);
+        }
+        return livroRepositorio.contarAutoresPorLivro(livros.stream().map(Livro::getIdLivro).toList())
+                .map(totais -> livros.stream()
+                        .map(livro -> livro.comTotalAutores(totais.getOrDefault(livro.getIdLivro(), 0)))
+                        .toList());
+    }
+}
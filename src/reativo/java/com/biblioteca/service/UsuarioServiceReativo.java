@@ -0,0 +1,196 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ResultadoPorIds;
+import com.biblioteca.model.Usuario;
+import com.biblioteca.repositorio.ContadoresPorId;
+import com.biblioteca.repositorio.UsuarioRepositorioReativo;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serviço de Usuário do perfil "reativo"
+ *
+ * Mesmas regras e mensagens do UsuarioService, com o acesso ao banco
+ * pelo UsuarioRepositorioReativo. Erros de negócio chegam ao controller
+ * como IllegalArgumentException no próprio Mono.
+ */
+@Service
+@Profile("reativo")
+public class UsuarioServiceReativo {
+
+    private final UsuarioRepositorioReativo usuarioRepositorio;
+
+    // Total de empréstimos ativos por usuário, em memória (o mesmo do UsuarioService)
+    private final TotaisEmprestimosAtivos totaisEmprestimosAtivos;
+
+    public UsuarioServiceReativo(UsuarioRepositorioReativo usuarioRepositorio,
+                                 TotaisEmprestimosAtivos totaisEmprestimosAtivos) {
+        this.usuarioRepositorio = usuarioRepositorio;
+        this.totaisEmprestimosAtivos = totaisEmprestimosAtivos;
+    }
+
+    /**
+     * Cria um novo usuário
+     *
+     * @param usuario dados do usuário
+     * @return usuário criado com ID (erro IllegalArgumentException se matrícula já existe)
+     */
+    public Mono<Usuario> criar(Usuario usuario) {
+        return usuarioRepositorio.inserir(usuario)
+                .onErrorMap(DuplicateKeyException.class, e -> UsuarioService.dadoDuplicado(
+                        e, "Matrícula já cadastrada: " + usuario.getMatricula()))
+                .doOnNext(criado -> totaisEmprestimosAtivos.registrar(criado.getIdUsuario(), 0));
+    }
+
+    /**
+     * Lista os usuários em páginas ordenadas por nome
+     *
+     * @param cursor cursor recebido na página anterior (null para a primeira)
+     * @param limite tamanho da página (limitado a LIMITE_MAXIMO)
+     * @param incluirTotal se true, conta o total de usuários (consulta extra, feita em paralelo)
+     * @return página de usuários (erro IllegalArgumentException se o cursor for inválido)
+     */
+    public Mono<Pagina<Usuario>> listarPagina(String cursor, Integer limite, boolean incluirTotal) {
+        return Mono.defer(() -> {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            int tamanho = CursorPaginacao.limitar(limite, UsuarioService.LIMITE_PADRAO, UsuarioService.LIMITE_MAXIMO);
+
+            // Busca um item a mais para saber se existe próxima página
+            Flux<Usuario> usuarios = posicao == null
+                    ? usuarioRepositorio.buscarPagina(null, null, tamanho + 1)
+                    : usuarioRepositorio.buscarPagina(posicao.getChave(), posicao.getId(), tamanho + 1);
+            Mono<Optional<Long>> total = incluirTotal
+                    ? usuarioRepositorio.contar().map(Optional::of)
+                    : Mono.just(Optional.empty());
+
+            return usuarios.collectList().zipWith(total, (itens, contagem) -> {
+                String proximoCursor = null;
+                if (itens.size() > tamanho) {
+                    itens = itens.subList(0, tamanho);
+                    Usuario ultimo = itens.get(tamanho - 1);
+                    proximoCursor = new CursorPaginacao(ultimo.getNome(), ultimo.getIdUsuario()).codificar();
+                }
+                return new Pagina<>(itens, proximoCursor, contagem.orElse(null));
+            });
+        });
+    }
+
+    /**
+     * Exporta todos os usuários, no ritmo em que o cliente consome
+     *
+     * @return todos os usuários
+     */
+    public Flux<Usuario> exportar() {
+        return usuarioRepositorio.percorrerTodos();
+    }
+
+    /**
+     * Busca vários usuários por ID de uma vez
+     *
+     * @param ids IDs pedidos (repetidos são ignorados)
+     * @return usuários na ordem dos IDs e os IDs não encontrados
+     * (erro IllegalArgumentException se a lista está vazia ou tem mais de 200 IDs)
+     */
+    public Mono<ResultadoPorIds<Usuario>> buscarPorIds(List<Integer> ids) {
+        return Mono.defer(() -> {
+            Set<Integer> distintos = ListaIds.distintos(ids);
+            return usuarioRepositorio.buscarPorIds(distintos)
+                    .map(encontrados -> ResultadoPorIds.ordenar(distintos, encontrados));
+        });
+    }
+
+    /**
+     * ETag da listagem de usuários (não consulta o banco)
+     *
+     * @return ETag fraca da coleção, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etagListagem() {
+        return usuarioRepositorio.etagColecao();
+    }
+
+    /**
+     * ETag de um usuário (não consulta o banco)
+     *
+     * Obtida antes de buscar o usuário, para que uma alteração no meio
+     * da busca nunca gere um 304 com dados antigos.
+     *
+     * @param id ID do usuário
+     * @return ETag fraca do usuário, comparada pela comparação fraca (RespostaCondicional)
+     */
+    public String etag(Integer id) {
+        return usuarioRepositorio.etag(id);
+    }
+
+    /**
+     * Busca um usuário por ID
+     *
+     * @param id ID do usuário
+     * @return usuário encontrado (erro NaoEncontradoException se não existe)
+     */
+    public Mono<Usuario> buscarPorId(Integer id) {
+        return usuarioRepositorio.buscarPorId(id)
+                .switchIfEmpty(Mono.error(() -> new NaoEncontradoException("Usuário não encontrado com ID: " + id)));
+    }
+
+    /**
+     * Atualiza os dados de um usuário
+     *
+     * @param id ID do usuário
+     * @param usuario novos dados
+     * @return usuário atualizado (erro NaoEncontradoException se não existe, IllegalArgumentException se a matrícula é de outro usuário)
+     */
+    public Mono<Usuario> atualizar(Integer id, Usuario usuario) {
+        return usuarioRepositorio.atualizar(id, usuario)
+                .onErrorMap(DuplicateKeyException.class, e -> UsuarioService.dadoDuplicado(
+                        e, "Matrícula já em uso por outro usuário: " + usuario.getMatricula()))
+                .flatMap(linhas -> {
+                    if (linhas == 0) {
+                        return Mono.error(new NaoEncontradoException("Usuário não encontrado com ID: " + id));
+                    }
+                    usuario.setIdUsuario(id);
+                    return Mono.just(usuario);
+                });
+    }
+
+    /**
+     * Deleta um usuário
+     *
+     * @param id ID do usuário
+     * @return conclusão (erro NaoEncontradoException se não existe)
+     */
+    public Mono<Void> deletar(Integer id) {
+        return usuarioRepositorio.deletar(id)
+                .flatMap(linhas -> linhas == 0
+                        ? Mono.error(new NaoEncontradoException("Usuário não encontrado com ID: " + id))
+                        : Mono.fromRunnable(() -> totaisEmprestimosAtivos.usuarioRemovido(id)));
+    }
+
+    /**
+     * Obtém o total de empréstimos ativos de um usuário
+     *
+     * Lido da memória (TotaisEmprestimosAtivos); só um usuário ausente dela
+     * chama a função fn_obter_total_emprestimos_ativos do banco.
+     *
+     * @param id ID do usuário
+     * @return quantidade de empréstimos ativos (erro NaoEncontradoException se o usuário não existe)
+     */
+    public Mono<Integer> obterTotalEmprestimosAtivos(Integer id) {
+        return Mono.defer(() -> {
+            int total = totaisEmprestimosAtivos.total(id);
+            if (total != ContadoresPorId.AUSENTE) {
+                return Mono.just(total);
+            }
+            return usuarioRepositorio.contarEmprestimosAtivos(id)
+                    .doOnNext(doBanco -> totaisEmprestimosAtivos.registrar(id, doBanco))
+                    .switchIfEmpty(Mono.error(() -> new NaoEncontradoException("Usuário não encontrado com ID: " + id)));
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.biblioteca;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Equivalentes em Java das funções e da procedure do MySQL, registrados como ALIAS no H2
+ * (schema-teste.sql)
+ */
+public final class RotinasBanco {
+
+    private RotinasBanco() {
+    }
+
+    /**
+     * fn_contar_autores_livro
+     */
+    public static int contarAutoresLivro(Connection conexao, int idLivro) throws SQLException {
+        return contar(conexao, "SELECT COUNT(*) FROM livro_autor WHERE id_livro = ?", idLivro);
+    }
+
+    /**
+     * fn_obter_total_emprestimos_ativos
+     */
+    public static int obterTotalEmprestimosAtivos(Connection conexao, int idUsuario) throws SQLException {
+        return contar(conexao,
+                "SELECT COUNT(*) FROM emprestimo WHERE id_usuario = ? AND data_devolucao_real IS NULL", idUsuario);
+    }
+
+    /**
+     * prc_registrar_devolucao: grava a data de devolução e, com atraso, uma multa de R$ 1,00 por dia
+     */
+    public static void registrarDevolucao(Connection conexao, int idEmprestimo, Date dataDevolucao)
+            throws SQLException {
+        Date prevista;
+        try (PreparedStatement ps = conexao.prepareStatement(
+                "SELECT data_prevista_devolucao FROM emprestimo WHERE id_emprestimo = ? AND data_devolucao_real IS NULL")) {
+            ps.setInt(1, idEmprestimo);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Empréstimo inexistente ou já devolvido: " + idEmprestimo, "45000");
+                }
+                prevista = rs.getDate(1);
+            }
+        }
+        try (PreparedStatement ps = conexao.prepareStatement(
+                "UPDATE emprestimo SET data_devolucao_real = ? WHERE id_emprestimo = ?")) {
+            ps.setDate(1, dataDevolucao);
+            ps.setInt(2, idEmprestimo);
+            ps.executeUpdate();
+        }
+        long diasAtraso = dataDevolucao.toLocalDate().toEpochDay() - prevista.toLocalDate().toEpochDay();
+        if (diasAtraso > 0) {
+            try (PreparedStatement ps = conexao.prepareStatement(
+                    "INSERT INTO multa (id_emprestimo, valor) VALUES (?, ?)")) {
+                ps.setInt(1, idEmprestimo);
+                ps.setBigDecimal(2, BigDecimal.valueOf(diasAtraso));
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static int contar(Connection conexao, String sql, int id) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.monitoramento.FiltroContagemSql;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Busca por título (GET /livros/buscar) respondida pelo índice em memória
+ *
+ * O índice é montado na inicialização, também no H2 dos testes: a busca não
+ * faz nenhum comando SQL, e cadastro, alteração e exclusão pela API
+ * aparecem na busca seguinte.
+ *
+ * O livro 42 (dados-teste.sql) e os ISBNs 978-2000000000 em diante são só destes testes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+class BuscaPorTituloTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void buscaNaoVaiAoBanco() throws Exception {
+        buscar("TESTE 42")
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.livros[0].idLivro").value(42))
+                .andExpect(jsonPath("$.livros[0].titulo").value("Livro de Teste 42"));
+    }
+
+    @Test
+    void livroCadastradoAlteradoEExcluidoPelaApiAtualizaABusca() throws Exception {
+        String criado = mockMvc.perform(post("/livros")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(livro("978-2000000001", "Programação Funcional em Haskell")))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        int id = JsonPath.read(criado, "$.livro.idLivro");
+
+        buscar("haskell")
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.livros[0].idLivro").value(id));
+
+        mockMvc.perform(put("/livros/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(livro("978-2000000001", "Programação Funcional em Scala")))
+                .andExpect(status().isOk());
+
+        buscar("haskell").andExpect(jsonPath("$.total").value(0));
+        buscar("funcional scala").andExpect(jsonPath("$.livros[0].idLivro").value(id));
+
+        mockMvc.perform(delete("/livros/" + id)).andExpect(status().isOk());
+
+        buscar("scala").andExpect(jsonPath("$.total").value(0));
+    }
+
+    private ResultActions buscar(String titulo) throws Exception {
+        return mockMvc.perform(get("/livros/buscar").param("titulo", titulo))
+                .andExpect(status().isOk())
+                .andExpect(header().string(FiltroContagemSql.CABECALHO_COMANDOS, "0"));
+    }
+
+    private static String livro(String isbn, String titulo) {
+        return """
+                {"isbn": "%s", "titulo": "%s", "anoPublicacao": 2020}""".formatted(isbn, titulo);
+    }
+}
@@ -0,0 +1,162 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.monitoramento.FiltroContagemSql;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Quantidade de comandos SQL (cabeçalho X-SQL-Count) das escritas e contagens
+ *
+ * Cada caminho faz uma única ida ao banco, inclusive quando o registro não
+ * existe ou o ISBN/matrícula é de outro registro: não há SELECT antes do
+ * INSERT, UPDATE ou DELETE, e as contagens chamam a função a partir da
+ * própria linha. Uma consulta de verificação a mais faz o teste falhar.
+ *
+ * Os IDs usados aqui não são usados por nenhum outro teste (dados-teste.sql).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+class ComandosSqlPorEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Livros
+
+    @Test
+    void criarLivroComIsbnExistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(post("/livros")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(livro("978-0000000005", "Duplicado"))), 1)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensagem").value("ISBN já cadastrado: 978-0000000005"));
+    }
+
+    @Test
+    void atualizarLivroFazUmComando() throws Exception {
+        comandos(mockMvc.perform(put("/livros/10")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(livro("978-1000000010", "Livro Atualizado"))), 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.livro.titulo").value("Livro Atualizado"));
+    }
+
+    @Test
+    void atualizarLivroInexistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(put("/livros/9999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(livro("978-1000009999", "Inexistente"))), 1)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void atualizarLivroComIsbnDeOutroFazUmComando() throws Exception {
+        comandos(mockMvc.perform(put("/livros/11")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(livro("978-0000000012", "ISBN do livro 12"))), 1)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensagem").value("ISBN já em uso por outro livro: 978-0000000012"));
+    }
+
+    @Test
+    void deletarLivroFazUmComando() throws Exception {
+        comandos(mockMvc.perform(delete("/livros/13")), 1)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deletarLivroInexistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(delete("/livros/9999")), 1)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void totalAutoresFazUmComando() throws Exception {
+        comandos(mockMvc.perform(get("/livros/1/autores")), 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAutores").value(2));
+    }
+
+    @Test
+    void totalAutoresDeLivroInexistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(get("/livros/9999/autores")), 1)
+                .andExpect(status().isNotFound());
+    }
+
+    // Usuários
+
+    @Test
+    void criarUsuarioComMatriculaExistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(post("/usuarios")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(usuario("M00000005", "90000000005"))), 1)
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void atualizarUsuarioFazUmComando() throws Exception {
+        comandos(mockMvc.perform(put("/usuarios/10")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(usuario("M10000010", "90000000010"))), 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuario.matricula").value("M10000010"));
+    }
+
+    @Test
+    void atualizarUsuarioInexistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(put("/usuarios/9999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(usuario("M10009999", "90000009999"))), 1)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void atualizarUsuarioComMatriculaDeOutroFazUmComando() throws Exception {
+        comandos(mockMvc.perform(put("/usuarios/11")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(usuario("M00000012", "90000000011"))), 1)
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deletarUsuarioFazUmComando() throws Exception {
+        comandos(mockMvc.perform(delete("/usuarios/13")), 1)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deletarUsuarioInexistenteFazUmComando() throws Exception {
+        comandos(mockMvc.perform(delete("/usuarios/9999")), 1)
+                .andExpect(status().isNotFound());
+    }
+
+    private static ResultActions comandos(ResultActions resultado, int esperados) throws Exception {
+        return resultado.andExpect(header().string(FiltroContagemSql.CABECALHO_COMANDOS, Integer.toString(esperados)));
+    }
+
+    private static String livro(String isbn, String titulo) {
+        return """
+                {"isbn": "%s", "titulo": "%s", "anoPublicacao": 2020}""".formatted(isbn, titulo);
+    }
+
+    private static String usuario(String matricula, String cpf) {
+        return """
+                {"matricula": "%s", "nome": "Usuário Alterado", "email": "alterado@universidade.edu.br",
+                 "telefone": "(81) 98888-0000", "cpf": "%s"}""".formatted(matricula, cpf);
+    }
+}
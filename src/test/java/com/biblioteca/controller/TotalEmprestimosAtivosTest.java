@@ -0,0 +1,102 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.monitoramento.FiltroContagemSql;
+import com.biblioteca.service.TotaisEmprestimosAtivos;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Total de empréstimos ativos do usuário (GET /usuarios/{id}/emprestimos-ativos)
+ *
+ * O total é lido da memória, sem comando SQL, e cada devolução feita pela API
+ * o desconta, inclusive a de um empréstimo que não está nos empréstimos
+ * ativos em memória.
+ *
+ * Usuários 20 a 22 e empréstimos 1 a 3 (dados-teste.sql) são só destes testes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+class TotalEmprestimosAtivosTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TotaisEmprestimosAtivos totaisEmprestimosAtivos;
+
+    @Test
+    void devolucaoDescontaDoTotal() throws Exception {
+        total(20, 2);
+
+        mockMvc.perform(post("/emprestimos/1/devolver")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dataDevolucao\": \"2025-01-10\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.multaGerada").value(false));
+
+        total(20, 1);
+    }
+
+    @Test
+    void devolucaoEmLoteDescontaDoTotalELeAMulta() throws Exception {
+        total(21, 1);
+
+        mockMvc.perform(post("/emprestimos/devolucoes/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"idEmprestimo\": 3, \"dataDevolucao\": \"2025-01-20\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resultados[0].sucesso").value(true))
+                .andExpect(jsonPath("$.resultados[0].valorMulta").value(5.0));
+
+        total(21, 0);
+    }
+
+    @Test
+    void devolucaoDeEmprestimoForaDaMemoriaDescontaDoTotal() throws Exception {
+        // Empréstimo feito direto no banco: os totais são relidos, a view em memória não
+        Number idEmprestimo = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("emprestimo")
+                .usingGeneratedKeyColumns("id_emprestimo")
+                .executeAndReturnKey(Map.of(
+                        "id_usuario", 22,
+                        "id_exemplar", 23,
+                        "data_emprestimo", Date.valueOf("2025-01-01"),
+                        "data_prevista_devolucao", Date.valueOf("2025-01-15")));
+        totaisEmprestimosAtivos.recarregar();
+        total(22, 1);
+
+        mockMvc.perform(post("/emprestimos/" + idEmprestimo + "/devolver")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dataDevolucao\": \"2025-01-10\"}"))
+                .andExpect(status().isOk());
+
+        total(22, 0);
+    }
+
+    private void total(int idUsuario, int esperado) throws Exception {
+        mockMvc.perform(get("/usuarios/" + idUsuario + "/emprestimos-ativos"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(FiltroContagemSql.CABECALHO_COMANDOS, "0"))
+                .andExpect(jsonPath("$.totalEmprestimosAtivos").value(esperado));
+    }
+}
@@ -0,0 +1,203 @@
+package com.biblioteca.repositorio;
+
+import com.biblioteca.service.LivroService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Roteamento das leituras entre primário e réplica, com dois bancos H2
+ *
+ * A réplica tem a mesma massa do primário, mas os títulos dos livros começam
+ * com "Réplica": o primeiro livro de GET /livros mostra de onde veio a
+ * leitura. O atraso da réplica é lido da tabela atraso_replica (na própria
+ * réplica), e a verificação é chamada pelo teste em vez de esperar o agendamento.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+class DataSourceRoteadoTest {
+
+    private static final String OPCOES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String URL_PRIMARIO = "jdbc:h2:mem:roteamento-primario" + OPCOES_H2;
+    private static final String URL_REPLICA = "jdbc:h2:mem:roteamento-replica" + OPCOES_H2;
+    private static final long ATRASO_MAXIMO_MS = 1_000;
+
+    private static final String TITULO_PRIMARIO = "Livro de Teste";
+    private static final String TITULO_REPLICA = "Réplica Livro de Teste";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceRoteado dataSourceRoteado;
+
+    @Autowired
+    private LivroService livroService;
+
+    @DynamicPropertySource
+    static void bancos(DynamicPropertyRegistry registry) throws SQLException {
+        criarReplica();
+        registry.add("spring.datasource.url", () -> URL_PRIMARIO);
+        registry.add("biblioteca.replica.url", () -> URL_REPLICA);
+        registry.add("biblioteca.replica.atraso-maximo-ms", () -> ATRASO_MAXIMO_MS);
+        registry.add("biblioteca.replica.consulta-atraso", () -> "SELECT segundos FROM atraso_replica");
+        // A verificação é chamada pelos testes
+        registry.add("biblioteca.replica.verificacao-ms", () -> TimeUnit.HOURS.toMillis(1));
+    }
+
+    @BeforeEach
+    void replicaEmDia() throws Exception {
+        naReplica("DROP TABLE IF EXISTS atraso_replica",
+                "CREATE TABLE atraso_replica (segundos INT)",
+                "INSERT INTO atraso_replica VALUES (0)");
+        dataSourceRoteado.verificarReplica();
+        aguardarJanelaDeEscrita();
+    }
+
+    @AfterEach
+    void encerrarRequisicao() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void leituraVemDaReplica() throws Exception {
+        long antes = contador("leiturasReplica");
+
+        primeiroTitulo(TITULO_REPLICA);
+
+        assertEquals(0, dataSourceRoteado.getAtrasoMs());
+        assertTrue(contador("leiturasReplica") > antes);
+    }
+
+    @Test
+    void leituraDepoisDeEscritaNaMesmaRequisicaoVemDoPrimario() {
+        long antes = contador("leiturasPrimarioEscritaNaRequisicao");
+
+        // Mesmo estado de uma requisição HTTP em andamento (DispatcherServlet)
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals(TITULO_REPLICA + " 1", livroService.listarPagina(null, 1, false, false).getItens().get(0).getTitulo());
+
+        jdbcTemplate.update("UPDATE livro SET ano_publicacao = ano_publicacao WHERE id_livro = 50");
+
+        assertEquals(TITULO_PRIMARIO + " 1", livroService.listarPagina(null, 1, false, false).getItens().get(0).getTitulo());
+        assertEquals(antes + 1, contador("leiturasPrimarioEscritaNaRequisicao"));
+    }
+
+    @Test
+    void leituraDentroDaToleranciaAposEscritaVemDoPrimario() throws Exception {
+        long antes = contador("leiturasPrimarioEscritaRecente");
+
+        // Escrita de outra requisição: só a janela de atraso manda a leitura ao primário
+        jdbcTemplate.update("UPDATE livro SET ano_publicacao = ano_publicacao WHERE id_livro = 50");
+
+        primeiroTitulo(TITULO_PRIMARIO);
+        assertEquals(antes + 1, contador("leiturasPrimarioEscritaRecente"));
+
+        aguardarJanelaDeEscrita();
+        primeiroTitulo(TITULO_REPLICA);
+    }
+
+    @Test
+    void replicaComAtrasoAcimaDaToleranciaMandaLeiturasAoPrimario() throws Exception {
+        naReplica("UPDATE atraso_replica SET segundos = 5");
+        dataSourceRoteado.verificarReplica();
+        long antes = contador("leiturasPrimarioReplicaAtrasada");
+
+        assertEquals(5_000, dataSourceRoteado.getAtrasoMs());
+        primeiroTitulo(TITULO_PRIMARIO);
+        assertEquals(antes + 1, contador("leiturasPrimarioReplicaAtrasada"));
+
+        naReplica("UPDATE atraso_replica SET segundos = 0");
+        dataSourceRoteado.verificarReplica();
+        primeiroTitulo(TITULO_REPLICA);
+    }
+
+    @Test
+    void replicaSemAtrasoInformadoMandaLeiturasAoPrimario() throws Exception {
+        // Replicação parada: atraso nulo
+        naReplica("UPDATE atraso_replica SET segundos = NULL");
+        dataSourceRoteado.verificarReplica();
+
+        assertEquals(-1, dataSourceRoteado.getAtrasoMs());
+        primeiroTitulo(TITULO_PRIMARIO);
+    }
+
+    @Test
+    void consultaDeAtrasoComErroMandaLeiturasAoPrimario() throws Exception {
+        naReplica("DROP TABLE atraso_replica");
+        dataSourceRoteado.verificarReplica();
+        long antes = contador("leiturasPrimarioReplicaAtrasada");
+
+        assertEquals(-1, dataSourceRoteado.getAtrasoMs());
+        primeiroTitulo(TITULO_PRIMARIO);
+        assertEquals(antes + 1, contador("leiturasPrimarioReplicaAtrasada"));
+    }
+
+    private void primeiroTitulo(String prefixo) throws Exception {
+        mockMvc.perform(get("/livros").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.livros[0].titulo").value(prefixo + " 1"));
+    }
+
+    private long contador(String nome) {
+        return (Long) dataSourceRoteado.estatisticas().get(nome);
+    }
+
+    // A última escrita vale para a JVM inteira, inclusive a de outros testes
+    private static void aguardarJanelaDeEscrita() throws InterruptedException {
+        long janela = TimeUnit.MILLISECONDS.toNanos(ATRASO_MAXIMO_MS);
+        long limite = System.nanoTime() + 2 * janela;
+        while (RoteamentoLeitura.escreveuHaMenosDe(janela)) {
+            assertTrue(System.nanoTime() < limite, "Escrita recente não expirou");
+            Thread.sleep(50);
+        }
+        assertFalse(RoteamentoLeitura.escreveuHaMenosDe(janela));
+    }
+
+    // Mesma massa do primário, com outro título em cada livro
+    private static void criarReplica() throws SQLException {
+        naReplica("DROP ALL OBJECTS",
+                "RUNSCRIPT FROM 'classpath:schema-teste.sql' CHARSET 'UTF-8'",
+                "RUNSCRIPT FROM 'classpath:dados-teste.sql' CHARSET 'UTF-8'",
+                "UPDATE livro SET titulo = CONCAT('Réplica ', titulo)",
+                "CREATE TABLE atraso_replica (segundos INT)",
+                "INSERT INTO atraso_replica VALUES (0)");
+    }
+
+    private static void naReplica(String... comandos) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(URL_REPLICA, "sa", "");
+             Statement statement = conexao.createStatement()) {
+            for (String comando : comandos) {
+                statement.execute(comando);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.repositorio.LivroRepositorio;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Busca no índice de títulos: normalização, trigramas, relevância e alterações
+ *
+ * A leitura em streaming da tabela livro é simulada com os livros de LIVROS.
+ */
+class IndiceTitulosTest {
+
+    private static final List<Livro> LIVROS = List.of(
+            livro(1, "Java Efetivo"),
+            livro(2, "Javascript Moderno"),
+            livro(3, "Aprendendo Java"),
+            livro(4, "Estruturas de Dados em Java"),
+            livro(5, "Introdução à Programação"),
+            livro(6, "Sistemas de Banco de Dados"));
+
+    private final LivroRepositorio livroRepositorio = mock(LivroRepositorio.class);
+    private final IndiceTitulos indice = new IndiceTitulos(livroRepositorio);
+
+    @Test
+    void acentosEMaiusculasSaoIgnorados() {
+        construir();
+
+        assertThat(ids("PROGRAMACAO")).containsExactly(5);
+        assertThat(ids("introdução")).containsExactly(5);
+    }
+
+    @Test
+    void parteDaPalavraEncontradaPorTrigrama() {
+        construir();
+
+        assertThat(ids("ados")).containsExactly(4, 6);
+        assertThat(ids("gramaç")).containsExactly(5);
+    }
+
+    @Test
+    void termoExatoAntesDoPrefixoEEmpatePorTitulo() {
+        construir();
+
+        // "Javascript" só casa por prefixo; os demais empatam no termo exato e saem por título
+        assertThat(ids("java")).containsExactly(3, 4, 1, 2);
+    }
+
+    @Test
+    void todosOsTermosPrecisamEstarNoTitulo() {
+        construir();
+
+        assertThat(ids("dados")).containsExactly(4, 6);
+        assertThat(ids("banco dados")).containsExactly(6);
+        assertThat(ids("dados java")).containsExactly(4);
+    }
+
+    @Test
+    void consultaInteiraNoTituloSobeNaRelevancia() {
+        construir();
+        indice.adicionar(livro(9, "Dados de Banco Relacional"));
+
+        // Mesmos termos nos dois; só o 6 tem "banco de dados" em sequência
+        assertThat(ids("banco de dados")).containsExactly(6, 9);
+    }
+
+    @Test
+    void palavrasVaziasSaoIgnoradas() {
+        construir();
+
+        assertThat(ids("de")).isEmpty();
+        assertThat(ids("estruturas de dados")).containsExactly(4);
+    }
+
+    @Test
+    void limiteCortaOsMenosRelevantes() {
+        construir();
+
+        assertThat(indice.buscar("java", 2)).extracting(Livro::getIdLivro).containsExactly(3, 4);
+    }
+
+    @Test
+    void livroAdicionadoDepoisDaConstrucaoEntraNaBusca() {
+        construir();
+
+        indice.adicionar(livro(7, "Kotlin para Desenvolvedores Java"));
+
+        assertThat(ids("kotlin")).containsExactly(7);
+        assertThat(ids("java")).containsExactly(3, 4, 1, 7, 2);
+    }
+
+    @Test
+    void livroAlteradoSaiDaBuscaPeloTituloAntigo() {
+        construir();
+
+        indice.adicionar(livro(2, "TypeScript Moderno"));
+
+        assertThat(ids("javascript")).isEmpty();
+        assertThat(ids("typescript")).containsExactly(2);
+        assertThat(ids("moderno")).containsExactly(2);
+    }
+
+    @Test
+    void livroRemovidoSaiDaBuscaEDoVocabulario() {
+        construir();
+
+        indice.remover(6);
+
+        assertThat(ids("banco")).isEmpty();
+        assertThat(ids("ados")).containsExactly(4);
+        assertThat(indice.estatisticas()).containsEntry("livros", 5);
+    }
+
+    @Test
+    void alteracoesDuranteAConstrucaoSaoReaplicadas() {
+        doAnswer(chamada -> {
+            Consumer<Livro> consumidor = chamada.getArgument(0);
+            consumidor.accept(LIVROS.get(0));
+            // Chegam enquanto a tabela é lida, antes do índice ficar pronto
+            indice.remover(1);
+            indice.adicionar(livro(8, "Clojure Prático"));
+            LIVROS.subList(1, LIVROS.size()).forEach(consumidor);
+            return null;
+        }).when(livroRepositorio).percorrerTodos(any());
+
+        indice.construir();
+
+        assertThat(indice.isPronto()).isTrue();
+        assertThat(ids("efetivo")).isEmpty();
+        assertThat(ids("pratico")).containsExactly(8);
+    }
+
+    @Test
+    void falhaNaLeituraDeixaOIndiceSemConstruir() {
+        doAnswer(chamada -> {
+            throw new IllegalStateException("Conexão perdida");
+        }).when(livroRepositorio).percorrerTodos(any());
+
+        indice.construir();
+
+        assertThat(indice.isPronto()).isFalse();
+    }
+
+    private void construir() {
+        doAnswer(chamada -> {
+            Consumer<Livro> consumidor = chamada.getArgument(0);
+            LIVROS.forEach(consumidor);
+            return null;
+        }).when(livroRepositorio).percorrerTodos(any());
+        indice.construir();
+        assertThat(indice.isPronto()).isTrue();
+    }
+
+    private List<Integer> ids(String consulta) {
+        return indice.buscar(consulta, 10).stream().map(Livro::getIdLivro).toList();
+    }
+
+    private static Livro livro(int id, String titulo) {
+        Livro livro = new Livro("978-9" + String.format("%09d", id), titulo, 2020);
+        livro.setIdLivro(id);
+        return livro;
+    }
+}
@@ -0,0 +1,68 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Livro;
+import com.biblioteca.model.ResultadoLoteLivro;
+import com.biblioteca.repositorio.LivroRepositorio;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mensagens de POST /livros/lote quando o batch falha e o bloco é gravado livro a livro
+ *
+ * O batch só falha na gravação se outra requisição cadastrar o mesmo ISBN
+ * depois da verificação; o repositório é simulado para chegar a esse caso.
+ */
+class LivroServiceTest {
+
+    private final LivroRepositorio livroRepositorio = mock(LivroRepositorio.class);
+
+    private final LivroService livroService = new LivroService(livroRepositorio, mock(IndiceTitulos.class),
+            mock(Validator.class), new TransactionTemplate(mock(PlatformTransactionManager.class)), 100, 100);
+
+    @Test
+    void falhasLivroALivroNaoExpoemMensagemDoBanco() {
+        Livro duplicado = new Livro("978-0000000100", "Cadastrado por outra requisição", 2020);
+        Livro invalido = new Livro("978-0000000101", "Recusado pelo banco", 2020);
+        Livro valido = new Livro("978-0000000102", "Gravado", 2020);
+
+        doThrow(duplicado()).when(livroRepositorio).inserirEmLote(anyList());
+        when(livroRepositorio.inserir(any())).thenAnswer(chamada -> {
+            Livro livro = chamada.getArgument(0);
+            if (livro == duplicado) {
+                throw duplicado();
+            }
+            if (livro == invalido) {
+                throw new DataIntegrityViolationException("INSERT INTO livro",
+                        new SQLException("Data truncation: Data too long for column 'titulo' at row 1", "22001", 1406));
+            }
+            livro.setIdLivro(102);
+            return livro;
+        });
+
+        List<ResultadoLoteLivro> resultados = livroService.criarEmLote(List.of(duplicado, invalido, valido));
+
+        assertThat(resultados).extracting(ResultadoLoteLivro::getMensagem)
+                .containsExactly("ISBN já cadastrado: 978-0000000100", "Erro ao gravar livro", "Livro criado com sucesso!");
+        assertThat(resultados.get(2).getIdLivro()).isEqualTo(102);
+    }
+
+    private static DuplicateKeyException duplicado() {
+        return new DuplicateKeyException("INSERT INTO livro", new SQLIntegrityConstraintViolationException(
+                "Duplicate entry '978-0000000100' for key 'livro.isbn'", "23000", 1062));
+    }
+}
@@ -0,0 +1,108 @@
+package com.biblioteca.service;
+
+import com.biblioteca.repositorio.ContadoresPorId;
+import com.biblioteca.repositorio.UsuarioRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Devoluções e cadastros que chegam durante uma recarga dos totais
+ *
+ * A consulta agrupada é simulada: a resposta do mock faz o papel do banco no
+ * instante da consulta, e as alterações chamadas de dentro dela chegam com a
+ * recarga em andamento. O usuário 1 tem 2 empréstimos ativos na primeira carga.
+ */
+class TotaisEmprestimosAtivosTest {
+
+    private final UsuarioRepositorio usuarioRepositorio = mock(UsuarioRepositorio.class);
+    private final TotaisEmprestimosAtivos totais = new TotaisEmprestimosAtivos(usuarioRepositorio);
+
+    @BeforeEach
+    void primeiraCarga() {
+        when(usuarioRepositorio.contarEmprestimosAtivosPorUsuario()).thenReturn(contadores(1, 2));
+        totais.recarregar();
+    }
+
+    @Test
+    void devolucaoGravadaAntesDaConsultaEAvisadaDuranteARecargaNaoDescontaDuasVezes() {
+        long marca = totais.marca();
+        // A consulta agrupada já vê a devolução
+        when(usuarioRepositorio.contarEmprestimosAtivos(1)).thenReturn(Optional.of(1));
+        when(usuarioRepositorio.contarEmprestimosAtivosPorUsuario()).thenAnswer(consulta -> {
+            totais.devolvido(1, marca);
+            return contadores(1, 1);
+        });
+
+        totais.recarregar();
+
+        assertEquals(1, totais.total(1));
+    }
+
+    @Test
+    void devolucaoGravadaAntesDaConsultaEAvisadaDepoisDaRecargaNaoDescontaDuasVezes() {
+        long marca = totais.marca();
+        when(usuarioRepositorio.contarEmprestimosAtivos(1)).thenReturn(Optional.of(1));
+        when(usuarioRepositorio.contarEmprestimosAtivosPorUsuario()).thenReturn(contadores(1, 1));
+        totais.recarregar();
+
+        totais.devolvido(1, marca);
+
+        assertEquals(1, totais.total(1));
+    }
+
+    @Test
+    void devolucaoIniciadaDuranteARecargaDescontaDosNovosTotais() {
+        // A consulta agrupada começou antes da devolução e ainda conta o empréstimo
+        when(usuarioRepositorio.contarEmprestimosAtivosPorUsuario()).thenAnswer(consulta -> {
+            totais.devolvido(1, totais.marca());
+            assertEquals(1, totais.total(1));
+            return contadores(1, 2);
+        });
+
+        totais.recarregar();
+
+        assertEquals(1, totais.total(1));
+    }
+
+    @Test
+    void devolucaoSemRecargaDescontaSemIrAoBanco() {
+        totais.devolvido(1, totais.marca());
+
+        assertEquals(1, totais.total(1));
+    }
+
+    @Test
+    void totalLidoAntesDaRecargaNaoSobrescreveOsNovosTotais() {
+        when(usuarioRepositorio.contarEmprestimosAtivosPorUsuario()).thenAnswer(consulta -> {
+            // Usuário 5 ausente da memória, lido com 0 empréstimos antes da consulta agrupada
+            totais.registrar(5, 0);
+            return contadores(1, 2, 5, 3);
+        });
+
+        totais.recarregar();
+
+        assertEquals(3, totais.total(5));
+    }
+
+    @Test
+    void registrarNaoSobrescreveTotalEmMemoria() {
+        totais.registrar(1, 0);
+
+        assertEquals(2, totais.total(1));
+    }
+
+    // Pares ID do usuário, total
+    private static ContadoresPorId contadores(int... pares) {
+        ContadoresPorId contadores = new ContadoresPorId();
+        for (int i = 0; i < pares.length; i += 2) {
+            contadores.gravar(pares[i], pares[i + 1]);
+        }
+        return contadores;
+    }
+}
@@ -0,0 +1,45 @@
+package com.biblioteca.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mensagens de UsuarioService.dadoDuplicado para as violações de índice único do MySQL
+ */
+class UsuarioServiceTest {
+
+    @Test
+    void matriculaDuplicadaUsaMensagemDaMatricula() {
+        assertThat(mensagem("Duplicate entry 'M00000012' for key 'usuario.matricula'"))
+                .isEqualTo("Matrícula já cadastrada: M00000012");
+    }
+
+    @Test
+    void matriculaDuplicadaSemPrefixoDaTabela() {
+        // MySQL 5.7 informa só o nome do índice
+        assertThat(mensagem("Duplicate entry 'M00000012' for key 'matricula'"))
+                .isEqualTo("Matrícula já cadastrada: M00000012");
+    }
+
+    @Test
+    void outroIndiceNaoExpoeMensagemDoBanco() {
+        assertThat(mensagem("Duplicate entry '00000000012' for key 'usuario.cpf'"))
+                .isEqualTo("Dados já cadastrados para outro usuário");
+    }
+
+    @Test
+    void mensagemDesconhecidaNaoExpoeMensagemDoBanco() {
+        assertThat(mensagem("Unique index or primary key violation: \"PUBLIC.CONSTRAINT_INDEX_8 ON PUBLIC.USUARIO(CPF)\""))
+                .isEqualTo("Dados já cadastrados para outro usuário");
+    }
+
+    private static String mensagem(String mensagemBanco) {
+        DuplicateKeyException erro = new DuplicateKeyException("INSERT INTO usuario",
+                new SQLIntegrityConstraintViolationException(mensagemBanco, "23000", 1062));
+        return UsuarioService.dadoDuplicado(erro, "Matrícula já cadastrada: M00000012").getMessage();
+    }
+}
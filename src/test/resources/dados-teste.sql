@@ -0,0 +1,22 @@
+-- Massa fixa dos testes: cada teste usa os seus próprios IDs
+
+INSERT INTO livro (isbn, titulo, ano_publicacao)
+SELECT CONCAT('978-', LPAD("X", 10, '0')), CONCAT('Livro de Teste ', "X"), 2000 + MOD("X", 25)
+FROM SYSTEM_RANGE(1, 50);
+
+INSERT INTO usuario (matricula, nome, email, telefone, cpf)
+SELECT CONCAT('M', LPAD("X", 8, '0')), CONCAT('Usuário de Teste ', "X"),
+       CONCAT('usuario', "X", '@universidade.edu.br'), '(81) 99999-0000', LPAD("X", 11, '0')
+FROM SYSTEM_RANGE(1, 50);
+
+-- Livro 1: dois autores
+INSERT INTO livro_autor (id_livro, id_autor) VALUES (1, 1), (1, 2);
+
+-- Um exemplar por livro
+INSERT INTO exemplar (id_livro, status) SELECT "X", 'disponivel' FROM SYSTEM_RANGE(1, 50);
+
+-- Empréstimos ativos: usuário 20 com dois (1 e 2), usuário 21 com um atrasado (3)
+INSERT INTO emprestimo (id_usuario, id_exemplar, data_emprestimo, data_prevista_devolucao) VALUES
+    (20, 20, DATE '2025-01-01', DATE '2025-01-15'),
+    (20, 21, DATE '2025-01-01', DATE '2025-01-15'),
+    (21, 22, DATE '2025-01-01', DATE '2025-01-15');
@@ -0,0 +1,64 @@
+-- Estrutura do banco da biblioteca em H2 (modo MySQL), para os testes
+-- As rotinas do MySQL são ALIAS para os métodos de com.biblioteca.RotinasBanco
+
+CREATE TABLE livro (
+    id_livro INT AUTO_INCREMENT PRIMARY KEY,
+    isbn VARCHAR(30) NOT NULL UNIQUE,
+    titulo VARCHAR(255) NOT NULL,
+    ano_publicacao INT NOT NULL
+);
+CREATE INDEX idx_livro_titulo_id ON livro (titulo, id_livro);
+
+CREATE TABLE usuario (
+    id_usuario INT AUTO_INCREMENT PRIMARY KEY,
+    matricula VARCHAR(20) NOT NULL UNIQUE,
+    nome VARCHAR(150) NOT NULL,
+    email VARCHAR(150),
+    telefone VARCHAR(20),
+    cpf CHAR(11) UNIQUE
+);
+CREATE INDEX idx_usuario_nome_id ON usuario (nome, id_usuario);
+
+CREATE TABLE livro_autor (
+    id_livro INT NOT NULL,
+    id_autor INT NOT NULL,
+    PRIMARY KEY (id_livro, id_autor)
+);
+
+CREATE TABLE exemplar (
+    id_exemplar INT AUTO_INCREMENT PRIMARY KEY,
+    id_livro INT NOT NULL,
+    status VARCHAR(20)
+);
+
+CREATE TABLE emprestimo (
+    id_emprestimo INT AUTO_INCREMENT PRIMARY KEY,
+    id_usuario INT NOT NULL,
+    id_exemplar INT NOT NULL,
+    data_emprestimo DATE NOT NULL,
+    data_prevista_devolucao DATE NOT NULL,
+    data_devolucao_real DATE
+);
+
+CREATE TABLE multa (
+    id_multa INT AUTO_INCREMENT PRIMARY KEY,
+    id_emprestimo INT NOT NULL,
+    valor DECIMAL(10, 2) NOT NULL,
+    data_pagamento DATE
+);
+
+CREATE VIEW vw_emprestimos_ativos AS
+SELECT e.id_emprestimo,
+       u.nome AS usuario,
+       l.titulo AS livro,
+       e.data_emprestimo,
+       e.data_prevista_devolucao,
+       CASE WHEN e.data_devolucao_real IS NULL THEN 'pendente' ELSE 'devolvido' END AS status
+FROM emprestimo e
+JOIN usuario u ON u.id_usuario = e.id_usuario
+JOIN exemplar ex ON ex.id_exemplar = e.id_exemplar
+JOIN livro l ON l.id_livro = ex.id_livro;
+
+CREATE ALIAS fn_contar_autores_livro FOR 'com.biblioteca.RotinasBanco.contarAutoresLivro';
+CREATE ALIAS fn_obter_total_emprestimos_ativos FOR 'com.biblioteca.RotinasBanco.obterTotalEmprestimosAtivos';
+CREATE ALIAS prc_registrar_devolucao FOR 'com.biblioteca.RotinasBanco.registrarDevolucao';